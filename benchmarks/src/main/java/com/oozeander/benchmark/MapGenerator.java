@@ -0,0 +1,71 @@
+package com.oozeander.benchmark;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic scenarios in the C/M/T/A text format, reproducible from their seed.
+ */
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MapGenerator {
+
+    private static final String MOVES = "AAAAGD";
+
+    int width;
+    int height;
+    double mountainDensity;
+    double treasureDensity;
+    int adventurers;
+    int sequenceLength;
+    @Builder.Default
+    long seed = 42;
+
+    public String generate() {
+        var random = new SplittableRandom(seed);
+        var input = new StringBuilder("C - %d - %d\n".formatted(width, height));
+        var taken = new BitSet(width * height);
+
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++) {
+                double draw = random.nextDouble();
+                if (draw < mountainDensity) {
+                    taken.set(y * width + x);
+                    input.append("M - ").append(x).append(" - ").append(y).append('\n');
+                } else if (draw < mountainDensity + treasureDensity) {
+                    input.append("T - ").append(x).append(" - ").append(y).append(" - ").append(1 + random.nextInt(5)).append('\n');
+                }
+            }
+
+        for (int i = 0; i < adventurers; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(width * height);
+            } while (taken.get(cell));
+            taken.set(cell);
+            input.append("A - Adventurer").append(i)
+                    .append(" - ").append(cell % width)
+                    .append(" - ").append(cell / width)
+                    .append(" - ").append("NSEW".charAt(random.nextInt(4)))
+                    .append(" - ").append(movementSequence(random, sequenceLength))
+                    .append('\n');
+        }
+        return input.toString();
+    }
+
+    public byte[] generateBytes() {
+        return generate().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String movementSequence(SplittableRandom random, int length) {
+        var sequence = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            sequence.append(MOVES.charAt(random.nextInt(MOVES.length())));
+        return sequence.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.oozeander.benchmark;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MoveKernel;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.Occupancy;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Adventurer#moveOnce} against the {@link MoveKernel} of each terrain representation.
+ */
+@Fork(2)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MoveKernelBenchmark {
+
+    @State(Scope.Thread)
+    public static class LayoutMap {
+
+        @Param({"GRID", "SPARSE"})
+        public StorageLayout layout;
+        @Param({"false", "true"})
+        public boolean specialized;
+
+        TreasureMap treasureMap;
+
+        // Simulation mutates the map, so each invocation needs its own copy.
+        @Setup(Level.Invocation)
+        public void parse(ScenarioState scenario) {
+            treasureMap = withLayout(scenario.parse(), layout);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SingleAdventurer {
+
+        @Param({"GRID", "SPARSE"})
+        public StorageLayout layout;
+
+        TreasureMap treasureMap;
+        MoveKernel kernel;
+        Adventurer adventurer;
+        String movementSequence;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void parse(ScenarioState scenario) {
+            treasureMap = withLayout(scenario.parse(), layout);
+            kernel = MoveKernel.of(treasureMap);
+            adventurer = treasureMap.players().get(0);
+            movementSequence = adventurer.movementSequence();
+        }
+
+        char nextMove() {
+            char move = movementSequence.charAt(cursor);
+            cursor = cursor + 1 == movementSequence.length() ? 0 : cursor + 1;
+            return move;
+        }
+    }
+
+    static TreasureMap withLayout(TreasureMap parsed, StorageLayout layout) {
+        return TreasureMap.builder()
+                .width(parsed.width())
+                .height(parsed.height())
+                .mountains(new HashSet<>(parsed.mountains()))
+                .treasures(new HashMap<>(parsed.treasures()))
+                .players(parsed.players())
+                .layout(layout)
+                .build();
+    }
+
+    @Benchmark
+    public TreasureMap simulateMovement(LayoutMap map) {
+        var simulation = new Simulation(map.treasureMap);
+        simulation.specialized(map.specialized);
+        simulation.run();
+        return map.treasureMap;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public MoveResult interpretedMove(SingleAdventurer state) {
+        return state.adventurer.moveOnce(state.treasureMap, state.nextMove(), Occupancy.NONE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public MoveResult specializedMove(SingleAdventurer state) {
+        return state.kernel.moveOnce(state.adventurer, state.nextMove(), Occupancy.NONE);
+    }
+}
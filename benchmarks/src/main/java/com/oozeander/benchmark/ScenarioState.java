@@ -0,0 +1,47 @@
+package com.oozeander.benchmark;
+
+import com.oozeander.io.TreasureMapReader;
+import com.oozeander.model.TreasureMap;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+@State(Scope.Benchmark)
+public class ScenarioState {
+
+    @Param("1000")
+    public int width;
+    @Param("1000")
+    public int height;
+    @Param("0.05")
+    public double mountainDensity;
+    @Param("0.05")
+    public double treasureDensity;
+    @Param("100")
+    public int adventurers;
+    @Param("10000")
+    public int sequenceLength;
+
+    public byte[] input;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        input = MapGenerator.builder()
+                .width(width)
+                .height(height)
+                .mountainDensity(mountainDensity)
+                .treasureDensity(treasureDensity)
+                .adventurers(adventurers)
+                .sequenceLength(sequenceLength)
+                .build()
+                .generateBytes();
+    }
+
+    public TreasureMap parse() {
+        return TreasureMapReader.read(ByteBuffer.wrap(input));
+    }
+}
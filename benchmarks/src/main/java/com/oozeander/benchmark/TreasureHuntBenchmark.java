@@ -0,0 +1,129 @@
+package com.oozeander.benchmark;
+
+import com.oozeander.io.TreasureMapWriter;
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.BatchSimulation;
+import com.oozeander.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TreasureHuntBenchmark {
+
+    @State(Scope.Thread)
+    public static class FreshMap {
+
+        TreasureMap treasureMap;
+
+        // Simulation mutates the map, so each invocation needs its own copy.
+        @Setup(Level.Invocation)
+        public void parse(ScenarioState scenario) {
+            treasureMap = scenario.parse();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SingleAdventurer {
+
+        TreasureMap treasureMap;
+        Adventurer adventurer;
+        String movementSequence;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void parse(ScenarioState scenario) {
+            treasureMap = scenario.parse();
+            adventurer = treasureMap.players().get(0);
+            movementSequence = adventurer.movementSequence();
+        }
+
+        char nextMove() {
+            char move = movementSequence.charAt(cursor);
+            cursor = cursor + 1 == movementSequence.length() ? 0 : cursor + 1;
+            return move;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ParsedMap {
+
+        TreasureMap treasureMap;
+
+        @Setup(Level.Trial)
+        public void parse(ScenarioState scenario) {
+            treasureMap = scenario.parse();
+        }
+    }
+
+    @Benchmark
+    public TreasureMap parseInput(ScenarioState scenario) {
+        return scenario.parse();
+    }
+
+    @Benchmark
+    public TreasureMap simulateMovement(FreshMap map) {
+        new Simulation(map.treasureMap).run();
+        return map.treasureMap;
+    }
+
+    @Benchmark
+    public TreasureMap simulateMovementInBatch(FreshMap map) {
+        new BatchSimulation(map.treasureMap).run();
+        return map.treasureMap;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public MoveResult moveOnce(SingleAdventurer state) {
+        return state.adventurer.moveOnce(state.treasureMap, state.nextMove());
+    }
+
+    @Benchmark
+    public String renderToString(ParsedMap map) {
+        return map.treasureMap.toString();
+    }
+
+    @Benchmark
+    public long renderWithWriter(ParsedMap map) throws IOException {
+        return TreasureMapWriter.write(map.treasureMap, new DiscardingChannel());
+    }
+
+    static final class DiscardingChannel implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,87 +1,239 @@
 package com.oozeander;
 
-import com.oozeander.model.Adventurer;
-import com.oozeander.model.Coordinate;
-import com.oozeander.model.Direction;
+import com.oozeander.batch.BatchReport;
+import com.oozeander.batch.BatchRunner;
+import com.oozeander.events.EventLog;
+import com.oozeander.events.FileEventSink;
+import com.oozeander.events.MoveEvent;
+import com.oozeander.events.OverflowPolicy;
+import com.oozeander.io.MapDelta;
+import com.oozeander.io.MapSnapshot;
+import com.oozeander.io.TerrainCache;
+import com.oozeander.io.TreasureMapReader;
+import com.oozeander.io.TreasureMapWriter;
+import com.oozeander.metrics.TreasureHuntMetrics;
+import com.oozeander.model.MapChanges;
 import com.oozeander.model.TreasureMap;
+import com.oozeander.server.TreasureHuntServer;
+import com.oozeander.simulation.Checkpointer;
+import com.oozeander.simulation.Engine;
+import com.oozeander.simulation.Simulation;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 
 public class TreasureHunt {
 
+    private static final Set<String> VALUE_OPTIONS = Set.of("--metrics", "--events", "--checkpoint", "--checkpoint-interval");
+
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
-            System.err.println("Usage: java TreasureHunt <input_file> <output_file>");
+        boolean batch = false, toSnapshot = false, server = false, delta = false, applyDelta = false;
+        boolean parallel = false, lockstep = false, valid = true;
+        Path metricsFile = null, checkpointDirectory = null, eventsFile = null;
+        String checkpointInterval = null;
+        int first = 0;
+        for (; first < args.length && args[first].startsWith("--"); first++) {
+            String option = args[first], value = null;
+            if (VALUE_OPTIONS.contains(option)) {
+                if (++first == args.length) {
+                    valid = false;
+                    break;
+                }
+                value = args[first];
+            }
+            switch (option) {
+                case "--parallel" -> parallel = true;
+                case "--lockstep" -> lockstep = true;
+                case "--batch" -> batch = true;
+                case "--server" -> server = true;
+                case "--to-snapshot" -> toSnapshot = true;
+                case "--delta" -> delta = true;
+                case "--apply-delta" -> applyDelta = true;
+                case "--metrics" -> metricsFile = Path.of(value);
+                case "--events" -> eventsFile = Path.of(value);
+                case "--checkpoint" -> checkpointDirectory = Path.of(value);
+                case "--checkpoint-interval" -> checkpointInterval = value;
+                default -> valid = false;
+            }
+        }
+        int positional = args.length - first;
+        boolean optionalNumber = (batch || server) && positional == 2;
+        // Numeric arguments are checked up front: a malformed one gets the usage message, not a stack trace.
+        long port = server && positional >= 1 ? parse(args[first], 0, 0xFFFF) : 0;
+        long number = optionalNumber ? parse(args[first + 1], batch ? 1 : 0, Integer.MAX_VALUE)
+                : batch ? BatchRunner.DEFAULT_PARALLELISM : TreasureHuntServer.DEFAULT_QUEUE_CAPACITY;
+        long interval = checkpointInterval == null ? Checkpointer.DEFAULT_INTERVAL : parse(checkpointInterval, 1, Long.MAX_VALUE);
+        boolean events = eventsFile != null, checkpoint = checkpointDirectory != null;
+        // One mode at a time; only a plain run or a delta picks an engine, only a checkpoint takes an interval,
+        // and metrics need a simulation.
+        valid &= count(batch, server, toSnapshot, delta, applyDelta, events, checkpoint) <= 1
+                && count(parallel, lockstep) <= (count(batch, server, toSnapshot, applyDelta, events, checkpoint) == 0 ? 1 : 0)
+                && (checkpointInterval == null || checkpoint)
+                && (metricsFile == null || !toSnapshot && !applyDelta)
+                && port >= 0 && number >= 0 && interval >= 0;
+        if (!valid || (batch || server ? positional < 1 || positional > 2 : positional != (applyDelta ? 3 : 2))) {
+            System.err.println("Usage: java TreasureHunt [--parallel | --lockstep] [--metrics <json_file>] <input_file> <output_file>");
+            System.err.println("       java TreasureHunt --delta [--parallel | --lockstep] [--metrics <json_file>] <input_file> <delta_file>");
+            System.err.println("       java TreasureHunt --apply-delta <input_file> <delta_file> <output_file>");
+            System.err.println("       java TreasureHunt --events <event_log_file> [--metrics <json_file>] <input_file> <output_file>");
+            System.err.println("       java TreasureHunt --checkpoint <directory> [--checkpoint-interval <ticks>] [--metrics <json_file>] <input_file> <output_file>");
+            System.err.println("       java TreasureHunt --to-snapshot <input_file> <snapshot_file>");
+            System.err.println("       java TreasureHunt --batch [--metrics <json_file>] <input_directory_or_glob> [parallelism]");
+            System.err.println("       java TreasureHunt --server [--metrics <json_file>] <port> [queue_capacity]");
             System.exit(1);
         }
+        Engine engine = parallel ? Engine.PARALLEL : lockstep ? Engine.LOCKSTEP : Engine.SEQUENTIAL;
+        TreasureHuntMetrics metrics = metricsFile == null ? null : TreasureHuntMetrics.enable();
+
+        int exitCode = 0;
+        if (server) {
+            serve((int) port, (int) number, metricsFile);
+            return;
+        } else if (batch) {
+            BatchReport report = BatchRunner.run(args[first], (int) number);
+            exitCode = report.failed() == 0 ? 0 : 2;
+        } else if (applyDelta) {
+            MapDelta.apply(Path.of(args[first]), Path.of(args[first + 1]), Path.of(args[first + 2]));
+        } else if (delta) {
+            runDelta(args[first], args[first + 1], engine);
+        } else if (toSnapshot) {
+            MapSnapshot.write(parseInput(args[first]), Path.of(args[first + 1]));
+        } else if (eventsFile != null) {
+            run(args[first], args[first + 1], eventsFile);
+        } else if (checkpointDirectory != null) {
+            run(args[first], args[first + 1], checkpointDirectory, interval);
+        } else {
+            run(args[first], args[first + 1], engine);
+        }
+
+        if (metrics != null)
+            metrics.writeJson(metricsFile);
+        System.exit(exitCode);
+    }
+
+    // Returns -1 when the value is not a number between min and max.
+    private static long parse(String value, long min, long max) {
+        try {
+            long number = Long.parseLong(value);
+            return number >= min && number <= max ? number : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int count(boolean... flags) {
+        int count = 0;
+        for (boolean flag : flags)
+            if (flag)
+                count++;
+        return count;
+    }
+
+    // The server runs until the JVM stops: metrics, if any, are written on the way out.
+    private static void serve(int port, int queueCapacity, Path metricsFile) throws IOException {
+        var server = TreasureHuntServer.start(port, BatchRunner.DEFAULT_PARALLELISM, queueCapacity);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+            if (metrics != null)
+                try {
+                    metrics.writeJson(metricsFile);
+                } catch (IOException e) {
+                    System.err.println("Unable to write metrics to %s: %s".formatted(metricsFile, e.getMessage()));
+                }
+        }));
+        System.out.println("Listening on http://localhost:%d/simulate".formatted(server.port()));
+    }
 
-        String inputFile = args[0], outputFile = args[1];
+    public static long run(String inputFile, String outputFile, Engine engine) throws IOException {
+        return run(inputFile, outputFile, engine, null);
+    }
+
+    /**
+     * Same as {@link #run(String, String, Engine)}, reusing the terrain of a previous input when the cache has it.
+     */
+    public static long run(String inputFile, String outputFile, Engine engine, TerrainCache cache) throws IOException {
+        long start = System.nanoTime();
+        TreasureMap map = parseInput(inputFile, cache);
+        long parsed = System.nanoTime();
+        engine.run(map);
+        return writeOutput(map, inputFile, outputFile, start, parsed);
+    }
 
+    /**
+     * Same as {@link #run(String, String, Engine)}, but only writes the treasure cells and adventurers that changed,
+     * see {@link TreasureMapWriter#writeDelta}; {@link MapDelta#apply} rebuilds the full output.
+     */
+    public static long runDelta(String inputFile, String deltaFile, Engine engine) throws IOException {
+        TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+        long start = System.nanoTime();
         TreasureMap map = parseInput(inputFile);
-        simulateMovement(map);
+        MapDelta.requireUniqueNames(map);
+        MapChanges changes = map.trackChanges();
+        long parsed = System.nanoTime();
+        engine.run(map);
+        long simulated = System.nanoTime();
 
-        writeOutput(map, outputFile);
+        long bytesWritten = TreasureMapWriter.writeDelta(map, changes, Path.of(deltaFile));
+        if (metrics != null)
+            metrics.recordScenario(parsed - start, simulated - parsed, Files.size(Path.of(inputFile)), bytesWritten);
+        return bytesWritten;
+    }
+
+    /**
+     * Simulates sequentially while logging every move to the given file, see {@link MoveEvent} for the record layout.
+     */
+    public static long run(String inputFile, String outputFile, Path eventsFile) throws IOException {
+        long start = System.nanoTime();
+        TreasureMap map = parseInput(inputFile);
+        long parsed = System.nanoTime();
+        try (EventLog events = new EventLog(new FileEventSink(eventsFile), OverflowPolicy.BLOCK)) {
+            Simulation simulation = new Simulation(map);
+            simulation.listener(events);
+            simulation.run();
+        }
+        return writeOutput(map, inputFile, outputFile, start, parsed);
+    }
+
+    /**
+     * Simulates sequentially while checkpointing into the given directory, resuming from its latest checkpoint if any.
+     */
+    public static long run(String inputFile, String outputFile, Path checkpointDirectory, long checkpointInterval) throws IOException {
+        long start = System.nanoTime();
+        TreasureMap map = parseInput(inputFile);
+        long parsed = System.nanoTime();
+        try (Checkpointer checkpointer = new Checkpointer(checkpointDirectory, checkpointInterval)) {
+            checkpointer.resume(map).run();
+            // The result does not depend on the checkpoints: it is written before close() reports a failed write.
+            return writeOutput(map, inputFile, outputFile, start, parsed);
+        }
     }
 
     private static TreasureMap parseInput(String inputFile) throws IOException {
-        AtomicReference<TreasureMap> treasureMap = new AtomicReference<>();
-        Files.readAllLines(Path.of(inputFile))
-                .stream().dropWhile(line -> line.startsWith("#"))
-                .forEach(line -> {
-                    String[] parts = line.split(" - ");
-                    String type = parts[0];
-
-                    switch (type) {
-                        case "C" -> {
-                            treasureMap.set(TreasureMap.builder()
-                                    .width(Integer.parseInt(parts[1]))
-                                    .height(Integer.parseInt(parts[2]))
-                                    .build()
-                            );
-                        }
-                        case "M" -> {
-                            treasureMap.get().addMountain(Coordinate.builder()
-                                    .x((short) Integer.parseInt(parts[1]))
-                                    .y((short) Integer.parseInt(parts[2]))
-                                    .build());
-                        }
-                        case "T" -> {
-                            treasureMap.get().addTreasure(
-                                    Coordinate.builder()
-                                            .x((short) Integer.parseInt(parts[1]))
-                                            .y((short) Integer.parseInt(parts[2]))
-                                            .build(),
-                                    (short) Integer.parseInt(parts[3]));
-                        }
-                        case "A" -> {
-                            treasureMap.get().addAdventurer(Adventurer.builder()
-                                    .name(parts[1])
-                                    .movementSequence(parts[5])
-                                    .position(
-                                            Coordinate.builder()
-                                                    .x((short) Integer.parseInt(parts[2]))
-                                                    .y((short) Integer.parseInt(parts[3]))
-                                                    .build())
-                                    .orientation(Direction.directionByValue(parts[4].charAt(0)))
-                                    .treasureCount((short) 0)
-                                    .build()
-                            );
-                        }
-                        default -> throw new IllegalArgumentException("Unknown type: %s".formatted(type));
-                    }
-                });
-        return treasureMap.get();
+        return parseInput(inputFile, null);
+    }
+
+    private static TreasureMap parseInput(String inputFile, TerrainCache cache) throws IOException {
+        Path input = Path.of(inputFile);
+        if (cache == null || MapSnapshot.isSnapshot(input))
+            return TreasureMapReader.readMapOrSnapshot(input);
+        return cache.read(input);
     }
 
-    private static void simulateMovement(TreasureMap treasureMap) {
-        for (Adventurer player : treasureMap.players())
-            player.movementSequence().chars().forEach(move -> player.moveOnce(treasureMap, (char) move));
+    private static long writeOutput(TreasureMap treasureMap, String outputFile) throws IOException {
+        return TreasureMapWriter.write(treasureMap, Path.of(outputFile));
     }
 
-    private static void writeOutput(TreasureMap treasureMap, String outputFile) throws IOException {
-        Files.writeString(Path.of(outputFile), treasureMap.toString());
+    // Called once the simulation is over: also records the scenario when metrics are enabled.
+    private static long writeOutput(TreasureMap treasureMap, String inputFile, String outputFile, long start, long parsed)
+            throws IOException {
+        long simulated = System.nanoTime();
+        long bytesWritten = writeOutput(treasureMap, outputFile);
+        TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+        if (metrics != null)
+            metrics.recordScenario(parsed - start, simulated - parsed, Files.size(Path.of(inputFile)), bytesWritten);
+        return bytesWritten;
     }
 }
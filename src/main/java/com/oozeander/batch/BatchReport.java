@@ -0,0 +1,37 @@
+package com.oozeander.batch;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+@Value
+@Accessors(fluent = true)
+public class BatchReport {
+
+    List<ScenarioResult> results;
+    long nanos;
+
+    public long succeeded() {
+        return results.stream().filter(result -> result.status() == ScenarioResult.Status.OK).count();
+    }
+
+    public long failed() {
+        return results.size() - succeeded();
+    }
+
+    public double scenariosPerSecond() {
+        return nanos == 0 ? 0 : results.size() * 1e9 / nanos;
+    }
+
+    public double megabytesPerSecond() {
+        long bytes = results.stream().mapToLong(result -> result.bytesRead() + result.bytesWritten()).sum();
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1 << 20);
+    }
+
+    @Override
+    public String toString() {
+        return "%d scenarios (%d ok, %d failed) in %.3f s: %.1f scenarios/s, %.1f MB/s".formatted(
+                results.size(), succeeded(), failed(), nanos / 1e9, scenariosPerSecond(), megabytesPerSecond());
+    }
+}
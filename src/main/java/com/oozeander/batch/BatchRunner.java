@@ -0,0 +1,125 @@
+package com.oozeander.batch;
+
+import com.oozeander.TreasureHunt;
+import com.oozeander.io.TerrainCache;
+import com.oozeander.simulation.Engine;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Runs every scenario of a directory or glob in the same JVM, writing each result next to its input.
+ * Scenarios run on virtual threads when the runtime provides them, with at most {@code parallelism} in flight.
+ */
+public final class BatchRunner {
+
+    public static final String OUTPUT_SUFFIX = ".out";
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final String INVALID_PARALLELISM = "Parallelism must be positive: %d";
+
+    private BatchRunner() {
+    }
+
+    public static BatchReport run(String inputs, int parallelism) throws IOException {
+        BatchReport report = run(resolveInputs(inputs), parallelism);
+        report.results().forEach(System.out::println);
+        System.out.println(report);
+        return report;
+    }
+
+    public static BatchReport run(List<Path> inputs, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException(INVALID_PARALLELISM.formatted(parallelism));
+        long start = System.nanoTime();
+        var permits = new Semaphore(parallelism);
+        // Scenarios of a batch often share their terrain: it is only parsed once.
+        var cache = new TerrainCache(TerrainCache.DEFAULT_MAX_BYTES);
+        List<Future<ScenarioResult>> futures = new ArrayList<>(inputs.size());
+        ExecutorService executor = executor(parallelism);
+        try {
+            for (Path input : inputs)
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return runScenario(input, cache);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            List<ScenarioResult> results = new ArrayList<>(futures.size());
+            for (Future<ScenarioResult> future : futures)
+                results.add(future.get());
+            return new BatchReport(results, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static List<Path> resolveInputs(String inputs) throws IOException {
+        Path directory = Path.of(inputs);
+        if (Files.isDirectory(directory))
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(BatchRunner::isScenario).sorted().toList();
+            }
+
+        // Walk from the deepest directory without glob characters and match the rest of the pattern.
+        Path root = Path.of("").toAbsolutePath();
+        Path pattern = directory.isAbsolute() ? directory : root.resolve(directory);
+        Path base = pattern.getRoot();
+        for (Path segment : pattern) {
+            if (segment.toString().matches(".*[*?\\[{].*"))
+                break;
+            base = base.resolve(segment);
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.toString().replace("\\", "\\\\"));
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(matcher::matches).filter(BatchRunner::isScenario).sorted().toList();
+        }
+    }
+
+    private static boolean isScenario(Path path) {
+        return Files.isRegularFile(path) && !path.getFileName().toString().endsWith(OUTPUT_SUFFIX);
+    }
+
+    private static ScenarioResult runScenario(Path input, TerrainCache cache) {
+        Path output = input.resolveSibling(input.getFileName() + OUTPUT_SUFFIX);
+        var result = ScenarioResult.builder().input(input).output(output);
+        long start = System.nanoTime();
+        try {
+            long bytesRead = Files.size(input);
+            long bytesWritten = TreasureHunt.run(input.toString(), output.toString(), Engine.SEQUENTIAL, cache);
+            result.status(ScenarioResult.Status.OK).bytesRead(bytesRead).bytesWritten(bytesWritten);
+        } catch (IOException | RuntimeException e) {
+            result.status(ScenarioResult.Status.FAILED).error(e.getMessage());
+        }
+        return result.nanos(System.nanoTime() - start).build();
+    }
+
+    /**
+     * A virtual thread per task when the runtime has them, a pool of {@code parallelism} threads otherwise.
+     */
+    public static ExecutorService executor(int parallelism) {
+        try {
+            // Virtual threads need Java 21; the build still targets 17, hence the reflective lookup.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(parallelism);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.oozeander.batch;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.nio.file.Path;
+
+@Value
+@Builder
+@Accessors(fluent = true)
+public class ScenarioResult {
+
+    public enum Status {OK, FAILED}
+
+    Path input;
+    Path output;
+    Status status;
+    String error;
+    long nanos;
+    long bytesRead;
+    long bytesWritten;
+
+    @Override
+    public String toString() {
+        return status == Status.OK
+                ? "%s\t%s\t%.3f ms".formatted(status, input, nanos / 1e6)
+                : "%s\t%s\t%s".formatted(status, input, error);
+    }
+}
@@ -0,0 +1,20 @@
+package com.oozeander.events;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes each record and hands it to a listener, on the log's consumer thread.
+ */
+public final class CallbackEventSink implements EventSink {
+
+    private final MoveEventListener listener;
+
+    public CallbackEventSink(MoveEventListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(ByteBuffer records) {
+        MoveEvent.forEach(records, listener);
+    }
+}
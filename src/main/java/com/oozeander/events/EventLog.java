@@ -0,0 +1,138 @@
+package com.oozeander.events;
+
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveResult;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer ring buffer of {@link MoveEvent} records, drained in batches to an {@link EventSink}
+ * by a dedicated consumer thread.
+ * <p>
+ * {@link #publish} writes into preallocated slots and never allocates; when the ring is full it either
+ * waits or drops, according to the {@link OverflowPolicy}.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class EventLog implements MoveEventListener, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    static final long PARK_NANOS = 50_000;
+
+    private static final String INVALID_CAPACITY = "Event log capacity must be positive: %d";
+
+    final ByteBuffer ring;
+    final int mask;
+    final EventSink sink;
+    @Getter
+    final OverflowPolicy policy;
+    final Thread consumer;
+    // Next slot to write, only advanced by the producer.
+    final AtomicLong head = new AtomicLong();
+    // Next slot to drain, only advanced by the consumer.
+    final AtomicLong tail = new AtomicLong();
+    long cachedTail;
+    @Getter
+    volatile long dropped;
+    volatile boolean closed;
+    volatile Exception failure;
+
+    public EventLog(EventSink sink, OverflowPolicy policy) {
+        this(sink, policy, DEFAULT_CAPACITY);
+    }
+
+    public EventLog(EventSink sink, OverflowPolicy policy, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException(INVALID_CAPACITY.formatted(capacity));
+        int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.ring = ByteBuffer.allocateDirect(slots * MoveEvent.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.mask = slots - 1;
+        this.sink = sink;
+        this.policy = policy;
+        this.consumer = new Thread(this::drain, "event-log");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Appends one record; returns false if it was dropped. Must only be called from one thread.
+     */
+    public boolean publish(long tick, int adventurer, MoveResult result, int x, int y, Direction orientation, int treasureCount) {
+        long slot = head.get();
+        if (slot - cachedTail > mask && slot - (cachedTail = tail.get()) > mask) {
+            if (policy == OverflowPolicy.DROP) {
+                dropped++;
+                return false;
+            }
+            while (slot - (cachedTail = tail.get()) > mask)
+                LockSupport.parkNanos(PARK_NANOS);
+        }
+        MoveEvent.write(ring, (int) (slot & mask) * MoveEvent.SIZE, tick, adventurer, result, x, y, orientation, treasureCount);
+        head.lazySet(slot + 1);
+        return true;
+    }
+
+    @Override
+    public void onEvent(long tick, int adventurer, MoveResult result, int x, int y, Direction orientation, int treasureCount) {
+        publish(tick, adventurer, result, x, y, orientation, treasureCount);
+    }
+
+    public long published() {
+        return head.get();
+    }
+
+    private void drain() {
+        ByteBuffer batch = ring.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        while (true) {
+            long from = tail.get();
+            boolean last = closed;
+            long to = head.get();
+            if (from == to) {
+                if (last)
+                    return;
+                LockSupport.parkNanos(PARK_NANOS);
+                continue;
+            }
+            // Up to the end of the ring; the wrapped part goes in the next batch.
+            int first = (int) (from & mask);
+            int count = (int) Math.min(to - from, mask + 1 - first);
+            batch.clear().position(first * MoveEvent.SIZE).limit((first + count) * MoveEvent.SIZE);
+            if (failure == null) {
+                try {
+                    sink.write(batch);
+                } catch (IOException | RuntimeException e) {
+                    // Keep draining so that a blocked producer is released.
+                    failure = e;
+                }
+            }
+            tail.lazySet(from + count);
+        }
+    }
+
+    /**
+     * Drains the remaining records, closes the sink and reports the first sink failure, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+        if (failure instanceof IOException e)
+            throw e;
+        if (failure instanceof RuntimeException e)
+            throw e;
+    }
+}
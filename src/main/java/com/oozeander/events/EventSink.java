@@ -0,0 +1,20 @@
+package com.oozeander.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of batches of {@link MoveEvent} records, always called from a single thread.
+ */
+public interface EventSink extends Closeable {
+
+    /**
+     * Consumes the records between the position and the limit; the buffer is reused once this returns.
+     */
+    void write(ByteBuffer records) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,28 @@
+package com.oozeander.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class FileEventSink implements EventSink {
+
+    private final FileChannel channel;
+
+    public FileEventSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(ByteBuffer records) throws IOException {
+        while (records.hasRemaining())
+            channel.write(records);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.oozeander.events;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public final class MemoryEventSink implements EventSink {
+
+    private ByteBuffer records = ByteBuffer.allocate(1024 * MoveEvent.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    @Override
+    public synchronized void write(ByteBuffer batch) {
+        if (records.remaining() < batch.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + batch.remaining()))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            records = grown.put(records.flip());
+        }
+        records.put(batch);
+    }
+
+    public synchronized int size() {
+        return records.position() / MoveEvent.SIZE;
+    }
+
+    /**
+     * A read-only view of the records written so far.
+     */
+    public synchronized ByteBuffer records() {
+        return records.asReadOnlyBuffer().flip().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public void forEach(MoveEventListener listener) {
+        MoveEvent.forEach(records(), listener);
+    }
+}
@@ -0,0 +1,86 @@
+package com.oozeander.events;
+
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Layout of a move record, fixed-width and little-endian:
+ * <pre>
+ * long tick, int adventurer (index in file order), int x, int y, int treasureCount,
+ * byte result (MoveResult ordinal), byte orientation
+ * </pre>
+ * Position, orientation and treasure count are those after the move.
+ */
+public final class MoveEvent {
+
+    public static final int SIZE = 26;
+    static final int TICK = 0;
+    static final int ADVENTURER = 8;
+    static final int X = 12;
+    static final int Y = 16;
+    static final int TREASURE_COUNT = 20;
+    static final int RESULT = 24;
+    static final int ORIENTATION = 25;
+
+    // 4M records, about 110 MB.
+    static final long SEGMENT_SIZE = (long) SIZE << 22;
+
+    private static final MoveResult[] RESULTS = MoveResult.values();
+    private static final String TRUNCATED_RECORD = "Truncated move record at byte %d";
+
+    private MoveEvent() {
+    }
+
+    static void write(ByteBuffer records, int offset, long tick, int adventurer, MoveResult result,
+                      int x, int y, Direction orientation, int treasureCount) {
+        records.putLong(offset + TICK, tick)
+                .putInt(offset + ADVENTURER, adventurer)
+                .putInt(offset + X, x)
+                .putInt(offset + Y, y)
+                .put(offset + RESULT, (byte) result.ordinal())
+                .put(offset + ORIENTATION, (byte) orientation.value())
+                .putInt(offset + TREASURE_COUNT, treasureCount);
+    }
+
+    /**
+     * Decodes every record between the position and the limit of the given buffer.
+     */
+    public static void forEach(ByteBuffer records, MoveEventListener listener) {
+        ByteBuffer buffer = records.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() % SIZE != 0)
+            throw new IllegalArgumentException(TRUNCATED_RECORD.formatted(buffer.limit() - buffer.remaining() % SIZE));
+        for (int offset = buffer.position(); offset < buffer.limit(); offset += SIZE)
+            listener.onEvent(buffer.getLong(offset + TICK),
+                    buffer.getInt(offset + ADVENTURER),
+                    RESULTS[buffer.get(offset + RESULT)],
+                    buffer.getInt(offset + X),
+                    buffer.getInt(offset + Y),
+                    Direction.directionByValue((char) buffer.get(offset + ORIENTATION)),
+                    buffer.getInt(offset + TREASURE_COUNT));
+    }
+
+    /**
+     * Replays a log written by a {@link FileEventSink}.
+     */
+    public static void replay(Path file, MoveEventListener listener) throws IOException {
+        replay(file, listener, SEGMENT_SIZE);
+    }
+
+    // Logs can outgrow a single mapping: they are mapped one segment of whole records at a time.
+    static void replay(Path file, MoveEventListener listener, long segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % SIZE != 0)
+                throw new IllegalArgumentException(TRUNCATED_RECORD.formatted(size - size % SIZE));
+            for (long offset = 0; offset < size; offset += segmentSize)
+                forEach(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentSize, size - offset)), listener);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.oozeander.events;
+
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveResult;
+
+@FunctionalInterface
+public interface MoveEventListener {
+
+    void onEvent(long tick, int adventurer, MoveResult result, int x, int y, Direction orientation, int treasureCount);
+}
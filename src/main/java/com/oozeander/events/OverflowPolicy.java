@@ -0,0 +1,11 @@
+package com.oozeander.events;
+
+/**
+ * What a producer does when the ring buffer is full because the sink is too slow.
+ */
+public enum OverflowPolicy {
+    /** Wait for the sink to free a slot: no event is lost, the simulation slows down to the sink's pace. */
+    BLOCK,
+    /** Discard the event and count it: the simulation never waits. */
+    DROP
+}
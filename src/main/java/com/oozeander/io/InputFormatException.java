@@ -0,0 +1,33 @@
+package com.oozeander.io;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class InputFormatException extends IllegalArgumentException {
+
+    long line;
+    int column;
+
+    public InputFormatException(String message, long line, int column) {
+        super("%s (line %d, column %d)".formatted(message, line, column));
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Several errors reported at once, in order: the first one locates the exception.
+     */
+    public InputFormatException(String header, List<InputFormatException> errors) {
+        super(errors.stream().map(Throwable::getMessage).collect(Collectors.joining("\n", header + "\n", "")));
+        this.line = errors.get(0).line;
+        this.column = errors.get(0).column;
+    }
+}
@@ -0,0 +1,110 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the full result of a run from its input map and the delta written by
+ * {@link TreasureMapWriter#writeDelta}: each T line sets a treasure count, each A line the state of the
+ * adventurer of that name. A delta only lists the adventurers that changed, so names must be unique.
+ */
+public final class MapDelta {
+
+    private static final String SEPARATOR = " - ";
+    private static final String DIMENSIONS_MISMATCH = "The delta is for a %dx%d map, the input map is %dx%d";
+    private static final String UNKNOWN_TYPE = "Unknown type: %s";
+    private static final String UNKNOWN_ADVENTURER = "Unknown adventurer: %s";
+    private static final String DUPLICATE_ADVENTURER = "Adventurer names must be unique for a delta: %s";
+    private static final String INVALID_LINE = "Invalid delta line: %s";
+
+    private MapDelta() {
+    }
+
+    public static long apply(Path input, Path delta, Path output) throws IOException {
+        TreasureMap treasureMap = TreasureMapReader.readMapOrSnapshot(input);
+        try (BufferedReader reader = Files.newBufferedReader(delta, StandardCharsets.UTF_8)) {
+            apply(treasureMap, reader);
+        }
+        return TreasureMapWriter.write(treasureMap, output);
+    }
+
+    public static void apply(TreasureMap treasureMap, BufferedReader delta) throws IOException {
+        Map<String, Adventurer> adventurers = byName(treasureMap);
+        String line;
+        for (long lineNumber = 1; (line = delta.readLine()) != null; lineNumber++) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] fields = line.split(SEPARATOR);
+            try {
+                switch (fields[0]) {
+                    case "C" -> {
+                        expectFields(fields, 3, line);
+                        int width = Integer.parseInt(fields[1]), height = Integer.parseInt(fields[2]);
+                        if (width != treasureMap.width() || height != treasureMap.height())
+                            throw new InputFormatException(DIMENSIONS_MISMATCH.formatted(width, height,
+                                    treasureMap.width(), treasureMap.height()), lineNumber, 1);
+                    }
+                    case "T" -> {
+                        expectFields(fields, 4, line);
+                        treasureMap.addTreasure(Coordinate.of(Integer.parseInt(fields[1]), Integer.parseInt(fields[2])),
+                                Short.parseShort(fields[3]));
+                    }
+                    case "A" -> {
+                        if (fields.length < 6)
+                            throw new IllegalArgumentException(INVALID_LINE.formatted(line));
+                        // Read from the end: a name may itself contain the separator.
+                        int last = fields.length - 1;
+                        String name = String.join(SEPARATOR, Arrays.copyOfRange(fields, 1, last - 3));
+                        Adventurer player = adventurers.get(name);
+                        if (player == null)
+                            throw new IllegalArgumentException(UNKNOWN_ADVENTURER.formatted(name));
+                        if (fields[last - 1].length() != 1)
+                            throw new IllegalArgumentException(INVALID_LINE.formatted(line));
+                        player.x(Integer.parseInt(fields[last - 3]));
+                        player.y(Integer.parseInt(fields[last - 2]));
+                        player.orientation(Direction.directionByValue(fields[last - 1].charAt(0)));
+                        player.treasureCount(Integer.parseInt(fields[last]));
+                    }
+                    default -> throw new IllegalArgumentException(UNKNOWN_TYPE.formatted(fields[0]));
+                }
+            } catch (InputFormatException e) {
+                throw e;
+            } catch (IllegalArgumentException e) {
+                // Number format errors included: report them against the delta line.
+                throw new InputFormatException(e.getMessage(), lineNumber, 1);
+            }
+        }
+    }
+
+    /**
+     * Rejects maps where two adventurers share a name: their lines in a delta could not be told apart.
+     */
+    public static void requireUniqueNames(TreasureMap treasureMap) {
+        byName(treasureMap);
+    }
+
+    private static Map<String, Adventurer> byName(TreasureMap treasureMap) {
+        Map<String, Adventurer> adventurers = new HashMap<>();
+        for (Adventurer player : treasureMap.players())
+            if (adventurers.putIfAbsent(player.name(), player) != null)
+                throw new IllegalArgumentException(DUPLICATE_ADVENTURER.formatted(player.name()));
+        return adventurers;
+    }
+
+    private static void expectFields(String[] fields, int count, String line) {
+        if (fields.length != count)
+            throw new IllegalArgumentException(INVALID_LINE.formatted(line));
+    }
+}
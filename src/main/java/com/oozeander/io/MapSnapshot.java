@@ -0,0 +1,233 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versioned binary image of a map, little-endian:
+ * <pre>
+ * int magic "CATS", int version, int width, int height, int adventurerCount, int reserved
+ * long[] mountains (row-major), long[] mountainsByColumn, long[] treasuresByRow, long[] treasuresByColumn
+ * short[width * height] treasure counts, padded to 8 bytes
+ * adventurers: int nameLength, UTF-8 name, int x, int y, byte orientation, int treasureCount,
+ *              int sequenceLength, ISO-8859-1 movement sequence
+ * </pre>
+ * Opening a snapshot maps the file once; every {@link #newMap()} shares its layers and only copies
+ * the treasure pages it changes. The treasure counts stay in the mapping, but the four bitset layers are
+ * copied onto the heap when the snapshot is opened, as the move kernels probe {@code long[]} words:
+ * half a byte per cell, paid once per snapshot rather than once per map.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class MapSnapshot {
+
+    public static final int MAGIC = 0x53544143;
+    public static final int VERSION = 2;
+    static final int HEADER_SIZE = 24;
+
+    private static final String NOT_A_SNAPSHOT = "Not a treasure map snapshot: %s";
+    private static final String UNSUPPORTED_VERSION = "Unsupported snapshot version %d, expected %d";
+    private static final String CORRUPTED_SNAPSHOT = "Corrupted snapshot %s: %d bytes do not match its header";
+    private static final String MAP_TOO_LARGE = "Map too large for a snapshot: %d x %d";
+
+    @Getter
+    CopyOnWriteTerrain.Base base;
+    List<Adventurer> adventurers;
+
+    private MapSnapshot(CopyOnWriteTerrain.Base base, List<Adventurer> adventurers) {
+        this.base = base;
+        this.adventurers = adventurers;
+    }
+
+    public static boolean isSnapshot(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    public static void write(TreasureMap treasureMap, Path output) throws IOException {
+        // Checked before the output is created: a snapshot holds the layers of a full grid.
+        if (CopyOnWriteTerrain.Base.bytes(treasureMap.width(), treasureMap.height()) == Long.MAX_VALUE)
+            throw new IllegalArgumentException(MAP_TOO_LARGE.formatted(treasureMap.width(), treasureMap.height()));
+        var base = CopyOnWriteTerrain.Base.copyOf(treasureMap);
+        long words = base.mountains().length;
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.allocate(TreasureMapWriter.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(base.width()).putInt(base.height())
+                    .putInt(treasureMap.players().size()).putInt(0);
+            for (long[] layer : new long[][]{base.mountains(), base.mountainsByColumn(), base.treasuresByRow(), base.treasuresByColumn()})
+                for (long word : layer)
+                    buffer = ensure(channel, buffer, Long.BYTES).putLong(word);
+            for (int cell = 0; cell < base.cells(); cell++)
+                buffer = ensure(channel, buffer, Short.BYTES).putShort(base.treasures().get(cell));
+            long position = HEADER_SIZE + 4 * words * Long.BYTES + 2L * base.cells();
+            for (long padding = (8 - position % 8) % 8; padding > 0; padding--)
+                buffer = ensure(channel, buffer, 1).put((byte) 0);
+            for (Adventurer player : treasureMap.players()) {
+                byte[] name = player.name().getBytes(StandardCharsets.UTF_8);
+                buffer = ensure(channel, buffer, Integer.BYTES).putInt(name.length);
+                buffer = put(channel, buffer, name);
+                buffer = ensure(channel, buffer, 17).putInt(player.x()).putInt(player.y())
+                        .put((byte) player.orientation().value()).putInt(player.treasureCount())
+                        .putInt(Math.toIntExact(player.moves().length()));
+                buffer = put(channel, buffer, player.moves());
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    public static MapSnapshot open(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+                throw new IllegalArgumentException(NOT_A_SNAPSHOT.formatted(input));
+            if (buffer.getInt(4) != VERSION)
+                throw new IllegalArgumentException(UNSUPPORTED_VERSION.formatted(buffer.getInt(4), VERSION));
+            int width = buffer.getInt(8), height = buffer.getInt(12), adventurerCount = buffer.getInt(16);
+            long size = channel.size(), fixed = HEADER_SIZE + 4 * (((long) width * height + 63) >>> 6) * Long.BYTES
+                    + 2L * width * height;
+            if (width <= 0 || height <= 0 || adventurerCount < 0 || fixed + (8 - fixed % 8) % 8 > size)
+                throw new IllegalArgumentException(CORRUPTED_SNAPSHOT.formatted(input, size));
+            int cells = Math.toIntExact((long) width * height);
+            int words = (cells + 63) >>> 6;
+
+            long[][] layers = new long[4][words];
+            int treasures = HEADER_SIZE + 4 * words * Long.BYTES;
+            for (int i = 0; i < layers.length; i++)
+                buffer.position(HEADER_SIZE + i * words * Long.BYTES).asLongBuffer().get(layers[i]);
+            var treasureCounts = buffer.position(treasures).slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().limit(cells);
+            var base = new CopyOnWriteTerrain.Base(width, height, layers[0], layers[1], layers[2], layers[3], treasureCounts);
+
+            int position = treasures + 2 * cells;
+            buffer.position(position + (8 - position % 8) % 8);
+            List<Adventurer> adventurers = new ArrayList<>(Math.min(adventurerCount, buffer.remaining()));
+            try {
+                for (int i = 0; i < adventurerCount; i++) {
+                    String name = string(buffer, length(buffer), StandardCharsets.UTF_8);
+                    int x = buffer.getInt(), y = buffer.getInt();
+                    Direction orientation = Direction.directionByValue((char) buffer.get());
+                    int treasureCount = buffer.getInt();
+                    adventurers.add(Adventurer.builder()
+                            .name(name)
+                            .moves(moves(input, buffer, length(buffer)))
+                            .position(Coordinate.of(x, y))
+                            .orientation(orientation)
+                            .treasureCount(treasureCount)
+                            .build());
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException(CORRUPTED_SNAPSHOT.formatted(input, size), e);
+            }
+            // The adventurers end the file: trailing bytes mean a truncated count or a foreign file.
+            if (buffer.hasRemaining())
+                throw new IllegalArgumentException(CORRUPTED_SNAPSHOT.formatted(input, size));
+            return new MapSnapshot(base, List.copyOf(adventurers));
+        }
+    }
+
+    /**
+     * A fresh map over the shared layers, with a copy of the snapshot adventurers.
+     */
+    public TreasureMap newMap() {
+        return newMap(adventurers());
+    }
+
+    public TreasureMap newMap(Collection<Adventurer> players) {
+        TreasureMap treasureMap = base.newMap();
+        players.forEach(treasureMap::addAdventurer);
+        return treasureMap;
+    }
+
+    public List<Adventurer> adventurers() {
+        return adventurers.stream()
+                .map(player -> Adventurer.builder()
+                        .name(player.name())
+                        .moves(player.moves())
+                        .position(player.position())
+                        .orientation(player.orientation())
+                        .treasureCount(player.treasureCount())
+                        .build())
+                .toList();
+    }
+
+    private static int length(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+            throw new BufferUnderflowException();
+        return length;
+    }
+
+    private static String string(ByteBuffer buffer, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, charset);
+    }
+
+    // Long sequences are left in the file and read back lazily, like the text reader does.
+    private static MovementSequence moves(Path input, ByteBuffer buffer, int length) {
+        if (length < TreasureMapReader.LAZY_SEQUENCE_LENGTH)
+            return MovementSequence.of(string(buffer, length, StandardCharsets.ISO_8859_1));
+        int position = buffer.position();
+        buffer.position(position + length);
+        return MovementSequence.fileRegion(input, position, length);
+    }
+
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() < length)
+            flush(channel, buffer);
+        return buffer;
+    }
+
+    private static ByteBuffer put(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            ensure(channel, buffer, 1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer put(FileChannel channel, ByteBuffer buffer, MovementSequence moves) throws IOException {
+        byte[] chunk = new byte[(int) Math.min(MovementSequence.CHUNK_SIZE, moves.length())];
+        for (long from = 0; from < moves.length(); ) {
+            int read = moves.read(from, chunk, 0, chunk.length);
+            buffer = put(channel, buffer, read == chunk.length ? chunk : Arrays.copyOf(chunk, read));
+            from += read;
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,142 @@
+package com.oozeander.io;
+
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used cache of built terrains, weighted by their size in bytes and keyed by a SHA-256 of the
+ * C, M and T lines of an input. On a hit only the A lines are parsed, over a copy-on-write overlay of the
+ * cached layers; on a miss the input is parsed as usual and its terrain is cached for the next inputs.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class TerrainCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    final long maxBytes;
+    final LinkedHashMap<String, CopyOnWriteTerrain.Base> entries = new LinkedHashMap<>(16, 0.75f, true);
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    long bytes;
+
+    public TerrainCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public TreasureMap read(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                return TreasureMapReader.read(input);
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), input);
+        }
+    }
+
+    public TreasureMap read(ByteBuffer input) {
+        return read(input, null);
+    }
+
+    // Given the source file, long movement sequences are left in it as they are by TreasureMapReader.read(Path).
+    private TreasureMap read(ByteBuffer input, Path source) {
+        String key = key(input);
+        CopyOnWriteTerrain.Base base = get(key);
+        if (base != null) {
+            hits.increment();
+            return TreasureMapReader.readAdventurers(input, source, base.newMap());
+        }
+        misses.increment();
+        TreasureMap treasureMap = TreasureMapReader.read(input, source);
+        long weight = CopyOnWriteTerrain.Base.bytes(treasureMap.width(), treasureMap.height());
+        if (weight <= maxBytes)
+            put(key, CopyOnWriteTerrain.Base.copyOf(treasureMap), weight);
+        return treasureMap;
+    }
+
+    /**
+     * Digest of every line that is neither blank, a comment nor an adventurer, in file order.
+     */
+    static String key(ByteBuffer input) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer line = input.duplicate();
+        int limit = input.limit(), start = input.position();
+        while (start < limit) {
+            int end = start;
+            while (end < limit && input.get(end) != '\n')
+                end++;
+            int first = start, last = end;
+            while (first < last && (input.get(first) == ' ' || input.get(first) == '\t'))
+                first++;
+            if (last > first && input.get(last - 1) == '\r')
+                last--;
+            if (first < last && input.get(first) != '#' && !isAdventurer(input, first, last)) {
+                digest.update(line.limit(last).position(first));
+                digest.update((byte) '\n');
+            }
+            line.clear();
+            start = end + 1;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isAdventurer(ByteBuffer input, int first, int last) {
+        return input.get(first) == 'A' && (first + 1 == last || input.get(first + 1) == ' ' || input.get(first + 1) == '\t');
+    }
+
+    private synchronized CopyOnWriteTerrain.Base get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, CopyOnWriteTerrain.Base base, long weight) {
+        CopyOnWriteTerrain.Base previous = entries.put(key, base);
+        if (previous != null)
+            bytes -= CopyOnWriteTerrain.Base.bytes(previous.width(), previous.height());
+        bytes += weight;
+        Iterator<Map.Entry<String, CopyOnWriteTerrain.Base>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            CopyOnWriteTerrain.Base evicted = eldest.next().getValue();
+            eldest.remove();
+            bytes -= CopyOnWriteTerrain.Base.bytes(evicted.width(), evicted.height());
+            evictions.increment();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,485 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MapValidationException;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.model.Violation;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the C/M/T/A text format straight from a memory-mapped file, one window at a time.
+ * Tokens are read in place from the buffer: only adventurer names and movement sequences become Strings.
+ * Movement sequences of at least {@link #LAZY_SEQUENCE_LENGTH} moves in a file are not copied at all: they are
+ * read back from the file region during the simulation.
+ * <p>
+ * Mountains and treasures are added in batches of {@link #BATCH_SIZE} through {@link TreasureMap#addAll}, and
+ * adventurers all together at the end. The valid elements of a failing batch are still added, so that later
+ * elements are checked against them; parsing goes on and every invalid element of the input is reported at once.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class TreasureMapReader {
+
+    static final int WINDOW_SIZE = 1 << 26;
+    static final int LAZY_SEQUENCE_LENGTH = 1 << 20;
+    static final int BATCH_SIZE = 1 << 12;
+
+    private static final String MISSING_DIMENSIONS = "The map dimensions (C line) must be declared first";
+    private static final String DUPLICATE_DIMENSIONS = "The map dimensions are already declared";
+    private static final String UNKNOWN_TYPE = "Unknown type: %s";
+    private static final String EXPECTED_SEPARATOR = "Expected ' - '";
+    private static final String EXPECTED_NUMBER = "Expected a number";
+    private static final String NUMBER_OUT_OF_RANGE = "Number out of range";
+    private static final String EXPECTED_NAME = "Expected an adventurer name";
+    private static final String EXPECTED_ORIENTATION = "Expected an orientation";
+    private static final String EXPECTED_MOVEMENTS = "Expected a movement sequence";
+    private static final String INVALID_MOVE = "Invalid move: %s";
+    private static final String TRAILING_CONTENT = "Unexpected content at end of line";
+    private static final String LINE_TOO_LONG = "Line is longer than %d bytes".formatted(Integer.MAX_VALUE);
+    private static final String INVALID_ELEMENTS = "%d invalid map elements:";
+
+    TreasureMap treasureMap;
+    // Null when parsing an in-memory buffer; otherwise the file the windows are mapped from.
+    Path input;
+    // Null when parsing an in-memory buffer.
+    FileChannel channel;
+    int windowSize;
+    long windowOffset;
+    // Set when the terrain comes from a TerrainCache: C, M and T lines are then skipped.
+    boolean adventurersOnly;
+    ByteBuffer buffer;
+    int position;
+    int lineStart;
+    int lineEnd;
+    long lineNumber;
+    // Elements of the current batch, with the line of each one.
+    final List<Coordinate> mountains = new ArrayList<>();
+    final long[] mountainLines = new long[BATCH_SIZE];
+    // A treasure declared twice keeps its last count and line, as if it had been overwritten.
+    final Map<Coordinate, Short> treasures = new LinkedHashMap<>();
+    final Map<Coordinate, Long> treasureLines = new HashMap<>();
+    // Adventurers end up in the map anyway: they are added by result().
+    final List<Adventurer> adventurers = new ArrayList<>();
+    long[] adventurerLines = new long[16];
+    // Every invalid element so far, with its line.
+    final List<Violation> violations = new ArrayList<>();
+    long[] violationLines = new long[16];
+
+    private TreasureMapReader() {
+    }
+
+    public static TreasureMap read(Path input) throws IOException {
+        return read(input, WINDOW_SIZE);
+    }
+
+    /**
+     * Reads a {@link MapSnapshot} or a map in the text format, whichever the file holds.
+     */
+    public static TreasureMap readMapOrSnapshot(Path input) throws IOException {
+        return MapSnapshot.isSnapshot(input) ? MapSnapshot.open(input).newMap() : read(input);
+    }
+
+    static TreasureMap read(Path input, int windowSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            var reader = new TreasureMapReader();
+            reader.input = input;
+            return reader.read(channel, windowSize);
+        }
+    }
+
+    public static TreasureMap read(ByteBuffer input) {
+        return read(input, null);
+    }
+
+    /**
+     * Parses a buffer mapped from {@code source}, if not null: long movement sequences then stay in the file.
+     */
+    static TreasureMap read(ByteBuffer input, Path source) {
+        var reader = new TreasureMapReader();
+        reader.input = source;
+        reader.windowOffset = input.position();
+        reader.parseLines(input.slice(), true);
+        return reader.result();
+    }
+
+    /**
+     * Adds the adventurers of the input to a map whose terrain is already built.
+     */
+    static TreasureMap readAdventurers(ByteBuffer input, Path source, TreasureMap treasureMap) {
+        var reader = new TreasureMapReader();
+        reader.treasureMap = treasureMap;
+        reader.adventurersOnly = true;
+        reader.input = source;
+        reader.windowOffset = input.position();
+        reader.parseLines(input.slice(), true);
+        return reader.result();
+    }
+
+    private TreasureMap read(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        long size = channel.size(), offset = 0;
+        int window = windowSize;
+        while (offset < size) {
+            long length = Math.min(window, size - offset);
+            boolean last = offset + length == size;
+            windowOffset = offset;
+            int consumed = parseLines(channel.map(FileChannel.MapMode.READ_ONLY, offset, length), last);
+            if (consumed == 0 && !last) {
+                // A single line spans the whole window: retry with a bigger one.
+                if (window == Integer.MAX_VALUE)
+                    throw new InputFormatException(LINE_TOO_LONG, lineNumber + 1, 1);
+                window = (int) Math.min(Integer.MAX_VALUE, window * 2L);
+                continue;
+            }
+            offset += consumed;
+            window = windowSize;
+        }
+        return result();
+    }
+
+    private TreasureMap result() {
+        if (treasureMap == null)
+            throw new InputFormatException(MISSING_DIMENSIONS, Math.max(lineNumber, 1), 1);
+        flush();
+        add(List.of(), Map.of(), adventurers);
+        if (!violations.isEmpty())
+            throw invalidElements();
+        return treasureMap;
+    }
+
+    private void flush() {
+        if (mountains.isEmpty() && treasures.isEmpty())
+            return;
+        add(mountains, treasures, List.of());
+        mountains.clear();
+        treasures.clear();
+        treasureLines.clear();
+    }
+
+    // On violations, records them with their line and adds the valid elements only.
+    private void add(List<Coordinate> mountains, Map<Coordinate, Short> treasures, List<Adventurer> players) {
+        try {
+            treasureMap.addAll(mountains, treasures, players);
+        } catch (MapValidationException e) {
+            boolean[][] invalid = {new boolean[mountains.size()], new boolean[treasures.size()], new boolean[players.size()]};
+            for (Violation violation : e.violations()) {
+                if (violations.size() == violationLines.length)
+                    violationLines = Arrays.copyOf(violationLines, violations.size() * 2);
+                violationLines[violations.size()] = line(violation);
+                violations.add(violation);
+                invalid[switch (violation.element()) {
+                    case 'M' -> 0;
+                    case 'T' -> 1;
+                    default -> 2;
+                }][violation.index()] = true;
+            }
+            List<Coordinate> validMountains = new ArrayList<>(mountains.size());
+            for (int i = 0; i < mountains.size(); i++)
+                if (!invalid[0][i])
+                    validMountains.add(mountains.get(i));
+            Map<Coordinate, Short> validTreasures = new LinkedHashMap<>();
+            int index = 0;
+            for (Map.Entry<Coordinate, Short> treasure : treasures.entrySet())
+                if (!invalid[1][index++])
+                    validTreasures.put(treasure.getKey(), treasure.getValue());
+            List<Adventurer> validPlayers = new ArrayList<>(players.size());
+            for (int i = 0; i < players.size(); i++)
+                if (!invalid[2][i])
+                    validPlayers.add(players.get(i));
+            treasureMap.addAll(validMountains, validTreasures, validPlayers);
+        }
+    }
+
+    // One violation reads like any other error of its line; several are listed by line, with their element.
+    private InputFormatException invalidElements() {
+        if (violations.size() == 1)
+            return new InputFormatException(violations.get(0).type().message(), violationLines[0], 1);
+        List<InputFormatException> errors = new ArrayList<>(violations.size());
+        for (int i = 0; i < violations.size(); i++)
+            errors.add(new InputFormatException(violations.get(i).toString(), violationLines[i], 1));
+        errors.sort(Comparator.comparingLong(InputFormatException::line));
+        return new InputFormatException(INVALID_ELEMENTS.formatted(violations.size()), errors);
+    }
+
+    private long line(Violation violation) {
+        return switch (violation.element()) {
+            case 'M' -> mountainLines[violation.index()];
+            case 'T' -> treasureLines.get(Coordinate.of(violation.x(), violation.y()));
+            default -> adventurerLines[violation.index()];
+        };
+    }
+
+    /**
+     * Parses every complete line of the buffer and returns the number of bytes consumed.
+     * An unterminated trailing line is left for the next window unless this is the last one.
+     */
+    private int parseLines(ByteBuffer window, boolean last) {
+        buffer = window;
+        int limit = window.limit(), start = 0;
+        while (start < limit) {
+            int end = start;
+            while (end < limit && window.get(end) != '\n')
+                end++;
+            if (end == limit && !last)
+                break;
+            lineNumber++;
+            lineStart = position = start;
+            lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+            parseLine();
+            start = end + 1;
+        }
+        return Math.min(start, limit);
+    }
+
+    private void parseLine() {
+        skipBlanks();
+        if (position == lineEnd || buffer.get(position) == '#')
+            return;
+        int typeStart = position, typeColumn = column();
+        byte type = buffer.get(position++);
+        if (position < lineEnd && !isBlank(buffer.get(position)))
+            throw error(UNKNOWN_TYPE.formatted(token(typeStart)), typeColumn);
+        if (adventurersOnly && type != 'A')
+            return;
+        switch (type) {
+            case 'C' -> parseDimensions();
+            case 'M' -> parseMountain();
+            case 'T' -> parseTreasure();
+            case 'A' -> parseAdventurer();
+            default -> throw error(UNKNOWN_TYPE.formatted((char) type), typeColumn);
+        }
+        skipBlanks();
+        if (position != lineEnd)
+            throw error(TRAILING_CONTENT, column());
+    }
+
+    private void parseDimensions() {
+        if (treasureMap != null)
+            throw error(DUPLICATE_DIMENSIONS, 1);
+        separator();
+        int width = number(Integer.MAX_VALUE);
+        separator();
+        int height = number(Integer.MAX_VALUE);
+        // The layout of some sizes depends on the content, which must be known before the terrain is built.
+        long denseContent = StorageLayout.AUTO.denseContentCount(width, height);
+        treasureMap = TreasureMap.builder().width(width).height(height)
+                .expectedContent(denseContent == 0 ? 0 : countContent(denseContent))
+                .build();
+    }
+
+    /**
+     * Counts the M and T lines after the current one, stopping at {@code limit}: a pass over the bytes that
+     * only looks at the first token of each line.
+     */
+    private long countContent(long limit) {
+        long count = 0;
+        boolean lineStart = false;
+        ByteBuffer window = buffer;
+        int from = lineEnd;
+        long offset = windowOffset;
+        while (true) {
+            for (int i = from, end = window.limit(); i < end; i++) {
+                byte value = window.get(i);
+                if (value == '\n')
+                    lineStart = true;
+                else if (lineStart && !isBlank(value)) {
+                    lineStart = false;
+                    if ((value == 'M' || value == 'T') && ++count == limit)
+                        return count;
+                }
+            }
+            offset += window.limit();
+            try {
+                if (channel == null || offset >= channel.size())
+                    return count;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, channel.size() - offset));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            from = 0;
+        }
+    }
+
+    private void parseMountain() {
+        requireMap();
+        separator();
+        int x = number(Integer.MAX_VALUE);
+        separator();
+        int y = number(Integer.MAX_VALUE);
+        mountainLines[mountains.size()] = lineNumber;
+        mountains.add(Coordinate.of(x, y));
+        if (mountains.size() == BATCH_SIZE)
+            flush();
+    }
+
+    private void parseTreasure() {
+        requireMap();
+        separator();
+        int x = number(Integer.MAX_VALUE);
+        separator();
+        int y = number(Integer.MAX_VALUE);
+        separator();
+        int count = number(Short.MAX_VALUE);
+        Coordinate coordinate = Coordinate.of(x, y);
+        treasures.put(coordinate, (short) count);
+        treasureLines.put(coordinate, lineNumber);
+        if (treasures.size() == BATCH_SIZE)
+            flush();
+    }
+
+    private void parseAdventurer() {
+        requireMap();
+        separator();
+        String name = name();
+        separator();
+        int x = number(Integer.MAX_VALUE);
+        separator();
+        int y = number(Integer.MAX_VALUE);
+        separator();
+        Direction orientation = orientation();
+        separator();
+        MovementSequence moves = movementSequence();
+        if (adventurers.size() == adventurerLines.length)
+            adventurerLines = Arrays.copyOf(adventurerLines, adventurers.size() * 2);
+        adventurerLines[adventurers.size()] = lineNumber;
+        adventurers.add(Adventurer.builder()
+                .name(name)
+                .moves(moves)
+                .position(Coordinate.of(x, y))
+                .orientation(orientation)
+                .treasureCount(0)
+                .build());
+    }
+
+    private void requireMap() {
+        if (treasureMap == null)
+            throw error(MISSING_DIMENSIONS, 1);
+    }
+
+    private void separator() {
+        int start = position;
+        skipBlanks();
+        if (position == start || position == lineEnd || buffer.get(position) != '-')
+            throw error(EXPECTED_SEPARATOR, start - lineStart + 1);
+        position++;
+        int dash = position;
+        skipBlanks();
+        if (position == dash)
+            throw error(EXPECTED_SEPARATOR, start - lineStart + 1);
+    }
+
+    private int number(int max) {
+        int start = position;
+        long value = 0;
+        while (position < lineEnd) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9)
+                break;
+            value = value * 10 + digit;
+            if (value > max)
+                throw error(NUMBER_OUT_OF_RANGE, start - lineStart + 1);
+            position++;
+        }
+        if (position == start)
+            throw error(EXPECTED_NUMBER, column());
+        return (int) value;
+    }
+
+    private String name() {
+        int start = position;
+        while (position < lineEnd && !atSeparator())
+            position++;
+        int end = position;
+        while (end > start && isBlank(buffer.get(end - 1)))
+            end--;
+        if (end == start)
+            throw error(EXPECTED_NAME, start - lineStart + 1);
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        position = end;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Direction orientation() {
+        int column = column();
+        if (position == lineEnd)
+            throw error(EXPECTED_ORIENTATION, column);
+        try {
+            return Direction.directionByValue((char) buffer.get(position++));
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage(), column);
+        }
+    }
+
+    private MovementSequence movementSequence() {
+        int start = position;
+        while (position < lineEnd && !isBlank(buffer.get(position))) {
+            byte move = buffer.get(position);
+            if (move != 'A' && move != 'G' && move != 'D')
+                throw error(INVALID_MOVE.formatted((char) move), column());
+            position++;
+        }
+        if (position == start)
+            throw error(EXPECTED_MOVEMENTS, column());
+        if (input != null && position - start >= LAZY_SEQUENCE_LENGTH)
+            return MovementSequence.fileRegion(input, windowOffset + start, position - start);
+        byte[] bytes = new byte[position - start];
+        buffer.get(start, bytes);
+        return MovementSequence.of(new String(bytes, StandardCharsets.ISO_8859_1));
+    }
+
+    private boolean atSeparator() {
+        if (!isBlank(buffer.get(position)))
+            return false;
+        int cursor = position;
+        while (cursor < lineEnd && isBlank(buffer.get(cursor)))
+            cursor++;
+        return cursor + 1 < lineEnd && buffer.get(cursor) == '-' && isBlank(buffer.get(cursor + 1));
+    }
+
+    private String token(int start) {
+        int end = start;
+        while (end < lineEnd && !isBlank(buffer.get(end)))
+            end++;
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipBlanks() {
+        while (position < lineEnd && isBlank(buffer.get(position)))
+            position++;
+    }
+
+    private static boolean isBlank(byte value) {
+        return value == ' ' || value == '\t';
+    }
+
+    private int column() {
+        return position - lineStart + 1;
+    }
+
+    private InputFormatException error(String message, int column) {
+        return new InputFormatException(message, lineNumber, column);
+    }
+}
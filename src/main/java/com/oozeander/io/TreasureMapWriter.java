@@ -0,0 +1,188 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MapChanges;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the C/M/T/A result lines of a map to a channel through a fixed-size buffer.
+ * Mountains and treasures are written in row-major order, adventurers in insertion order.
+ * <p>
+ * A delta only holds the C line, then the changed treasure cells (count 0 once emptied) and the changed
+ * adventurers, in the same format; {@link MapDelta#apply} rebuilds the full result from it and the input map.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class TreasureMapWriter {
+
+    static final int BUFFER_SIZE = 1 << 16;
+    // Longest integer encoding: "-2147483648".
+    private static final int MAX_INT_LENGTH = 11;
+
+    final WritableByteChannel channel;
+    final ByteBuffer buffer;
+    final byte[] digits = new byte[MAX_INT_LENGTH];
+    long bytesWritten;
+    boolean firstLine = true;
+
+    private TreasureMapWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public static long write(TreasureMap treasureMap, Path output) throws IOException {
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return write(treasureMap, channel);
+        }
+    }
+
+    public static long write(TreasureMap treasureMap, WritableByteChannel channel) throws IOException {
+        var writer = new TreasureMapWriter(channel, BUFFER_SIZE);
+        try {
+            writer.writeMap(treasureMap);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return writer.bytesWritten;
+    }
+
+    public static long writeDelta(TreasureMap treasureMap, MapChanges changes, Path output) throws IOException {
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return writeDelta(treasureMap, changes, channel);
+        }
+    }
+
+    public static long writeDelta(TreasureMap treasureMap, MapChanges changes, WritableByteChannel channel) throws IOException {
+        var writer = new TreasureMapWriter(channel, BUFFER_SIZE);
+        try {
+            writer.writeDimensions(treasureMap);
+            changes.forEachTreasure(writer::writeTreasure);
+            changes.adventurers().forEach(writer::writeAdventurer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return writer.bytesWritten;
+    }
+
+    private void writeMap(TreasureMap treasureMap) {
+        writeDimensions(treasureMap);
+
+        treasureMap.terrain().forEachMountain((x, y) -> {
+            startLine('M');
+            separator();
+            writeInt(x);
+            separator();
+            writeInt(y);
+        });
+
+        treasureMap.terrain().forEachTreasure(this::writeTreasure);
+
+        for (Adventurer player : treasureMap.players())
+            writeAdventurer(player);
+    }
+
+    private void writeDimensions(TreasureMap treasureMap) {
+        startLine('C');
+        separator();
+        writeInt(treasureMap.width());
+        separator();
+        writeInt(treasureMap.height());
+    }
+
+    private void writeTreasure(int x, int y, short count) {
+        startLine('T');
+        separator();
+        writeInt(x);
+        separator();
+        writeInt(y);
+        separator();
+        writeInt(count);
+    }
+
+    private void writeAdventurer(Adventurer player) {
+        startLine('A');
+        separator();
+        writeBytes(player.name().getBytes(StandardCharsets.UTF_8));
+        separator();
+        writeInt(player.x());
+        separator();
+        writeInt(player.y());
+        separator();
+        writeByte((byte) player.orientation().value());
+        separator();
+        writeInt(player.treasureCount());
+    }
+
+    private void startLine(char type) {
+        if (!firstLine)
+            writeByte((byte) '\n');
+        firstLine = false;
+        writeByte((byte) type);
+    }
+
+    private void separator() {
+        ensureCapacity(3);
+        buffer.put((byte) ' ').put((byte) '-').put((byte) ' ');
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(MAX_INT_LENGTH);
+        if (value < 0)
+            buffer.put((byte) '-');
+        else
+            value = -value;
+        // Digits are produced from a non-positive value so Integer.MIN_VALUE needs no special case.
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (length > 0)
+            buffer.put(digits[--length]);
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer.put(value);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        for (int offset = 0; offset < bytes.length; ) {
+            ensureCapacity(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() < length) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            bytesWritten += channel.write(buffer);
+        buffer.clear();
+    }
+}
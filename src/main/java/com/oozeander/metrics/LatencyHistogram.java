@@ -0,0 +1,63 @@
+package com.oozeander.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in power-of-two buckets of microseconds: bucket {@code b} holds latencies
+ * below {@code 2^b} µs. Percentiles are reported as the upper bound of their bucket, so within a factor of two.
+ */
+public final class LatencyHistogram {
+
+    static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(micros));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMicros() {
+        long count = count();
+        return count == 0 ? 0 : totalNanos.sum() / 1e3 / count;
+    }
+
+    public long maxMicros() {
+        return maxNanos.get() / 1000;
+    }
+
+    /**
+     * Upper bound, in microseconds, of the bucket holding the given quantile (between 0 and 1).
+     */
+    public long percentileMicros(double quantile) {
+        long count = count(), seen = 0;
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank)
+                return bucket == 0 ? 0 : Math.min(maxMicros(), (1L << bucket) - 1);
+        }
+        return maxMicros();
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"count\": %d, \"meanMicros\": %.1f, \"p50Micros\": %d, \"p90Micros\": %d, \"p99Micros\": %d, \"maxMicros\": %d}",
+                count(), meanMicros(), percentileMicros(0.5), percentileMicros(0.9), percentileMicros(0.99), maxMicros());
+    }
+}
@@ -0,0 +1,172 @@
+package com.oozeander.metrics;
+
+import com.oozeander.model.MoveResult;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters for parsing, simulation and output. Disabled by default: {@link #active()} is then null,
+ * and engines skip counting altogether. Engines count moves in a plain per-engine array and add it here once,
+ * so the hot path never touches a shared counter.
+ */
+public final class TreasureHuntMetrics implements TreasureHuntMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.oozeander:type=TreasureHuntMetrics";
+
+    private static volatile TreasureHuntMetrics active;
+
+    private final LongAdder scenarios = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder simulationNanos = new LongAdder();
+    private final LongAdder[] moves = new LongAdder[MoveResult.values().length];
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private TreasureHuntMetrics() {
+        Arrays.setAll(moves, i -> new LongAdder());
+    }
+
+    public static TreasureHuntMetrics active() {
+        return active;
+    }
+
+    public static synchronized TreasureHuntMetrics enable() {
+        if (active == null) {
+            active = new TreasureHuntMetrics();
+            try {
+                var server = ManagementFactory.getPlatformMBeanServer();
+                var name = new ObjectName(OBJECT_NAME);
+                if (server.isRegistered(name))
+                    server.unregisterMBean(name);
+                server.registerMBean(active, name);
+            } catch (JMException e) {
+                throw new IllegalStateException("Unable to register metrics MXBean", e);
+            }
+        }
+        return active;
+    }
+
+    public static synchronized void disable() {
+        active = null;
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister metrics MXBean", e);
+        }
+    }
+
+    public static long[] newMoveCounters() {
+        return new long[MoveResult.values().length];
+    }
+
+    public void recordMoves(long[] counters) {
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0)
+                moves[i].add(counters[i]);
+            counters[i] = 0;
+        }
+    }
+
+    public void recordScenario(long parseNanos, long simulationNanos, long bytesRead, long bytesWritten) {
+        scenarios.increment();
+        this.parseNanos.add(parseNanos);
+        this.simulationNanos.add(simulationNanos);
+        this.bytesRead.add(bytesRead);
+        this.bytesWritten.add(bytesWritten);
+    }
+
+    private long moves(MoveResult result) {
+        return moves[result.ordinal()].sum();
+    }
+
+    @Override
+    public long getScenarios() {
+        return scenarios.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    @Override
+    public long getSimulationNanos() {
+        return simulationNanos.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return Arrays.stream(moves).mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        long nanos = getSimulationNanos();
+        return nanos == 0 ? 0 : getMoves() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getBlockedByBoundary() {
+        return moves(MoveResult.BLOCKED_BY_BOUNDARY);
+    }
+
+    @Override
+    public long getBlockedByMountain() {
+        return moves(MoveResult.BLOCKED_BY_MOUNTAIN);
+    }
+
+    @Override
+    public long getBlockedByAdventurer() {
+        return moves(MoveResult.BLOCKED_BY_ADVENTURER);
+    }
+
+    @Override
+    public long getTreasurePickups() {
+        return moves(MoveResult.COLLECTED);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT, """
+                {
+                  "scenarios": %d,
+                  "parseNanos": %d,
+                  "simulationNanos": %d,
+                  "moves": %d,
+                  "movesPerSecond": %.1f,
+                  "blockedByBoundary": %d,
+                  "blockedByMountain": %d,
+                  "blockedByAdventurer": %d,
+                  "treasurePickups": %d,
+                  "bytesRead": %d,
+                  "bytesWritten": %d
+                }
+                """, getScenarios(), getParseNanos(), getSimulationNanos(), getMoves(), getMovesPerSecond(),
+                getBlockedByBoundary(), getBlockedByMountain(), getBlockedByAdventurer(), getTreasurePickups(),
+                getBytesRead(), getBytesWritten());
+    }
+
+    public void writeJson(Path output) throws IOException {
+        Files.writeString(output, toJson());
+    }
+}
@@ -0,0 +1,26 @@
+package com.oozeander.metrics;
+
+public interface TreasureHuntMetricsMXBean {
+
+    long getScenarios();
+
+    long getParseNanos();
+
+    long getSimulationNanos();
+
+    long getMoves();
+
+    double getMovesPerSecond();
+
+    long getBlockedByBoundary();
+
+    long getBlockedByMountain();
+
+    long getBlockedByAdventurer();
+
+    long getTreasurePickups();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+}
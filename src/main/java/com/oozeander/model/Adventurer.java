@@ -7,71 +7,82 @@ import lombok.experimental.Accessors;
 import lombok.experimental.FieldDefaults;
 
 @Data
-@Builder
 @Accessors(fluent = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Adventurer {
 
+    public static final String INVALID_TURN = "Invalid turn provided: %s";
+
     final String name;
-    final String movementSequence;
-    Coordinate position;
+    final MovementSequence moves;
+    int x;
+    int y;
     Direction orientation;
-    short treasureCount;
+    int treasureCount;
 
-    public void moveOnce(TreasureMap treasureMap, char move) {
-        if (move == 'A') {
-            Coordinate newPosition = getNextPosition();
-            if (isValidMove(newPosition, treasureMap)) {
-                position = newPosition;
-                int treasure = treasureMap.treasureCount(position);
-                if (treasure > 0) {
-                    treasureCount++;
-                    treasureMap.addTreasure(position, (short) --treasure);
-                }
-            }
-        } else {
-            updateOrientation(move);
-        }
+    /**
+     * Either {@code movementSequence} or {@code moves} gives the moves; the latter may be read lazily.
+     */
+    @Builder
+    private Adventurer(String name, String movementSequence, MovementSequence moves, Coordinate position,
+                       Direction orientation, int treasureCount) {
+        this.name = name;
+        this.moves = moves != null ? moves : MovementSequence.of(movementSequence == null ? "" : movementSequence);
+        this.orientation = orientation;
+        this.treasureCount = treasureCount;
+        if (position != null)
+            position(position);
     }
 
-    private Coordinate getNextPosition() {
-        return switch (orientation) {
-            case NORTH -> Coordinate.builder().x(position.x()).y((short) (position.y() - 1)).build();
-            case EAST -> Coordinate.builder().x((short) (position.x() + 1)).y(position.y()).build();
-            case SOUTH -> Coordinate.builder().x(position.x()).y((short) (position.y() + 1)).build();
-            case WEST -> Coordinate.builder().x((short) (position.x() - 1)).y(position.y()).build();
-        };
+    /**
+     * The whole sequence as a String; prefer {@link #moves()} for sequences that may not fit in memory.
+     */
+    public String movementSequence() {
+        return moves.asString();
     }
 
-    private boolean isValidMove(Coordinate newPosition, TreasureMap treasureMap) {
-        return newPosition.x() >= 0 && newPosition.x() < treasureMap.width() &&
-                newPosition.y() >= 0 && newPosition.y() < treasureMap.height() &&
-                !treasureMap.isMountain(newPosition);
+    public Coordinate position() {
+        return Coordinate.of(x, y);
     }
 
-    private void updateOrientation(char turn) {
-        switch (turn) {
-            case 'G' -> orientation = Direction.directionByValue(turnLeft());
-            case 'D' -> orientation = Direction.directionByValue(turnRight());
-            default -> throw new IllegalArgumentException("Invalid turn provided: %s".formatted(turn));
-        }
+    public void position(Coordinate position) {
+        x = position.x();
+        y = position.y();
     }
 
-    private char turnLeft() {
-        return switch (orientation) {
-            case NORTH -> Direction.WEST.value();
-            case WEST -> Direction.SOUTH.value();
-            case SOUTH -> Direction.EAST.value();
-            case EAST -> Direction.NORTH.value();
-        };
+    public MoveResult moveOnce(TreasureMap treasureMap, char move) {
+        return moveOnce(treasureMap, move, Occupancy.NONE);
     }
 
-    private char turnRight() {
-        return switch (orientation) {
-            case NORTH -> Direction.EAST.value();
-            case EAST -> Direction.SOUTH.value();
-            case SOUTH -> Direction.WEST.value();
-            case WEST -> Direction.NORTH.value();
+    public MoveResult moveOnce(TreasureMap treasureMap, char move, Occupancy occupancy) {
+        return switch (move) {
+            case 'A' -> moveForward(treasureMap, occupancy);
+            case 'G' -> turn(orientation.left());
+            case 'D' -> turn(orientation.right());
+            default -> throw new IllegalArgumentException(INVALID_TURN.formatted(move));
         };
     }
+
+    private MoveResult moveForward(TreasureMap treasureMap, Occupancy occupancy) {
+        int nextX = x + orientation.dx(), nextY = y + orientation.dy();
+        if (nextX < 0 || nextX >= treasureMap.width() || nextY < 0 || nextY >= treasureMap.height())
+            return MoveResult.BLOCKED_BY_BOUNDARY;
+        if (treasureMap.isMountain(nextX, nextY))
+            return MoveResult.BLOCKED_BY_MOUNTAIN;
+        if (occupancy.isOccupied(nextX, nextY))
+            return MoveResult.BLOCKED_BY_ADVENTURER;
+        occupancy.release(x, y);
+        occupancy.occupy(nextX, nextY);
+        x = nextX;
+        y = nextY;
+        if (!treasureMap.takeTreasure(x, y))
+            return MoveResult.MOVED;
+        treasureCount++;
+        return MoveResult.COLLECTED;
+    }
+
+    private MoveResult turn(Direction newOrientation) {
+        orientation = newOrientation;
+        return MoveResult.TURNED;
+    }
 }
@@ -0,0 +1,73 @@
+package com.oozeander.model;
+
+final class Bits {
+
+    private Bits() {
+    }
+
+    static long[] words(long bits) {
+        return new long[Math.toIntExact((bits + 63) >>> 6)];
+    }
+
+    static boolean get(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] words, int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    static void clear(long[] words, int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    // First set bit in [from, to], or -1.
+    static int next(long[] words, int from, int to) {
+        if (from > to)
+            return -1;
+        int word = from >>> 6, lastWord = to >>> 6;
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (word == lastWord)
+                bits &= -1L >>> (63 - (to & 63));
+            if (bits != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word > lastWord)
+                return -1;
+            bits = words[word];
+        }
+    }
+
+    // Last set bit in [to, from], scanning downwards from "from", or -1.
+    static int previous(long[] words, int from, int to) {
+        if (from < to)
+            return -1;
+        int word = from >>> 6, lastWord = to >>> 6;
+        long bits = words[word] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word == lastWord)
+                bits &= -1L << to;
+            if (bits != 0)
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            if (--word < lastWord)
+                return -1;
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Distance to the first set bit after (x, y) going in the direction, within {@code limit} cells, or -1.
+     * {@code bits} is row-major for EAST/WEST and column-major for NORTH/SOUTH.
+     */
+    static int scan(long[] bits, int width, int height, int x, int y, Direction direction, int limit) {
+        if (limit <= 0)
+            return -1;
+        int found;
+        return switch (direction) {
+            case EAST -> (found = next(bits, y * width + x + 1, y * width + x + limit)) < 0 ? -1 : found - (y * width + x);
+            case WEST -> (found = previous(bits, y * width + x - 1, y * width + x - limit)) < 0 ? -1 : y * width + x - found;
+            case SOUTH -> (found = next(bits, x * height + y + 1, x * height + y + limit)) < 0 ? -1 : found - (x * height + y);
+            case NORTH -> (found = previous(bits, x * height + y - 1, x * height + y - limit)) < 0 ? -1 : x * height + y - found;
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.oozeander.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cells marked during one bulk validation: a bitmap when the map is small next to the batch, a hash set otherwise.
+ */
+final class CellSet {
+
+    // Bits per element above which a bitmap costs more than hashing.
+    private static final long BITS_PER_ELEMENT = 256;
+
+    private final int width;
+    private final long[] bits;
+    private final Set<Long> cells;
+
+    CellSet(int width, int height, long elements) {
+        this.width = width;
+        long size = (long) width * height;
+        boolean dense = size <= Integer.MAX_VALUE && size <= Math.max(1 << 16, elements * BITS_PER_ELEMENT);
+        this.bits = dense ? Bits.words(size) : null;
+        this.cells = dense ? null : new HashSet<>();
+    }
+
+    boolean contains(int x, int y) {
+        return bits != null ? Bits.get(bits, y * width + x) : cells.contains((long) y << 32 | x);
+    }
+
+    /**
+     * Marks the cell; returns false if it already was.
+     */
+    boolean add(int x, int y) {
+        if (bits == null)
+            return cells.add((long) y << 32 | x);
+        if (Bits.get(bits, y * width + x))
+            return false;
+        Bits.set(bits, y * width + x);
+        return true;
+    }
+}
@@ -0,0 +1,282 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Terrain of 64x64 tiles, only allocated where there is content, for maps too large for a grid.
+ * <p>
+ * Tiles are found through an open-addressing table keyed by the packed tile coordinates, so a lookup neither
+ * boxes nor allocates. A tile holds one mountain bit row per line, and its treasure counts once it has one.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class ChunkedTerrain implements Terrain {
+
+    static final int TILE_SHIFT = 6;
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+    static final int TILE_MASK = TILE_SIZE - 1;
+
+    private static final long EMPTY = -1L;
+
+    final int width;
+    final int height;
+    long[] keys;
+    Tile[] tiles;
+    int mask;
+    int tileCount;
+    int mountainCount;
+    // Atomic: disjoint adventurer groups empty cells concurrently.
+    final AtomicInteger treasureCellCount = new AtomicInteger();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Tile {
+        final long[] mountains = new long[TILE_SIZE];
+        // Row-major within the tile, allocated with the first treasure.
+        short[] treasures;
+    }
+
+    ChunkedTerrain(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.keys = new long[16];
+        this.tiles = new Tile[16];
+        this.mask = 15;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    ChunkedTerrain(int width, int height, Set<Coordinate> mountains, Map<Coordinate, Short> treasures) {
+        this(width, height);
+        if (mountains != null)
+            mountains.forEach(mountain -> addMountain(mountain.x(), mountain.y()));
+        if (treasures != null)
+            treasures.forEach((coordinate, count) -> treasureCount(coordinate.x(), coordinate.y(), count));
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private static long key(int x, int y) {
+        return (long) (y >>> TILE_SHIFT) << 32 | x >>> TILE_SHIFT;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private Tile tile(int x, int y) {
+        if (!contains(x, y))
+            return null;
+        return tiles[slot(key(x, y))];
+    }
+
+    private Tile tileForWrite(int x, int y) {
+        if (!contains(x, y))
+            throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
+        long key = key(x, y);
+        int slot = slot(key);
+        if (tiles[slot] != null)
+            return tiles[slot];
+        if (2 * (tileCount + 1) > keys.length) {
+            grow();
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        tileCount++;
+        return tiles[slot] = new Tile();
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Tile[] oldTiles = tiles;
+        keys = new long[oldKeys.length * 2];
+        tiles = new Tile[oldKeys.length * 2];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                tiles[slot] = oldTiles[i];
+            }
+    }
+
+    @Override
+    public boolean isMountain(int x, int y) {
+        Tile tile = tile(x, y);
+        return tile != null && (tile.mountains[y & TILE_MASK] & 1L << x) != 0;
+    }
+
+    @Override
+    public void addMountain(int x, int y) {
+        Tile tile = tileForWrite(x, y);
+        long bit = 1L << x;
+        if ((tile.mountains[y & TILE_MASK] & bit) == 0) {
+            tile.mountains[y & TILE_MASK] |= bit;
+            mountainCount++;
+        }
+    }
+
+    @Override
+    public short treasureCount(int x, int y) {
+        Tile tile = tile(x, y);
+        return tile == null || tile.treasures == null ? 0 : tile.treasures[(y & TILE_MASK) << TILE_SHIFT | x & TILE_MASK];
+    }
+
+    @Override
+    public void treasureCount(int x, int y, short count) {
+        // Emptying a cell never allocates: simulations only write to cells that already hold treasure.
+        Tile tile = count == 0 ? tile(x, y) : tileForWrite(x, y);
+        if (tile == null || tile.treasures == null && count == 0)
+            return;
+        if (tile.treasures == null)
+            tile.treasures = new short[TILE_SIZE * TILE_SIZE];
+        int cell = (y & TILE_MASK) << TILE_SHIFT | x & TILE_MASK;
+        if (count != 0 && tile.treasures[cell] == 0)
+            treasureCellCount.incrementAndGet();
+        else if (count == 0 && tile.treasures[cell] != 0)
+            treasureCellCount.decrementAndGet();
+        tile.treasures[cell] = count;
+    }
+
+    @Override
+    public int clearance(int x, int y, Direction direction, int limit) {
+        for (int distance = 1; distance <= limit; ) {
+            int cellX = x + direction.dx() * distance, cellY = y + direction.dy() * distance;
+            Tile tile = tile(cellX, cellY);
+            // Cells left to check in this tile along the direction.
+            int span = Math.min(limit - distance + 1, remainingInTile(cellX, cellY, direction));
+            if (tile != null)
+                for (int step = 0; step < span; step++)
+                    if ((tile.mountains[cellY + direction.dy() * step & TILE_MASK] & 1L << cellX + direction.dx() * step) != 0)
+                        return distance + step - 1;
+            distance += span;
+        }
+        return limit;
+    }
+
+    @Override
+    public int treasureDistance(int x, int y, Direction direction, int limit) {
+        for (int distance = 1; distance <= limit; ) {
+            int cellX = x + direction.dx() * distance, cellY = y + direction.dy() * distance;
+            Tile tile = tile(cellX, cellY);
+            int span = Math.min(limit - distance + 1, remainingInTile(cellX, cellY, direction));
+            if (tile != null && tile.treasures != null)
+                for (int step = 0; step < span; step++) {
+                    int tileX = cellX + direction.dx() * step & TILE_MASK, tileY = cellY + direction.dy() * step & TILE_MASK;
+                    if (tile.treasures[tileY << TILE_SHIFT | tileX] > 0)
+                        return distance + step;
+                }
+            distance += span;
+        }
+        return 0;
+    }
+
+    private static int remainingInTile(int x, int y, Direction direction) {
+        return switch (direction) {
+            case EAST -> TILE_SIZE - (x & TILE_MASK);
+            case WEST -> (x & TILE_MASK) + 1;
+            case SOUTH -> TILE_SIZE - (y & TILE_MASK);
+            case NORTH -> (y & TILE_MASK) + 1;
+        };
+    }
+
+    int tileCount() {
+        return tileCount;
+    }
+
+    @Override
+    public int mountainCount() {
+        return mountainCount;
+    }
+
+    @Override
+    public StorageLayout layout() {
+        return StorageLayout.CHUNKED;
+    }
+
+    @Override
+    public int treasureCellCount() {
+        return treasureCellCount.get();
+    }
+
+    /**
+     * Tile slots sorted by tile row, then tile column, which makes visiting rows of tiles line by line row-major.
+     */
+    private int[] sortedSlots() {
+        long[] sorted = new long[tileCount];
+        int[] slots = new int[tileCount];
+        for (int slot = 0, i = 0; slot < keys.length; slot++)
+            if (keys[slot] != EMPTY)
+                sorted[i++] = keys[slot];
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++)
+            slots[i] = slot(sorted[i]);
+        return slots;
+    }
+
+    private void forEachTileRow(TileRowVisitor visitor) {
+        int[] slots = sortedSlots();
+        for (int first = 0, last; first < slots.length; first = last) {
+            long tileRow = keys[slots[first]] >>> 32;
+            last = first;
+            while (last < slots.length && keys[slots[last]] >>> 32 == tileRow)
+                last++;
+            for (int line = 0; line < TILE_SIZE; line++)
+                for (int i = first; i < last; i++)
+                    visitor.visit(tiles[slots[i]], (int) keys[slots[i]] << TILE_SHIFT, (int) tileRow << TILE_SHIFT, line);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TileRowVisitor {
+        void visit(Tile tile, int originX, int originY, int line);
+    }
+
+    @Override
+    public void forEachMountain(CellVisitor visitor) {
+        forEachTileRow((tile, originX, originY, line) -> {
+            for (long bits = tile.mountains[line]; bits != 0; bits &= bits - 1)
+                visitor.visit(originX + Long.numberOfTrailingZeros(bits), originY + line);
+        });
+    }
+
+    @Override
+    public void forEachTreasure(TreasureVisitor visitor) {
+        forEachTileRow((tile, originX, originY, line) -> {
+            if (tile.treasures == null)
+                return;
+            for (int column = 0; column < TILE_SIZE; column++) {
+                short count = tile.treasures[line << TILE_SHIFT | column];
+                if (count != 0)
+                    visitor.visit(originX + column, originY + line, count);
+            }
+        });
+    }
+
+    @Override
+    public Set<Coordinate> mountains() {
+        Set<Coordinate> snapshot = new HashSet<>();
+        forEachMountain((x, y) -> snapshot.add(Coordinate.of(x, y)));
+        return Collections.unmodifiableSet(snapshot);
+    }
+
+    @Override
+    public Map<Coordinate, Short> treasures() {
+        Map<Coordinate, Short> snapshot = new HashMap<>();
+        forEachTreasure((x, y, count) -> snapshot.put(Coordinate.of(x, y), count));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
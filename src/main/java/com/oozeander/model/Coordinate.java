@@ -14,5 +14,9 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Coordinate {
 
-    short x, y;
+    int x, y;
+
+    public static Coordinate of(int x, int y) {
+        return builder().x(x).y(y).build();
+    }
 }
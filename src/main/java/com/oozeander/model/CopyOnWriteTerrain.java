@@ -0,0 +1,260 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.ShortBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Grid terrain layered over a read-only {@link Base} shared by many maps.
+ * Treasure counts are copied into private pages of {@value #PAGE_SIZE} cells on first write,
+ * mountain and treasure bitsets are copied as a whole the first time this map adds to them.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class CopyOnWriteTerrain implements Terrain {
+
+    static final int PAGE_SHIFT = 12;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    final Base base;
+    // Groups of a parallel simulation may write to the same page: pages are published with a CAS.
+    final AtomicReferenceArray<short[]> pages;
+    long[] mountains;
+    long[] mountainsByColumn;
+    long[] treasuresByRow;
+    long[] treasuresByColumn;
+    int mountainCount;
+
+    public CopyOnWriteTerrain(Base base) {
+        this.base = base;
+        this.pages = new AtomicReferenceArray<>((base.cells() + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+        this.mountains = base.mountains;
+        this.mountainsByColumn = base.mountainsByColumn;
+        this.treasuresByRow = base.treasuresByRow;
+        this.treasuresByColumn = base.treasuresByColumn;
+        this.mountainCount = base.mountainCount;
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < base.width && y >= 0 && y < base.height;
+    }
+
+    private int cellIndex(int x, int y) {
+        if (!contains(x, y))
+            throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
+        return y * base.width + x;
+    }
+
+    public int pagesCopied() {
+        int copied = 0;
+        for (int page = 0; page < pages.length(); page++)
+            if (pages.getPlain(page) != null)
+                copied++;
+        return copied;
+    }
+
+    @Override
+    public boolean isMountain(int x, int y) {
+        return contains(x, y) && Bits.get(mountains, y * base.width + x);
+    }
+
+    @Override
+    public void addMountain(int x, int y) {
+        int cell = cellIndex(x, y);
+        if (Bits.get(mountains, cell))
+            return;
+        if (mountains == base.mountains) {
+            mountains = mountains.clone();
+            mountainsByColumn = mountainsByColumn.clone();
+        }
+        Bits.set(mountains, cell);
+        Bits.set(mountainsByColumn, x * base.height + y);
+        mountainCount++;
+    }
+
+    private short count(int cell) {
+        short[] page = pages.getAcquire(cell >>> PAGE_SHIFT);
+        return page != null ? page[cell & (PAGE_SIZE - 1)] : base.treasures.get(cell);
+    }
+
+    @Override
+    public short treasureCount(int x, int y) {
+        return contains(x, y) ? count(y * base.width + x) : 0;
+    }
+
+    @Override
+    public void treasureCount(int x, int y, short count) {
+        int cell = cellIndex(x, y), index = cell >>> PAGE_SHIFT;
+        short[] page = pages.getAcquire(index);
+        if (page == null) {
+            page = new short[PAGE_SIZE];
+            int start = index << PAGE_SHIFT;
+            base.treasures.get(start, page, 0, Math.min(PAGE_SIZE, base.cells() - start));
+            if (!pages.compareAndSet(index, null, page))
+                page = pages.get(index);
+        }
+        page[cell & (PAGE_SIZE - 1)] = count;
+        // Bits are only ever added: a cell that empties keeps a stale bit, which readers check against the count.
+        if (count != 0 && !Bits.get(treasuresByRow, cell)) {
+            if (treasuresByRow == base.treasuresByRow) {
+                treasuresByRow = treasuresByRow.clone();
+                treasuresByColumn = treasuresByColumn.clone();
+            }
+            Bits.set(treasuresByRow, cell);
+            Bits.set(treasuresByColumn, x * base.height + y);
+        }
+    }
+
+    @Override
+    public int clearance(int x, int y, Direction direction, int limit) {
+        int mountain = Bits.scan(direction == Direction.EAST || direction == Direction.WEST ? mountains : mountainsByColumn,
+                base.width, base.height, x, y, direction, limit);
+        return mountain < 0 ? limit : mountain - 1;
+    }
+
+    @Override
+    public int treasureDistance(int x, int y, Direction direction, int limit) {
+        long[] bits = direction == Direction.EAST || direction == Direction.WEST ? treasuresByRow : treasuresByColumn;
+        int distance = 0;
+        while (distance < limit) {
+            int next = Bits.scan(bits, base.width, base.height, x + direction.dx() * distance, y + direction.dy() * distance,
+                    direction, limit - distance);
+            if (next < 0)
+                return 0;
+            distance += next;
+            if (count((y + direction.dy() * distance) * base.width + x + direction.dx() * distance) != 0)
+                return distance;
+        }
+        return 0;
+    }
+
+    @Override
+    public int mountainCount() {
+        return mountainCount;
+    }
+
+    @Override
+    public StorageLayout layout() {
+        return StorageLayout.GRID;
+    }
+
+    @Override
+    public int treasureCellCount() {
+        int[] count = {0};
+        forEachTreasure((x, y, treasure) -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public void forEachMountain(CellVisitor visitor) {
+        for (int cell = Bits.next(mountains, 0, base.cells() - 1); cell >= 0; cell = Bits.next(mountains, cell + 1, base.cells() - 1))
+            visitor.visit(cell % base.width, cell / base.width);
+    }
+
+    @Override
+    public void forEachTreasure(TreasureVisitor visitor) {
+        for (int cell = Bits.next(treasuresByRow, 0, base.cells() - 1); cell >= 0; cell = Bits.next(treasuresByRow, cell + 1, base.cells() - 1)) {
+            short count = count(cell);
+            if (count != 0)
+                visitor.visit(cell % base.width, cell / base.width, count);
+        }
+    }
+
+    @Override
+    public Set<Coordinate> mountains() {
+        Set<Coordinate> snapshot = new HashSet<>();
+        forEachMountain((x, y) -> snapshot.add(Coordinate.of(x, y)));
+        return Collections.unmodifiableSet(snapshot);
+    }
+
+    @Override
+    public Map<Coordinate, Short> treasures() {
+        Map<Coordinate, Short> snapshot = new HashMap<>();
+        forEachTreasure((x, y, count) -> snapshot.put(Coordinate.of(x, y), count));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Immutable terrain layers: row-major and column-major bitsets of mountains and treasure cells,
+     * plus the treasure counts, which may live in a memory-mapped file.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public static final class Base {
+
+        int width;
+        int height;
+        int mountainCount;
+        long[] mountains;
+        long[] mountainsByColumn;
+        long[] treasuresByRow;
+        long[] treasuresByColumn;
+        ShortBuffer treasures;
+
+        public Base(int width, int height, long[] mountains, long[] mountainsByColumn,
+                    long[] treasuresByRow, long[] treasuresByColumn, ShortBuffer treasures) {
+            long cells = (long) width * height;
+            if (cells > StorageLayout.MAX_GRID_CELLS || treasures.limit() != cells || mountains.length != Bits.words(cells).length)
+                throw new IllegalArgumentException("Terrain layers do not match a %d x %d map".formatted(width, height));
+            this.width = width;
+            this.height = height;
+            this.mountains = mountains;
+            this.mountainsByColumn = mountainsByColumn;
+            this.treasuresByRow = treasuresByRow;
+            this.treasuresByColumn = treasuresByColumn;
+            this.treasures = treasures.asReadOnlyBuffer();
+            int count = 0;
+            for (long word : mountains)
+                count += Long.bitCount(word);
+            this.mountainCount = count;
+        }
+
+        public static Base copyOf(TreasureMap treasureMap) {
+            int width = treasureMap.width(), height = treasureMap.height();
+            long cells = (long) width * height;
+            if (cells > StorageLayout.MAX_GRID_CELLS)
+                throw new IllegalArgumentException("Map too large for a shared terrain: %d x %d".formatted(width, height));
+            long[] mountains = Bits.words(cells), mountainsByColumn = Bits.words(cells);
+            long[] treasuresByRow = Bits.words(cells), treasuresByColumn = Bits.words(cells);
+            short[] treasures = new short[(int) cells];
+            treasureMap.terrain().forEachMountain((x, y) -> {
+                Bits.set(mountains, y * width + x);
+                Bits.set(mountainsByColumn, x * height + y);
+            });
+            treasureMap.terrain().forEachTreasure((x, y, count) -> {
+                treasures[y * width + x] = count;
+                Bits.set(treasuresByRow, y * width + x);
+                Bits.set(treasuresByColumn, x * height + y);
+            });
+            return new Base(width, height, mountains, mountainsByColumn, treasuresByRow, treasuresByColumn, ShortBuffer.wrap(treasures));
+        }
+
+        public int cells() {
+            return width * height;
+        }
+
+        /**
+         * Heap footprint of the layers of a {@code width x height} base, or {@link Long#MAX_VALUE} when the map is
+         * too large to have one.
+         */
+        public static long bytes(int width, int height) {
+            long cells = (long) width * height;
+            if (width < 0 || height < 0 || cells > StorageLayout.MAX_GRID_CELLS)
+                return Long.MAX_VALUE;
+            return 4 * ((cells + 63) >>> 6) * Long.BYTES + 2 * cells;
+        }
+
+        public TreasureMap newMap() {
+            return TreasureMap.builder().width(width).height(height).terrain(new CopyOnWriteTerrain(this)).build();
+        }
+    }
+}
@@ -11,9 +11,14 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public enum Direction {
-    NORTH('N'), SOUTH('S'), EAST('E'), WEST('W');
+    NORTH('N', 0, -1), SOUTH('S', 0, 1), EAST('E', 1, 0), WEST('W', -1, 0);
+
+    private static final Direction[] LEFT = {WEST, EAST, NORTH, SOUTH};
+    private static final Direction[] RIGHT = {EAST, WEST, SOUTH, NORTH};
 
     char value;
+    int dx;
+    int dy;
 
     public static Direction directionByValue(char value) {
         return switch (value) {
@@ -24,4 +29,19 @@ public enum Direction {
             default -> throw new IllegalArgumentException("Invalid orientation provided: %s".formatted(value));
         };
     }
+
+    public Direction left() {
+        return LEFT[ordinal()];
+    }
+
+    public Direction right() {
+        return RIGHT[ordinal()];
+    }
+
+    public Direction right(int quarterTurns) {
+        Direction direction = this;
+        for (int i = quarterTurns & 3; i > 0; i--)
+            direction = direction.right();
+        return direction;
+    }
 }
@@ -0,0 +1,84 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The region is mapped on the first read and the file closed right away: a mapping does not hold a file descriptor,
+ * so many adventurers do not exhaust them, and chunks are then copied straight from the page cache.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class FileRegionSequence implements MovementSequence {
+
+    // A mapping is indexed by int, longer regions are mapped in several segments.
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    Path file;
+    long offset;
+    long length;
+    @NonFinal
+    volatile MappedByteBuffer[] segments;
+
+    FileRegionSequence(Path file, long offset, long length) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read(long from, byte[] moves, int offset, int count) {
+        MappedByteBuffer[] segments = segments();
+        int read = (int) Math.min(count, length - from);
+        for (int copied = 0; copied < read; ) {
+            long position = from + copied;
+            MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+            int index = (int) (position % SEGMENT_SIZE), span = Math.min(read - copied, segment.capacity() - index);
+            segment.get(index, moves, offset + copied, span);
+            copied += span;
+        }
+        return read;
+    }
+
+    private MappedByteBuffer[] segments() {
+        MappedByteBuffer[] segments = this.segments;
+        if (segments == null)
+            synchronized (this) {
+                if ((segments = this.segments) == null)
+                    this.segments = segments = map();
+            }
+        return segments;
+    }
+
+    private MappedByteBuffer[] map() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < offset + length)
+                throw new IOException("%s ends before the movement sequence".formatted(file));
+            var segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(SEGMENT_SIZE, length - start));
+            }
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "%s[%d..%d]".formatted(file, offset, offset + length);
+    }
+}
@@ -0,0 +1,42 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.function.LongToIntFunction;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class GeneratedSequence implements MovementSequence {
+
+    private static final byte[] MOVES = {'A', 'G', 'D'};
+
+    long length;
+    LongToIntFunction moveAt;
+
+    GeneratedSequence(long length, LongToIntFunction moveAt) {
+        this.length = length;
+        this.moveAt = moveAt;
+    }
+
+    // SplitMix64 finalizer over seed and index; forward moves are twice as likely as each turn.
+    static int randomMove(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z & 3) < 2 ? MOVES[0] : MOVES[(int) (z & 3) - 1];
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read(long from, byte[] moves, int offset, int count) {
+        int read = (int) Math.min(count, length - from);
+        for (int i = 0; i < read; i++)
+            moves[offset + i] = (byte) moveAt.applyAsInt(from + i);
+        return read;
+    }
+}
@@ -0,0 +1,57 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Reads the mountain and treasure bits of a {@link GridTerrain} straight from its arrays. The bits take 16 times
+ * less cache than the treasure counts, which are only read by {@link TreasureMap#takeTreasure} once a bit is set.
+ * During a run treasure bits are only ever cleared, so a bit left stale by a concurrent group is a false positive
+ * that the count then rules out.
+ * <p>
+ * {@link VectorGridMoveKernel} only replaces the target checks of {@link #probe}.
+ */
+@FieldDefaults(level = AccessLevel.PACKAGE, makeFinal = true)
+class GridMoveKernel extends MoveKernel {
+
+    int width;
+    int height;
+    long[] mountains;
+    long[] treasures;
+
+    GridMoveKernel(TreasureMap treasureMap, GridTerrain terrain) {
+        super(treasureMap);
+        this.width = treasureMap.width();
+        this.height = treasureMap.height();
+        this.mountains = terrain.mountainBits();
+        this.treasures = terrain.treasureBits();
+    }
+
+    @Override
+    public MoveResult moveOnce(Adventurer player, char move, Occupancy occupancy) {
+        if (move != 'A')
+            return turn(player, move);
+        Direction orientation = player.orientation();
+        int x = player.x() + orientation.dx(), y = player.y() + orientation.dy();
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            return MoveResult.BLOCKED_BY_BOUNDARY;
+        int cell = y * width + x;
+        if ((mountains[cell >>> 6] & 1L << cell) != 0)
+            return MoveResult.BLOCKED_BY_MOUNTAIN;
+        return enter(player, x, y, occupancy, (treasures[cell >>> 6] & 1L << cell) != 0);
+    }
+
+    @Override
+    public void probe(int[] xs, int[] ys, int count, byte[] results) {
+        for (int i = 0; i < count; i++) {
+            int x = xs[i], y = ys[i];
+            results[i] = x < 0 || x >= width || y < 0 || y >= height ? BLOCKED_BY_BOUNDARY : probe(y * width + x);
+        }
+    }
+
+    // The result of entering a cell inside the map.
+    final byte probe(int cell) {
+        return (mountains[cell >>> 6] & 1L << cell) != 0 ? BLOCKED_BY_MOUNTAIN
+                : (treasures[cell >>> 6] & 1L << cell) != 0 ? COLLECTED : MOVED;
+    }
+}
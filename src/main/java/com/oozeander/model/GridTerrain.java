@@ -0,0 +1,175 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class GridTerrain implements Terrain {
+
+    final int width;
+    final int height;
+    final long[] mountains;
+    final short[] treasures;
+    // Row-major (x-adjacent) and column-major (y-adjacent) copies used to scan a straight line a word at a time.
+    // Treasure bits are cleared without synchronization when a cell empties, so they may lag behind
+    // the counts: readers must check treasures[] before acting on them.
+    final long[] mountainsByColumn;
+    final long[] treasuresByRow;
+    final long[] treasuresByColumn;
+    // Atomic: disjoint adventurer groups empty cells concurrently.
+    final AtomicInteger treasureCellCount = new AtomicInteger();
+    int mountainCount;
+
+    GridTerrain(int width, int height) {
+        this.width = width;
+        this.height = height;
+        long cells = (long) width * height;
+        this.mountains = Bits.words(cells);
+        this.mountainsByColumn = Bits.words(cells);
+        this.treasuresByRow = Bits.words(cells);
+        this.treasuresByColumn = Bits.words(cells);
+        this.treasures = new short[Math.toIntExact(cells)];
+    }
+
+    GridTerrain(int width, int height, Set<Coordinate> mountains, Map<Coordinate, Short> treasures) {
+        this(width, height);
+        if (mountains != null)
+            mountains.forEach(mountain -> addMountain(mountain.x(), mountain.y()));
+        if (treasures != null)
+            treasures.forEach((coordinate, count) -> treasureCount(coordinate.x(), coordinate.y(), count));
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int cellIndex(int x, int y) {
+        if (!contains(x, y))
+            throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
+        return y * width + x;
+    }
+
+    @Override
+    public boolean isMountain(int x, int y) {
+        if (!contains(x, y))
+            return false;
+        return Bits.get(mountains, y * width + x);
+    }
+
+    @Override
+    public void addMountain(int x, int y) {
+        int cell = cellIndex(x, y);
+        if (!Bits.get(mountains, cell)) {
+            Bits.set(mountains, cell);
+            Bits.set(mountainsByColumn, x * height + y);
+            mountainCount++;
+        }
+    }
+
+    @Override
+    public short treasureCount(int x, int y) {
+        return contains(x, y) ? treasures[y * width + x] : 0;
+    }
+
+    @Override
+    public void treasureCount(int x, int y, short count) {
+        int cell = cellIndex(x, y), transposed = x * height + y;
+        if (count != 0 && treasures[cell] == 0) {
+            Bits.set(treasuresByRow, cell);
+            Bits.set(treasuresByColumn, transposed);
+            treasureCellCount.incrementAndGet();
+        } else if (count == 0 && treasures[cell] != 0) {
+            Bits.clear(treasuresByRow, cell);
+            Bits.clear(treasuresByColumn, transposed);
+            treasureCellCount.decrementAndGet();
+        }
+        treasures[cell] = count;
+    }
+
+    @Override
+    public int clearance(int x, int y, Direction direction, int limit) {
+        int mountain = Bits.scan(direction == Direction.EAST || direction == Direction.WEST ? mountains : mountainsByColumn,
+                width, height, x, y, direction, limit);
+        return mountain < 0 ? limit : mountain - 1;
+    }
+
+    @Override
+    public int treasureDistance(int x, int y, Direction direction, int limit) {
+        long[] bits = direction == Direction.EAST || direction == Direction.WEST ? treasuresByRow : treasuresByColumn;
+        int distance = 0;
+        while (distance < limit) {
+            int next = Bits.scan(bits, width, height, x + direction.dx() * distance, y + direction.dy() * distance,
+                    direction, limit - distance);
+            if (next < 0)
+                return 0;
+            distance += next;
+            if (treasures[(y + direction.dy() * distance) * width + x + direction.dx() * distance] != 0)
+                return distance;
+        }
+        return 0;
+    }
+
+    // Read directly by GridMoveKernel.
+    long[] mountainBits() {
+        return mountains;
+    }
+
+    long[] treasureBits() {
+        return treasuresByRow;
+    }
+
+    @Override
+    public int mountainCount() {
+        return mountainCount;
+    }
+
+    @Override
+    public StorageLayout layout() {
+        return StorageLayout.GRID;
+    }
+
+    @Override
+    public int treasureCellCount() {
+        return treasureCellCount.get();
+    }
+
+    @Override
+    public void forEachMountain(CellVisitor visitor) {
+        for (int word = 0; word < mountains.length; word++) {
+            long bits = mountains[word];
+            while (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                visitor.visit(cell % width, cell / width);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public void forEachTreasure(TreasureVisitor visitor) {
+        for (int cell = 0; cell < treasures.length; cell++)
+            if (treasures[cell] != 0)
+                visitor.visit(cell % width, cell / width, treasures[cell]);
+    }
+
+    @Override
+    public Set<Coordinate> mountains() {
+        Set<Coordinate> snapshot = new HashSet<>();
+        forEachMountain((x, y) -> snapshot.add(Coordinate.of(x, y)));
+        return Collections.unmodifiableSet(snapshot);
+    }
+
+    @Override
+    public Map<Coordinate, Short> treasures() {
+        Map<Coordinate, Short> snapshot = new HashMap<>();
+        forEachTreasure((x, y, count) -> snapshot.put(Coordinate.of(x, y), count));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -0,0 +1,87 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Treasure cells and adventurers changed since {@link TreasureMap#trackChanges()}, so that a run can write
+ * only those instead of the whole map.
+ * <p>
+ * Treasure cells are marked in a dirty set as the map's treasures are collected or set, and appended to a
+ * changelog the first time, so reading the changes costs in proportion to them. Adventurers are compared
+ * with the state they had when tracking started.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class MapChanges {
+
+    final TreasureMap treasureMap;
+    final CellSet marked;
+    // Packed y << 32 | x, in the order the cells first changed.
+    long[] cells = new long[16];
+    int cellCount;
+    final int[] xs;
+    final int[] ys;
+    final Direction[] orientations;
+    final int[] treasureCounts;
+
+    MapChanges(TreasureMap treasureMap) {
+        this.treasureMap = treasureMap;
+        this.marked = new CellSet(treasureMap.width(), treasureMap.height(), treasureMap.terrain().treasureCellCount());
+        List<Adventurer> players = treasureMap.players();
+        this.xs = new int[players.size()];
+        this.ys = new int[players.size()];
+        this.orientations = new Direction[players.size()];
+        this.treasureCounts = new int[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            Adventurer player = players.get(i);
+            xs[i] = player.x();
+            ys[i] = player.y();
+            orientations[i] = player.orientation();
+            treasureCounts[i] = player.treasureCount();
+        }
+    }
+
+    // Parallel simulations collect from several threads; collections are rare next to moves.
+    synchronized void treasureChanged(int x, int y) {
+        if (!marked.add(x, y))
+            return;
+        if (cellCount == cells.length)
+            cells = Arrays.copyOf(cells, cellCount * 2);
+        cells[cellCount++] = (long) y << 32 | x;
+    }
+
+    public synchronized int treasureCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Visits the changed treasure cells in row-major order with their current count, 0 once emptied.
+     */
+    public synchronized void forEachTreasure(Terrain.TreasureVisitor visitor) {
+        long[] sorted = Arrays.copyOf(cells, cellCount);
+        Arrays.sort(sorted);
+        for (long cell : sorted) {
+            int x = (int) cell, y = (int) (cell >>> 32);
+            visitor.visit(x, y, treasureMap.treasureCount(x, y));
+        }
+    }
+
+    /**
+     * The adventurers whose position, orientation or treasure count changed, or added since, in insertion order.
+     */
+    public List<Adventurer> adventurers() {
+        List<Adventurer> changed = new ArrayList<>();
+        List<Adventurer> players = treasureMap.players();
+        for (int i = 0; i < players.size(); i++) {
+            Adventurer player = players.get(i);
+            if (i >= xs.length || player.x() != xs[i] || player.y() != ys[i] || player.orientation() != orientations[i]
+                    || player.treasureCount() != treasureCounts[i])
+                changed.add(player);
+        }
+        return changed;
+    }
+}
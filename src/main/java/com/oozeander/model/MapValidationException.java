@@ -0,0 +1,23 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class MapValidationException extends IllegalArgumentException {
+
+    List<Violation> violations;
+
+    public MapValidationException(List<Violation> violations) {
+        super(violations.stream().map(Violation::toString)
+                .collect(Collectors.joining("\n", "%d invalid map elements:\n".formatted(violations.size()), "")));
+        this.violations = List.copyOf(violations);
+    }
+}
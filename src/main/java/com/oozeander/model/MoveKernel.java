@@ -0,0 +1,68 @@
+package com.oozeander.model;
+
+/**
+ * The move interpreter of {@link Adventurer#moveOnce}, specialized per terrain representation. Each kernel is a
+ * final class that reads the storage of its terrain directly, so the simulation loop only ever calls one receiver
+ * type and C2 can inline the whole move.
+ * <p>
+ * A kernel is built for one run and assumes the mountains no longer change. Collections still go through
+ * {@link TreasureMap#takeTreasure}, which keeps the spatial index and the change tracking up to date.
+ */
+public abstract class MoveKernel {
+
+    static final byte MOVED = (byte) MoveResult.MOVED.ordinal();
+    static final byte COLLECTED = (byte) MoveResult.COLLECTED.ordinal();
+    static final byte BLOCKED_BY_BOUNDARY = (byte) MoveResult.BLOCKED_BY_BOUNDARY.ordinal();
+    static final byte BLOCKED_BY_MOUNTAIN = (byte) MoveResult.BLOCKED_BY_MOUNTAIN.ordinal();
+
+    // The vector kernel is compiled against an incubator module that the JVM only resolves with --add-modules.
+    static final boolean VECTOR_API = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    final TreasureMap treasureMap;
+
+    MoveKernel(TreasureMap treasureMap) {
+        this.treasureMap = treasureMap;
+    }
+
+    public static MoveKernel of(TreasureMap treasureMap) {
+        if (treasureMap.terrain() instanceof GridTerrain grid)
+            return VECTOR_API ? new VectorGridMoveKernel(treasureMap, grid) : new GridMoveKernel(treasureMap, grid);
+        if (treasureMap.terrain() instanceof SparseTerrain sparse)
+            return new SparseMoveKernel(treasureMap, sparse);
+        return new TerrainMoveKernel(treasureMap);
+    }
+
+    /**
+     * Same result and effects as {@link Adventurer#moveOnce(TreasureMap, char, Occupancy)}.
+     */
+    public abstract MoveResult moveOnce(Adventurer player, char move, Occupancy occupancy);
+
+    /**
+     * Checks the first {@code count} target cells against the map edges and mountains in one pass, and writes for
+     * each the {@link MoveResult} ordinal an adventurer entering it would get if no other adventurer were there:
+     * {@code COLLECTED} only means the cell may hold treasure, {@link TreasureMap#takeTreasure} has the final say.
+     */
+    public abstract void probe(int[] xs, int[] ys, int count, byte[] results);
+
+    static MoveResult turn(Adventurer player, char move) {
+        if (move == 'G')
+            player.orientation(player.orientation().left());
+        else if (move == 'D')
+            player.orientation(player.orientation().right());
+        else
+            throw new IllegalArgumentException(Adventurer.INVALID_TURN.formatted(move));
+        return MoveResult.TURNED;
+    }
+
+    final MoveResult enter(Adventurer player, int x, int y, Occupancy occupancy, boolean treasure) {
+        if (occupancy.isOccupied(x, y))
+            return MoveResult.BLOCKED_BY_ADVENTURER;
+        occupancy.release(player.x(), player.y());
+        occupancy.occupy(x, y);
+        player.x(x).y(y);
+        if (!treasure || !treasureMap.takeTreasure(x, y))
+            return MoveResult.MOVED;
+        player.treasureCount(player.treasureCount() + 1);
+        return MoveResult.COLLECTED;
+    }
+}
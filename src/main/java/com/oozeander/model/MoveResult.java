@@ -0,0 +1,9 @@
+package com.oozeander.model;
+
+public enum MoveResult {
+    MOVED, COLLECTED, TURNED, BLOCKED_BY_BOUNDARY, BLOCKED_BY_MOUNTAIN, BLOCKED_BY_ADVENTURER;
+
+    public boolean blocked() {
+        return this == BLOCKED_BY_BOUNDARY || this == BLOCKED_BY_MOUNTAIN || this == BLOCKED_BY_ADVENTURER;
+    }
+}
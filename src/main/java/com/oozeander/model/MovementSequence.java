@@ -0,0 +1,77 @@
+package com.oozeander.model;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.function.LongToIntFunction;
+
+/**
+ * The moves of an adventurer, read in chunks so that a sequence does not have to fit in memory.
+ */
+public interface MovementSequence {
+
+    int CHUNK_SIZE = 8192;
+
+    long length();
+
+    /**
+     * Copies up to {@code count} moves starting at {@code from} into {@code moves} and returns how many were copied.
+     */
+    int read(long from, byte[] moves, int offset, int count);
+
+    default long count(char move) {
+        byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, length())];
+        long count = 0;
+        for (long from = 0; from < length(); ) {
+            int read = read(from, chunk, 0, chunk.length);
+            for (int i = 0; i < read; i++)
+                if (chunk[i] == move)
+                    count++;
+            from += read;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the whole sequence into a String, which only makes sense for sequences that fit in memory.
+     */
+    default String asString() {
+        if (length() > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("A sequence of %d moves does not fit in a String".formatted(length()));
+        byte[] moves = new byte[(int) length()];
+        for (int from = 0; from < moves.length; )
+            from += read(from, moves, from, moves.length - from);
+        return new String(moves, StandardCharsets.ISO_8859_1);
+    }
+
+    static MovementSequence of(String moves) {
+        return new StringSequence(moves);
+    }
+
+    /**
+     * Moves stored as ISO-8859-1 characters in a region of a file, read on demand.
+     */
+    static MovementSequence fileRegion(Path file, long offset, long length) {
+        return new FileRegionSequence(file, offset, length);
+    }
+
+    /**
+     * Moves computed from their index, e.g. {@code i -> i % 4 == 3 ? 'D' : 'A'}.
+     */
+    static MovementSequence generated(long length, LongToIntFunction moveAt) {
+        return new GeneratedSequence(length, moveAt);
+    }
+
+    /**
+     * Pseudo-random moves, a pure function of the seed and the index: the same seed always gives the same sequence.
+     */
+    static MovementSequence random(long length, long seed) {
+        return new GeneratedSequence(length, index -> GeneratedSequence.randomMove(seed, index));
+    }
+
+    /**
+     * Moves in run-length form, e.g. {@code "120A2DA"} for 120 forward moves, two right turns and one forward move.
+     */
+    static MovementSequence runLength(String encoded) {
+        return RunLengthSequence.parse(encoded);
+    }
+}
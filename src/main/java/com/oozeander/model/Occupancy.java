@@ -0,0 +1,25 @@
+package com.oozeander.model;
+
+public interface Occupancy {
+
+    Occupancy NONE = new Occupancy() {
+        @Override
+        public boolean isOccupied(int x, int y) {
+            return false;
+        }
+
+        @Override
+        public void occupy(int x, int y) {
+        }
+
+        @Override
+        public void release(int x, int y) {
+        }
+    };
+
+    boolean isOccupied(int x, int y);
+
+    void occupy(int x, int y);
+
+    void release(int x, int y);
+}
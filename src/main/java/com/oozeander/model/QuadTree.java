@@ -0,0 +1,218 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Point-region quadtree of cells over a power-of-two square. Every node counts the cells below it,
+ * so queries skip empty subtrees and cost in proportion to what they return.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class QuadTree {
+
+    static final int LEAF_CAPACITY = 16;
+
+    final Node root;
+    int size;
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Node {
+        final int x;
+        final int y;
+        // A long: the root of a map wider than 2^30 covers [0, 2^31).
+        final long side;
+        int count;
+        Node[] children;
+        // Packed (y << 32 | x) cells of a leaf.
+        long[] cells = new long[4];
+
+        Node(int x, int y, long side) {
+            this.x = x;
+            this.y = y;
+            this.side = side;
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        Node child(int cellX, int cellY) {
+            long half = side >>> 1;
+            return children[(cellX - x >= half ? 1 : 0) | (cellY - y >= half ? 2 : 0)];
+        }
+
+        long distance(int cellX, int cellY) {
+            return Math.max(0, Math.max((long) x - cellX, cellX - (x + side - 1))) + Math.max(0, Math.max((long) y - cellY, cellY - (y + side - 1)));
+        }
+    }
+
+    QuadTree(int width, int height) {
+        long side = Integer.highestOneBit(Math.max(1, Math.max(width, height)));
+        this.root = new Node(0, 0, side < Math.max(width, height) ? side << 1 : side);
+    }
+
+    private static long pack(int x, int y) {
+        return (long) y << 32 | x;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int x, int y) {
+        Node node = root;
+        while (!node.isLeaf())
+            node = node.child(x, y);
+        return indexOf(node, pack(x, y)) >= 0;
+    }
+
+    /**
+     * Returns false if the cell was already there.
+     */
+    boolean add(int x, int y) {
+        if (contains(x, y))
+            return false;
+        long cell = pack(x, y);
+        Node node = root;
+        while (true) {
+            node.count++;
+            if (!node.isLeaf()) {
+                node = node.child(x, y);
+                continue;
+            }
+            if (node.count <= LEAF_CAPACITY || node.side == 1) {
+                if (node.count > node.cells.length)
+                    node.cells = Arrays.copyOf(node.cells, node.cells.length * 2);
+                node.cells[node.count - 1] = cell;
+                size++;
+                return true;
+            }
+            split(node);
+            node = node.child(x, y);
+        }
+    }
+
+    private static void split(Node node) {
+        int half = (int) (node.side >>> 1);
+        node.children = new Node[]{new Node(node.x, node.y, half), new Node(node.x + half, node.y, half),
+                new Node(node.x, node.y + half, half), new Node(node.x + half, node.y + half, half)};
+        // The cell being added was already counted: only the previous ones move down.
+        for (int i = 0; i < node.count - 1; i++) {
+            long cell = node.cells[i];
+            Node child = node.child((int) cell, (int) (cell >>> 32));
+            if (child.count == child.cells.length)
+                child.cells = Arrays.copyOf(child.cells, child.cells.length * 2);
+            child.cells[child.count++] = cell;
+        }
+        node.cells = null;
+    }
+
+    /**
+     * Returns false if the cell was not there.
+     */
+    boolean remove(int x, int y) {
+        if (!contains(x, y))
+            return false;
+        long cell = pack(x, y);
+        Node node = root;
+        while (true) {
+            node.count--;
+            if (node.isLeaf())
+                break;
+            if (node.count <= LEAF_CAPACITY) {
+                // Few enough cells left below: gather them back into this node.
+                long[] cells = new long[Math.max(4, node.count + 1)];
+                int[] found = {0};
+                collect(node, cells, found);
+                node.children = null;
+                node.cells = cells;
+                int index = indexOf(node, cell, found[0]);
+                node.cells[index] = node.cells[found[0] - 1];
+                size--;
+                return true;
+            }
+            node = node.child(x, y);
+        }
+        int index = indexOf(node, cell, node.count + 1);
+        node.cells[index] = node.cells[node.count];
+        size--;
+        return true;
+    }
+
+    private static void collect(Node node, long[] cells, int[] found) {
+        if (node.isLeaf()) {
+            System.arraycopy(node.cells, 0, cells, found[0], node.count);
+            found[0] += node.count;
+            return;
+        }
+        for (Node child : node.children)
+            collect(child, cells, found);
+    }
+
+    private static int indexOf(Node node, long cell) {
+        return indexOf(node, cell, node.count);
+    }
+
+    private static int indexOf(Node node, long cell, int count) {
+        for (int i = 0; i < count; i++)
+            if (node.cells[i] == cell)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Visits the cells within the inclusive rectangle, in no particular order.
+     */
+    void query(int minX, int minY, int maxX, int maxY, Terrain.CellVisitor visitor) {
+        query(root, minX, minY, maxX, maxY, visitor);
+    }
+
+    private static void query(Node node, int minX, int minY, int maxX, int maxY, Terrain.CellVisitor visitor) {
+        if (node.count == 0 || node.x > maxX || node.y > maxY || node.x + node.side - 1 < minX || node.y + node.side - 1 < minY)
+            return;
+        if (!node.isLeaf()) {
+            for (Node child : node.children)
+                query(child, minX, minY, maxX, maxY, visitor);
+            return;
+        }
+        for (int i = 0; i < node.count; i++) {
+            int x = (int) node.cells[i], y = (int) (node.cells[i] >>> 32);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                visitor.visit(x, y);
+        }
+    }
+
+    /**
+     * Visits the {@code k} cells closest to (x, y) in moves (Manhattan distance), closest first,
+     * ties in row-major order.
+     */
+    void nearest(int x, int y, int k, Terrain.CellVisitor visitor) {
+        // Best-first: a node is expanded before any cell at the same distance, so cells come out in order.
+        record Candidate(long distance, Node node, long cell) {
+        }
+        var queue = new PriorityQueue<Candidate>((a, b) -> a.distance != b.distance ? Long.compare(a.distance, b.distance)
+                : a.node != null || b.node != null ? Boolean.compare(b.node != null, a.node != null)
+                : Long.compare(a.cell, b.cell));
+        queue.add(new Candidate(root.distance(x, y), root, 0));
+        for (int found = 0; found < k && !queue.isEmpty(); ) {
+            Candidate candidate = queue.poll();
+            Node node = candidate.node;
+            if (node == null) {
+                visitor.visit((int) candidate.cell, (int) (candidate.cell >>> 32));
+                found++;
+            } else if (!node.isLeaf()) {
+                for (Node child : node.children)
+                    if (child.count > 0)
+                        queue.add(new Candidate(child.distance(x, y), child, 0));
+            } else {
+                for (int i = 0; i < node.count; i++) {
+                    int cellX = (int) node.cells[i], cellY = (int) (node.cells[i] >>> 32);
+                    queue.add(new Candidate(Math.abs((long) cellX - x) + Math.abs((long) cellY - y), null, node.cells[i]));
+                }
+            }
+        }
+    }
+}
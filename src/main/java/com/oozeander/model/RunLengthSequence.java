@@ -0,0 +1,81 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class RunLengthSequence implements MovementSequence {
+
+    private static final String INVALID_RUN = "Invalid run-length sequence at index %d: %s";
+
+    // ends[i] is the index right after run i.
+    long[] ends;
+    byte[] moves;
+
+    private RunLengthSequence(long[] ends, byte[] moves) {
+        this.ends = ends;
+        this.moves = moves;
+    }
+
+    static RunLengthSequence parse(String encoded) {
+        long[] ends = new long[16];
+        byte[] moves = new byte[16];
+        int runs = 0;
+        long length = 0, count = 0;
+        boolean counted = false;
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (c >= '0' && c <= '9') {
+                count = Math.multiplyExact(count, 10) + c - '0';
+                counted = true;
+            } else if (c == 'A' || c == 'G' || c == 'D') {
+                if (counted && count == 0)
+                    throw new IllegalArgumentException(INVALID_RUN.formatted(i, encoded));
+                if (runs == ends.length) {
+                    ends = Arrays.copyOf(ends, runs * 2);
+                    moves = Arrays.copyOf(moves, runs * 2);
+                }
+                length += counted ? count : 1;
+                ends[runs] = length;
+                moves[runs++] = (byte) c;
+                count = 0;
+                counted = false;
+            } else {
+                throw new IllegalArgumentException(INVALID_RUN.formatted(i, encoded));
+            }
+        }
+        if (counted)
+            throw new IllegalArgumentException(INVALID_RUN.formatted(encoded.length(), encoded));
+        return new RunLengthSequence(Arrays.copyOf(ends, runs), Arrays.copyOf(moves, runs));
+    }
+
+    @Override
+    public long length() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    public int read(long from, byte[] chunk, int offset, int count) {
+        int run = Arrays.binarySearch(ends, from);
+        run = run < 0 ? -run - 1 : run + 1;
+        int read = 0;
+        while (read < count && run < ends.length) {
+            int length = (int) Math.min(count - read, ends[run] - from - read);
+            Arrays.fill(chunk, offset + read, offset + read + length, moves[run]);
+            read += length;
+            run++;
+        }
+        return read;
+    }
+
+    @Override
+    public long count(char move) {
+        long count = 0;
+        for (int run = 0; run < ends.length; run++)
+            if (moves[run] == move)
+                count += ends[run] - (run == 0 ? 0 : ends[run - 1]);
+        return count;
+    }
+}
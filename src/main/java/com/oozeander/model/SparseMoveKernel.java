@@ -0,0 +1,85 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Copies the cells of a {@link SparseTerrain} into open-addressing tables of packed (x, y) keys, so that a move
+ * neither boxes a {@link Coordinate} nor hashes through a {@link java.util.HashMap}. Cells that held treasure
+ * when the kernel was built are only candidates: the map has the final say once one is entered.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class SparseMoveKernel extends MoveKernel {
+
+    private static final long EMPTY = -1L;
+
+    int width;
+    int height;
+    long[] mountains;
+    long[] treasures;
+
+    SparseMoveKernel(TreasureMap treasureMap, SparseTerrain terrain) {
+        super(treasureMap);
+        this.width = treasureMap.width();
+        this.height = treasureMap.height();
+        this.mountains = table(terrain.mountains());
+        this.treasures = table(terrain.treasures().entrySet().stream()
+                .filter(treasure -> treasure.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    private static long[] table(Collection<Coordinate> cells) {
+        long[] keys = new long[Integer.highestOneBit(Math.max(2, cells.size()) * 2 - 1) << 1];
+        Arrays.fill(keys, EMPTY);
+        for (Coordinate cell : cells) {
+            long key = key(cell.x(), cell.y());
+            keys[find(keys, key)] = key;
+        }
+        return keys;
+    }
+
+    private static long key(int x, int y) {
+        return (long) y << 32 | x;
+    }
+
+    private static int find(long[] keys, long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int mask = keys.length - 1, slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    @Override
+    public MoveResult moveOnce(Adventurer player, char move, Occupancy occupancy) {
+        if (move != 'A')
+            return turn(player, move);
+        Direction orientation = player.orientation();
+        int x = player.x() + orientation.dx(), y = player.y() + orientation.dy();
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            return MoveResult.BLOCKED_BY_BOUNDARY;
+        long key = key(x, y);
+        if (mountains[find(mountains, key)] == key)
+            return MoveResult.BLOCKED_BY_MOUNTAIN;
+        return enter(player, x, y, occupancy, treasures[find(treasures, key)] == key);
+    }
+
+    @Override
+    public void probe(int[] xs, int[] ys, int count, byte[] results) {
+        for (int i = 0; i < count; i++) {
+            int x = xs[i], y = ys[i];
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                results[i] = BLOCKED_BY_BOUNDARY;
+                continue;
+            }
+            long key = key(x, y);
+            results[i] = mountains[find(mountains, key)] == key ? BLOCKED_BY_MOUNTAIN
+                    : treasures[find(treasures, key)] == key ? COLLECTED : MOVED;
+        }
+    }
+}
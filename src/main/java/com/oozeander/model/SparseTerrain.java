@@ -0,0 +1,88 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class SparseTerrain implements Terrain {
+
+    private static final Comparator<Coordinate> ROW_MAJOR = Comparator.comparingInt(Coordinate::y).thenComparingInt(Coordinate::x);
+
+    Set<Coordinate> mountains;
+    Map<Coordinate, Short> treasures;
+
+    SparseTerrain() {
+        this(new HashSet<>(), new HashMap<>());
+    }
+
+    SparseTerrain(Set<Coordinate> mountains, Map<Coordinate, Short> treasures) {
+        this.mountains = mountains;
+        this.treasures = treasures;
+    }
+
+    @Override
+    public boolean isMountain(int x, int y) {
+        return mountains.contains(Coordinate.of(x, y));
+    }
+
+    @Override
+    public void addMountain(int x, int y) {
+        mountains.add(Coordinate.of(x, y));
+    }
+
+    @Override
+    public short treasureCount(int x, int y) {
+        return treasures.getOrDefault(Coordinate.of(x, y), (short) 0);
+    }
+
+    @Override
+    public void treasureCount(int x, int y, short count) {
+        treasures.put(Coordinate.of(x, y), count);
+    }
+
+    @Override
+    public int mountainCount() {
+        return mountains.size();
+    }
+
+    @Override
+    public StorageLayout layout() {
+        return StorageLayout.SPARSE;
+    }
+
+    @Override
+    public int treasureCellCount() {
+        return (int) treasures.values().stream().filter(count -> count != 0).count();
+    }
+
+    @Override
+    public void forEachMountain(CellVisitor visitor) {
+        mountains.stream()
+                .sorted(ROW_MAJOR)
+                .forEach(mountain -> visitor.visit(mountain.x(), mountain.y()));
+    }
+
+    @Override
+    public void forEachTreasure(TreasureVisitor visitor) {
+        treasures.entrySet().stream()
+                .filter(treasure -> treasure.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(ROW_MAJOR))
+                .forEach(treasure -> visitor.visit(treasure.getKey().x(), treasure.getKey().y(), treasure.getValue()));
+    }
+
+    @Override
+    public Set<Coordinate> mountains() {
+        return mountains;
+    }
+
+    @Override
+    public Map<Coordinate, Short> treasures() {
+        return treasures;
+    }
+}
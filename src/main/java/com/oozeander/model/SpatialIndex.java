@@ -0,0 +1,81 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Region and nearest-treasure queries over a {@link TreasureMap}, answered in time proportional to their output.
+ * <p>
+ * Mountains and treasure cells are kept in quadtrees that the map updates as treasures are added and collected,
+ * including during a simulation; counts are read from the terrain. Adventurers move on every tick, so they are
+ * filtered from the player list instead of being indexed.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class SpatialIndex {
+
+    private static final Comparator<Coordinate> ROW_MAJOR = Comparator.comparingInt(Coordinate::y).thenComparingInt(Coordinate::x);
+
+    TreasureMap treasureMap;
+    QuadTree mountains;
+    QuadTree treasures;
+
+    SpatialIndex(TreasureMap treasureMap) {
+        this.treasureMap = treasureMap;
+        this.mountains = new QuadTree(treasureMap.width(), treasureMap.height());
+        this.treasures = new QuadTree(treasureMap.width(), treasureMap.height());
+        treasureMap.terrain().forEachMountain(mountains::add);
+        treasureMap.terrain().forEachTreasure((x, y, count) -> treasures.add(x, y));
+    }
+
+    synchronized void mountainAdded(int x, int y) {
+        mountains.add(x, y);
+    }
+
+    synchronized void treasureChanged(int x, int y, short count) {
+        if (count > 0)
+            treasures.add(x, y);
+        else
+            treasures.remove(x, y);
+    }
+
+    /**
+     * Everything within the inclusive rectangle from (minX, minY) to (maxX, maxY).
+     */
+    public synchronized Viewport region(int minX, int minY, int maxX, int maxY) {
+        List<Coordinate> regionMountains = new ArrayList<>();
+        mountains.query(minX, minY, maxX, maxY, (x, y) -> regionMountains.add(Coordinate.of(x, y)));
+        regionMountains.sort(ROW_MAJOR);
+        List<Coordinate> treasureCells = new ArrayList<>();
+        treasures.query(minX, minY, maxX, maxY, (x, y) -> treasureCells.add(Coordinate.of(x, y)));
+        treasureCells.sort(ROW_MAJOR);
+        Map<Coordinate, Short> regionTreasures = new LinkedHashMap<>();
+        treasureCells.forEach(cell -> regionTreasures.put(cell, treasureMap.treasureCount(cell.x(), cell.y())));
+        List<Adventurer> adventurers = treasureMap.players().stream()
+                .filter(player -> player.x() >= minX && player.x() <= maxX && player.y() >= minY && player.y() <= maxY)
+                .toList();
+        return new Viewport(List.copyOf(regionMountains), regionTreasures, adventurers);
+    }
+
+    /**
+     * Up to {@code k} cells holding treasure, closest to (x, y) in moves first, ties in row-major order.
+     */
+    public synchronized List<Coordinate> nearestTreasures(int x, int y, int k) {
+        List<Coordinate> nearest = new ArrayList<>();
+        treasures.nearest(x, y, k, (cellX, cellY) -> nearest.add(Coordinate.of(cellX, cellY)));
+        return nearest;
+    }
+
+    public synchronized int mountainCount() {
+        return mountains.size();
+    }
+
+    public synchronized int treasureCellCount() {
+        return treasures.size();
+    }
+}
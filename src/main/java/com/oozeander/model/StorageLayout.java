@@ -0,0 +1,37 @@
+package com.oozeander.model;
+
+public enum StorageLayout {
+    AUTO, GRID, SPARSE, CHUNKED;
+
+    // Below this many cells a grid costs at most ~34 MB, so it is always worth it.
+    static final long DENSE_CELL_LIMIT = 1L << 24;
+    static final long MAX_GRID_CELLS = 1L << 28;
+    // A hash entry costs roughly as much as 32 grid cells.
+    static final long SPARSE_DENSITY_RATIO = 32;
+    // Beyond this side, maps go to 64x64 tiles allocated where there is content.
+    static final int LARGE_MAP_SIDE = Short.MAX_VALUE;
+
+    /**
+     * The number of mountains and treasures from which {@link #resolve} picks a grid for such a map,
+     * or 0 when it does not depend on the content.
+     */
+    public long denseContentCount(int width, int height) {
+        if (this != AUTO || width <= 0 || height <= 0 || width > LARGE_MAP_SIDE || height > LARGE_MAP_SIDE)
+            return 0;
+        long cells = (long) width * height;
+        return cells <= DENSE_CELL_LIMIT || cells > MAX_GRID_CELLS ? 0 : (cells + SPARSE_DENSITY_RATIO - 1) / SPARSE_DENSITY_RATIO;
+    }
+
+    StorageLayout resolve(int width, int height, long contentCount) {
+        if (this != AUTO)
+            return this;
+        if (width <= 0 || height <= 0)
+            return SPARSE;
+        if (width > LARGE_MAP_SIDE || height > LARGE_MAP_SIDE)
+            return CHUNKED;
+        long cells = (long) width * height;
+        if (cells <= DENSE_CELL_LIMIT)
+            return GRID;
+        return cells <= MAX_GRID_CELLS && contentCount * SPARSE_DENSITY_RATIO >= cells ? GRID : SPARSE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.FieldDefaults;
+
+@EqualsAndHashCode
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class StringSequence implements MovementSequence {
+
+    String moves;
+
+    StringSequence(String moves) {
+        this.moves = moves;
+    }
+
+    @Override
+    public long length() {
+        return moves.length();
+    }
+
+    @Override
+    public int read(long from, byte[] chunk, int offset, int count) {
+        int start = (int) from, end = (int) Math.min(moves.length(), from + count);
+        // Moves are ASCII, narrowing each char is exact.
+        for (int i = start; i < end; i++)
+            chunk[offset + i - start] = (byte) moves.charAt(i);
+        return end - start;
+    }
+
+    @Override
+    public long count(char move) {
+        long count = 0;
+        for (int i = 0; i < moves.length(); i++)
+            if (moves.charAt(i) == move)
+                count++;
+        return count;
+    }
+
+    @Override
+    public String asString() {
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return moves;
+    }
+}
@@ -0,0 +1,64 @@
+package com.oozeander.model;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface Terrain {
+
+    String COORDINATE_OUT_OF_BOUNDS = "The given coordinates are not within the treasure map !";
+
+    boolean isMountain(int x, int y);
+
+    void addMountain(int x, int y);
+
+    short treasureCount(int x, int y);
+
+    void treasureCount(int x, int y, short count);
+
+    /**
+     * Number of cells that can be entered going straight from (x, y), at most {@code limit}:
+     * stops before the first mountain. The caller bounds {@code limit} by the map edge.
+     */
+    default int clearance(int x, int y, Direction direction, int limit) {
+        for (int distance = 1; distance <= limit; distance++)
+            if (isMountain(x + direction.dx() * distance, y + direction.dy() * distance))
+                return distance - 1;
+        return limit;
+    }
+
+    /**
+     * Distance to the first cell holding treasure going straight from (x, y), at most {@code limit}, or 0 if none.
+     */
+    default int treasureDistance(int x, int y, Direction direction, int limit) {
+        for (int distance = 1; distance <= limit; distance++)
+            if (treasureCount(x + direction.dx() * distance, y + direction.dy() * distance) > 0)
+                return distance;
+        return 0;
+    }
+
+    // How the cells are stored; a copy-on-write overlay stores them like a grid.
+    StorageLayout layout();
+
+    int mountainCount();
+
+    int treasureCellCount();
+
+    // Both iterations visit cells in row-major order: by y, then by x.
+    void forEachMountain(CellVisitor visitor);
+
+    void forEachTreasure(TreasureVisitor visitor);
+
+    Set<Coordinate> mountains();
+
+    Map<Coordinate, Short> treasures();
+
+    @FunctionalInterface
+    interface CellVisitor {
+        void visit(int x, int y);
+    }
+
+    @FunctionalInterface
+    interface TreasureVisitor {
+        void visit(int x, int y, short count);
+    }
+}
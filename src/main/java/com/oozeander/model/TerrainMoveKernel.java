@@ -0,0 +1,47 @@
+package com.oozeander.model;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Fallback for the other terrains, such as chunked or copy-on-write ones: goes through the {@link Terrain}
+ * interface, but still skips the {@link TreasureMap} indirections.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class TerrainMoveKernel extends MoveKernel {
+
+    int width;
+    int height;
+    Terrain terrain;
+
+    TerrainMoveKernel(TreasureMap treasureMap) {
+        super(treasureMap);
+        this.width = treasureMap.width();
+        this.height = treasureMap.height();
+        this.terrain = treasureMap.terrain();
+    }
+
+    @Override
+    public MoveResult moveOnce(Adventurer player, char move, Occupancy occupancy) {
+        if (move != 'A')
+            return turn(player, move);
+        Direction orientation = player.orientation();
+        int x = player.x() + orientation.dx(), y = player.y() + orientation.dy();
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            return MoveResult.BLOCKED_BY_BOUNDARY;
+        if (terrain.isMountain(x, y))
+            return MoveResult.BLOCKED_BY_MOUNTAIN;
+        return enter(player, x, y, occupancy, terrain.treasureCount(x, y) > 0);
+    }
+
+    @Override
+    public void probe(int[] xs, int[] ys, int count, byte[] results) {
+        for (int i = 0; i < count; i++) {
+            int x = xs[i], y = ys[i];
+            if (x < 0 || x >= width || y < 0 || y >= height)
+                results[i] = BLOCKED_BY_BOUNDARY;
+            else
+                results[i] = terrain.isMountain(x, y) ? BLOCKED_BY_MOUNTAIN : terrain.treasureCount(x, y) > 0 ? COLLECTED : MOVED;
+        }
+    }
+}
@@ -4,68 +4,245 @@ import lombok.*;
 import lombok.experimental.Accessors;
 import lombok.experimental.FieldDefaults;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 @Getter
-@Builder
 @Accessors(fluent = true)
-@AllArgsConstructor
-@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class TreasureMap {
 
-    private static final String COORDINATE_OUT_OF_BOUNDS = "The given coordinates are not within the treasure map !";
+    private static final String COORDINATE_OUT_OF_BOUNDS = Terrain.COORDINATE_OUT_OF_BOUNDS;
     private static final String MOUNTAIN_COORDINATE_ALREADY_TAKEN = "The given coordinates are already taken by a mountain !";
     private static final String TREASURE_COORDINATE_ALREADY_TAKEN = "The given coordinates are already taken by a treasure !";
 
     final int width;
     final int height;
-    @Builder.Default
-    Set<Coordinate> mountains = new HashSet<>();
-    @Builder.Default
-    Map<Coordinate, Short> treasures = new HashMap<>();
-    @Builder.Default
-    Set<Adventurer> players = new HashSet<>();
+    final Terrain terrain;
+    final List<Adventurer> players;
+    @Getter(AccessLevel.NONE)
+    volatile SpatialIndex index;
+    @Getter(AccessLevel.NONE)
+    volatile MapChanges changes;
+
+    @Builder
+    private TreasureMap(int width, int height, Set<Coordinate> mountains, Map<Coordinate, Short> treasures,
+                        Collection<Adventurer> players, StorageLayout layout, Terrain terrain, long expectedContent) {
+        this.width = width;
+        this.height = height;
+        this.players = players == null ? new ArrayList<>() : new ArrayList<>(players);
+        // Content added later, such as the lines a reader has not parsed yet, counts towards the layout too.
+        long contentCount = Math.max(expectedContent,
+                (mountains == null ? 0 : mountains.size()) + (treasures == null ? 0 : treasures.size()));
+        this.terrain = terrain != null ? terrain : switch ((layout == null ? StorageLayout.AUTO : layout).resolve(width, height, contentCount)) {
+            case GRID -> new GridTerrain(width, height, mountains, treasures);
+            case CHUNKED -> new ChunkedTerrain(width, height, mountains, treasures);
+            case SPARSE, AUTO -> new SparseTerrain(
+                    mountains == null ? new HashSet<>() : mountains,
+                    treasures == null ? new HashMap<>() : treasures);
+        };
+    }
+
+    public Set<Coordinate> mountains() {
+        return terrain.mountains();
+    }
+
+    public Map<Coordinate, Short> treasures() {
+        return terrain.treasures();
+    }
 
     public void addMountain(Coordinate coordinate) {
-        if (coordinate.x() > width || coordinate.y() > height)
+        if (!contains(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
-        else if (mountains.contains(coordinate))
+        else if (terrain.isMountain(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(MOUNTAIN_COORDINATE_ALREADY_TAKEN);
-        else if (treasures.containsKey(coordinate))
+        else if (terrain.treasureCount(coordinate.x(), coordinate.y()) != 0)
             throw new IllegalArgumentException(TREASURE_COORDINATE_ALREADY_TAKEN);
-        mountains.add(coordinate);
+        terrain.addMountain(coordinate.x(), coordinate.y());
+        SpatialIndex spatialIndex = index;
+        if (spatialIndex != null)
+            spatialIndex.mountainAdded(coordinate.x(), coordinate.y());
     }
 
     public void addAdventurer(Adventurer player) {
-        if (player.position().x() > width || player.position().y() > height)
+        if (!contains(player.x(), player.y()))
             throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
-        else if (mountains.contains(player.position()))
+        else if (terrain.isMountain(player.x(), player.y()))
             throw new IllegalArgumentException(MOUNTAIN_COORDINATE_ALREADY_TAKEN);
         players.add(player);
     }
 
     public void addTreasure(Coordinate coordinate, short count) {
-        if (coordinate.x() > width || coordinate.y() > height)
+        if (!contains(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
-        else if (mountains.contains(coordinate))
+        else if (terrain.isMountain(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(MOUNTAIN_COORDINATE_ALREADY_TAKEN);
-        treasures.put(coordinate, count);
+        terrain.treasureCount(coordinate.x(), coordinate.y(), count);
+        SpatialIndex spatialIndex = index;
+        if (spatialIndex != null)
+            spatialIndex.treasureChanged(coordinate.x(), coordinate.y(), count);
+        MapChanges mapChanges = changes;
+        if (mapChanges != null)
+            mapChanges.treasureChanged(coordinate.x(), coordinate.y());
+    }
+
+    /**
+     * Checks a whole batch of elements against the map and against each other, then adds them all;
+     * nothing is added if any of them is invalid.
+     *
+     * @throws MapValidationException listing every invalid element
+     */
+    public void addAll(Collection<Coordinate> mountains, Map<Coordinate, Short> treasures, Collection<Adventurer> players) {
+        List<Violation> violations = validate(mountains, treasures, players);
+        if (!violations.isEmpty())
+            throw new MapValidationException(violations);
+        SpatialIndex spatialIndex = index;
+        MapChanges mapChanges = changes;
+        mountains.forEach(coordinate -> {
+            terrain.addMountain(coordinate.x(), coordinate.y());
+            if (spatialIndex != null)
+                spatialIndex.mountainAdded(coordinate.x(), coordinate.y());
+        });
+        treasures.forEach((coordinate, count) -> {
+            terrain.treasureCount(coordinate.x(), coordinate.y(), count);
+            if (spatialIndex != null)
+                spatialIndex.treasureChanged(coordinate.x(), coordinate.y(), count);
+            if (mapChanges != null)
+                mapChanges.treasureChanged(coordinate.x(), coordinate.y());
+        });
+        this.players.addAll(players);
+    }
+
+    /**
+     * Every bounds, overlap and duplicate adventurer violation of the batch, in a single pass over its elements.
+     * Mountains are checked first, then treasures, then adventurers, so each conflict is reported once.
+     */
+    public List<Violation> validate(Collection<Coordinate> mountains, Map<Coordinate, Short> treasures,
+                                    Collection<Adventurer> players) {
+        List<Violation> violations = new ArrayList<>();
+        var newMountains = new CellSet(width, height, mountains.size());
+        int index = 0;
+        for (Coordinate mountain : mountains) {
+            int x = mountain.x(), y = mountain.y();
+            if (!contains(x, y))
+                violations.add(new Violation(Violation.Type.OUT_OF_BOUNDS, 'M', x, y, null, index));
+            else if (terrain.isMountain(x, y) || !newMountains.add(x, y))
+                violations.add(new Violation(Violation.Type.MOUNTAIN_TAKEN, 'M', x, y, null, index));
+            else if (terrain.treasureCount(x, y) != 0)
+                violations.add(new Violation(Violation.Type.TREASURE_TAKEN, 'M', x, y, null, index));
+            index++;
+        }
+        index = 0;
+        for (Coordinate treasure : treasures.keySet()) {
+            int x = treasure.x(), y = treasure.y();
+            if (!contains(x, y))
+                violations.add(new Violation(Violation.Type.OUT_OF_BOUNDS, 'T', x, y, null, index));
+            else if (terrain.isMountain(x, y) || newMountains.contains(x, y))
+                violations.add(new Violation(Violation.Type.MOUNTAIN_TAKEN, 'T', x, y, null, index));
+            index++;
+        }
+        var positions = new CellSet(width, height, this.players.size() + players.size());
+        Set<String> names = new HashSet<>();
+        for (Adventurer player : this.players) {
+            if (contains(player.x(), player.y()))
+                positions.add(player.x(), player.y());
+            names.add(player.name());
+        }
+        index = 0;
+        for (Adventurer player : players) {
+            int x = player.x(), y = player.y();
+            if (!contains(x, y))
+                violations.add(new Violation(Violation.Type.OUT_OF_BOUNDS, 'A', x, y, player.name(), index));
+            else if (terrain.isMountain(x, y) || newMountains.contains(x, y))
+                violations.add(new Violation(Violation.Type.MOUNTAIN_TAKEN, 'A', x, y, player.name(), index));
+            else if (!positions.add(x, y))
+                violations.add(new Violation(Violation.Type.ADVENTURER_TAKEN, 'A', x, y, player.name(), index));
+            if (!names.add(player.name()))
+                violations.add(new Violation(Violation.Type.DUPLICATE_ADVENTURER, 'A', x, y, player.name(), index));
+            index++;
+        }
+        return violations;
     }
 
     public boolean isMountain(Coordinate coordinate) {
-        if (coordinate.x() > width || coordinate.y() > height)
+        if (!contains(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
-        return mountains.contains(coordinate);
+        return terrain.isMountain(coordinate.x(), coordinate.y());
     }
 
     public short treasureCount(Coordinate coordinate) {
-        if (coordinate.x() > width || coordinate.y() > height)
+        if (!contains(coordinate.x(), coordinate.y()))
             throw new IllegalArgumentException(COORDINATE_OUT_OF_BOUNDS);
-        return treasures.getOrDefault(coordinate, (short) 0);
+        return terrain.treasureCount(coordinate.x(), coordinate.y());
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public boolean isMountain(int x, int y) {
+        return terrain.isMountain(x, y);
+    }
+
+    public short treasureCount(int x, int y) {
+        return terrain.treasureCount(x, y);
+    }
+
+    public int clearance(int x, int y, Direction direction, int limit) {
+        int edge = switch (direction) {
+            case NORTH -> y;
+            case SOUTH -> height - 1 - y;
+            case EAST -> width - 1 - x;
+            case WEST -> x;
+        };
+        return terrain.clearance(x, y, direction, Math.min(limit, edge));
+    }
+
+    public int treasureDistance(int x, int y, Direction direction, int limit) {
+        return terrain.treasureDistance(x, y, direction, limit);
+    }
+
+    public boolean takeTreasure(int x, int y) {
+        short treasure = terrain.treasureCount(x, y);
+        if (treasure <= 0)
+            return false;
+        terrain.treasureCount(x, y, (short) (treasure - 1));
+        if (treasure == 1) {
+            SpatialIndex spatialIndex = index;
+            if (spatialIndex != null)
+                spatialIndex.treasureChanged(x, y, (short) 0);
+        }
+        MapChanges mapChanges = changes;
+        if (mapChanges != null)
+            mapChanges.treasureChanged(x, y);
+        return true;
+    }
+
+    /**
+     * Starts recording the treasure cells and adventurers that change from now on, replacing any previous tracking.
+     * Changes made on {@link #terrain()} directly are not seen.
+     */
+    public MapChanges trackChanges() {
+        return changes = new MapChanges(this);
+    }
+
+    /**
+     * Built on first use from the terrain, then kept up to date by this map's additions and collected treasures.
+     * Changes made on {@link #terrain()} directly are not seen.
+     */
+    public SpatialIndex spatialIndex() {
+        SpatialIndex spatialIndex = index;
+        if (spatialIndex == null)
+            synchronized (this) {
+                if ((spatialIndex = index) == null)
+                    index = spatialIndex = new SpatialIndex(this);
+            }
+        return spatialIndex;
     }
 
     public String toString() {
@@ -73,21 +250,18 @@ public class TreasureMap {
                 C - %d - %d
                 """.formatted(width, height));
 
-        mountains.forEach(mountain -> stringBuilder.append("""
+        terrain.forEachMountain((x, y) -> stringBuilder.append("""
                 M - %d - %d
-                """.formatted(mountain.x(), mountain.y())));
+                """.formatted(x, y)));
 
-        treasures.forEach((coordinate, count) -> {
-            if (count != 0)
-                stringBuilder.append("""
-                        T - %d - %d - %d
-                        """.formatted(coordinate.x(), coordinate.y(), count));
-        });
+        terrain.forEachTreasure((x, y, count) -> stringBuilder.append("""
+                T - %d - %d - %d
+                """.formatted(x, y, count)));
 
         players.forEach(player -> stringBuilder.append("""
                 A - %s - %d - %d - %s - %d
                 """.formatted(
-                player.name(), player.position().x(), player.position().y(), player.orientation().value(), player.treasureCount())));
+                player.name(), player.x(), player.y(), player.orientation().value(), player.treasureCount())));
 
         return stringBuilder.toString().trim();
     }
@@ -0,0 +1,49 @@
+package com.oozeander.model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * {@link GridMoveKernel} whose {@link #probe} checks the map edges and computes the target cells a vector of
+ * targets at a time with the Vector API; the bit lookups stay scalar. Only built by {@link MoveKernel#of} when the
+ * JVM runs with {@code --add-modules jdk.incubator.vector}.
+ * <p>
+ * Unlike {@link #moveOnce}, {@link #probe} uses a scratch array and must not be called from several threads.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class VectorGridMoveKernel extends GridMoveKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int OUTSIDE = -1;
+
+    // Target cells, OUTSIDE for the ones off the map.
+    int[] cells = new int[0];
+
+    VectorGridMoveKernel(TreasureMap treasureMap, GridTerrain terrain) {
+        super(treasureMap, terrain);
+    }
+
+    @Override
+    public void probe(int[] xs, int[] ys, int count, byte[] results) {
+        if (cells.length < count)
+            cells = new int[count];
+        int i = 0;
+        for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            IntVector x = IntVector.fromArray(SPECIES, xs, i), y = IntVector.fromArray(SPECIES, ys, i);
+            // Unsigned comparisons catch negative coordinates as well.
+            VectorMask<Integer> outside = x.compare(VectorOperators.UNSIGNED_GE, width)
+                    .or(y.compare(VectorOperators.UNSIGNED_GE, height));
+            y.mul(width).add(x).blend(OUTSIDE, outside).intoArray(cells, i);
+        }
+        for (; i < count; i++) {
+            int x = xs[i], y = ys[i];
+            cells[i] = x < 0 || x >= width || y < 0 || y >= height ? OUTSIDE : y * width + x;
+        }
+        for (i = 0; i < count; i++)
+            results[i] = cells[i] == OUTSIDE ? BLOCKED_BY_BOUNDARY : probe(cells[i]);
+    }
+}
@@ -0,0 +1,32 @@
+package com.oozeander.model;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What lies inside a rectangle of a map, in row-major order.
+ */
+@Value
+@Accessors(fluent = true)
+public class Viewport {
+
+    List<Coordinate> mountains;
+    Map<Coordinate, Short> treasures;
+    List<Adventurer> adventurers;
+
+    /**
+     * The M, T and A lines of the rectangle, as in the output format.
+     */
+    @Override
+    public String toString() {
+        var stringBuilder = new StringBuilder();
+        mountains.forEach(mountain -> stringBuilder.append("M - %d - %d\n".formatted(mountain.x(), mountain.y())));
+        treasures.forEach((coordinate, count) -> stringBuilder.append("T - %d - %d - %d\n".formatted(coordinate.x(), coordinate.y(), count)));
+        adventurers.forEach(player -> stringBuilder.append("A - %s - %d - %d - %s - %d\n".formatted(
+                player.name(), player.x(), player.y(), player.orientation().value(), player.treasureCount())));
+        return stringBuilder.toString().trim();
+    }
+}
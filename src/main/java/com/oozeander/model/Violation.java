@@ -0,0 +1,44 @@
+package com.oozeander.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * One element of a bulk addition that breaks a map constraint.
+ */
+@Value
+@Accessors(fluent = true)
+public class Violation {
+
+    Type type;
+    // M, T or A, as in the input format.
+    char element;
+    int x;
+    int y;
+    // Only set for adventurers.
+    String name;
+    // Position of the element in its collection of the batch, in iteration order.
+    int index;
+
+    @Override
+    public String toString() {
+        return name == null
+                ? "%c - %d - %d: %s".formatted(element, x, y, type.message())
+                : "%c - %s - %d - %d: %s".formatted(element, name, x, y, type.message());
+    }
+
+    @Getter
+    @Accessors(fluent = true)
+    @RequiredArgsConstructor
+    public enum Type {
+        OUT_OF_BOUNDS(Terrain.COORDINATE_OUT_OF_BOUNDS),
+        MOUNTAIN_TAKEN("The given coordinates are already taken by a mountain !"),
+        TREASURE_TAKEN("The given coordinates are already taken by a treasure !"),
+        ADVENTURER_TAKEN("The given coordinates are already taken by an adventurer !"),
+        DUPLICATE_ADVENTURER("An adventurer with this name already exists !");
+
+        private final String message;
+    }
+}
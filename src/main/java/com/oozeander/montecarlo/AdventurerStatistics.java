@@ -0,0 +1,51 @@
+package com.oozeander.montecarlo;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Distribution of the treasures collected by one adventurer over all variants:
+ * {@code histogram[k]} is the number of variants in which it ended with {@code k} treasures.
+ */
+@Value
+@Accessors(fluent = true)
+public class AdventurerStatistics {
+
+    String name;
+    long[] histogram;
+
+    public long variants() {
+        long variants = 0;
+        for (long count : histogram)
+            variants += count;
+        return variants;
+    }
+
+    public int min() {
+        for (int k = 0; k < histogram.length; k++)
+            if (histogram[k] != 0)
+                return k;
+        return 0;
+    }
+
+    public int max() {
+        for (int k = histogram.length - 1; k >= 0; k--)
+            if (histogram[k] != 0)
+                return k;
+        return 0;
+    }
+
+    public double mean() {
+        long variants = 0, treasures = 0;
+        for (int k = 0; k < histogram.length; k++) {
+            variants += histogram[k];
+            treasures += k * histogram[k];
+        }
+        return variants == 0 ? 0 : (double) treasures / variants;
+    }
+
+    @Override
+    public String toString() {
+        return "%s: mean %.3f, min %d, max %d".formatted(name, mean(), min(), max());
+    }
+}
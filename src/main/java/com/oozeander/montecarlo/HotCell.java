@@ -0,0 +1,16 @@
+package com.oozeander.montecarlo;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * A cell that adventurers were blocked from entering because another adventurer stood on it.
+ */
+@Value
+@Accessors(fluent = true)
+public class HotCell {
+
+    int x;
+    int y;
+    long blockedMoves;
+}
@@ -0,0 +1,118 @@
+package com.oozeander.montecarlo;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many seeded variants of one map in parallel and aggregates their outcome.
+ * <p>
+ * Every variant is a {@link CopyOnWriteTerrain} over the same {@link CopyOnWriteTerrain.Base}: mountains are shared,
+ * only the treasure pages a variant touches are copied. The random source of a variant depends on the seed and its
+ * index only, so a run is reproducible whatever the number of threads. Each worker thread folds its variants into
+ * its own {@link Statistics}, merged once the variants are done.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class MonteCarlo {
+
+    public static final int DEFAULT_HOT_CELLS = 10;
+    // Variants run by one task before it stops splitting.
+    static final int VARIANTS_PER_TASK = 8;
+
+    private static final String INVALID_VARIANTS = "The number of variants must be positive: %d";
+
+    CopyOnWriteTerrain.Base base;
+    List<Adventurer> templates;
+    int variants;
+    long seed;
+    VariantFactory factory;
+    int hotCells;
+    ForkJoinPool pool;
+
+    @Builder
+    private MonteCarlo(TreasureMap map, int variants, long seed, VariantFactory factory, Integer hotCells, ForkJoinPool pool) {
+        if (variants <= 0)
+            throw new IllegalArgumentException(INVALID_VARIANTS.formatted(variants));
+        this.base = CopyOnWriteTerrain.Base.copyOf(map);
+        this.templates = List.copyOf(map.players());
+        this.variants = variants;
+        this.seed = seed;
+        this.factory = factory != null ? factory : VariantFactory.randomized(
+                templates.stream().mapToLong(player -> player.moves().length()).max().orElse(0));
+        this.hotCells = hotCells == null ? DEFAULT_HOT_CELLS : hotCells;
+        this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    public MonteCarloReport run() {
+        long start = System.nanoTime();
+        Map<Thread, Statistics> accumulators = new ConcurrentHashMap<>();
+        pool.invoke(new Variants(0, variants, accumulators));
+        Statistics statistics = accumulators.values().stream()
+                .reduce(new Statistics(base.width(), base.height(), templates.size()), Statistics::merge);
+        return statistics.report(templates, hotCells, System.nanoTime() - start);
+    }
+
+    private void play(int variant, Statistics statistics) {
+        TreasureMap map = base.newMap();
+        factory.adventurers(map, templates, new SplittableRandom(variantSeed(seed, variant))).forEach(map::addAdventurer);
+        Simulation simulation = new Simulation(map);
+        // A lone adventurer cannot be blocked by another one, and keeps the compiled path without a listener.
+        if (map.players().size() > 1)
+            simulation.listener((tick, adventurer, result, x, y, orientation, treasureCount) -> {
+                if (result == MoveResult.BLOCKED_BY_ADVENTURER)
+                    statistics.blocked(x + orientation.dx(), y + orientation.dy());
+            });
+        simulation.run();
+        statistics.record(map.players(), simulation.tick());
+    }
+
+    // SplitMix64 finalizer, so that neighbouring indexes get unrelated seeds.
+    static long variantSeed(long seed, int variant) {
+        long z = seed + (variant + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class Variants extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final Map<Thread, Statistics> accumulators;
+
+        private Variants(int from, int to, Map<Thread, Statistics> accumulators) {
+            this.from = from;
+            this.to = to;
+            this.accumulators = accumulators;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= VARIANTS_PER_TASK) {
+                // A leaf never joins, so no other task of this thread touches its accumulator meanwhile.
+                var statistics = accumulators.computeIfAbsent(Thread.currentThread(),
+                        thread -> new Statistics(base.width(), base.height(), templates.size()));
+                for (int variant = from; variant < to; variant++)
+                    play(variant, statistics);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            var right = new Variants(middle, to, accumulators);
+            right.fork();
+            new Variants(from, middle, accumulators).compute();
+            right.join();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.oozeander.montecarlo;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+@Value
+@Accessors(fluent = true)
+public class MonteCarloReport {
+
+    long variants;
+    long ticks;
+    List<AdventurerStatistics> adventurers;
+    List<HotCell> hotCells;
+    long nanos;
+
+    public double variantsPerSecond() {
+        return nanos == 0 ? 0 : variants * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("%d variants (%d rounds) in %.3f s: %.1f variants/s".formatted(
+                variants, ticks, nanos / 1e9, variantsPerSecond()));
+        adventurers.forEach(adventurer -> builder.append(System.lineSeparator()).append(adventurer));
+        hotCells.forEach(cell -> builder.append(System.lineSeparator())
+                .append("hot cell %d - %d: %d blocked moves".formatted(cell.x(), cell.y(), cell.blockedMoves())));
+        return builder.toString();
+    }
+}
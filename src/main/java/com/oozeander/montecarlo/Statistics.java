@@ -0,0 +1,119 @@
+package com.oozeander.montecarlo;
+
+import com.oozeander.model.Adventurer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals of a range of variants; variants are folded in as they finish and never kept.
+ * Only sums are kept, so merging in any order gives the same report.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class Statistics {
+
+    // Up to this many cells (8 MB per worker thread), contention is counted in an array indexed by cell.
+    // The array is only allocated once the first blocked move is counted.
+    static final int DENSE_CELL_LIMIT = 1 << 20;
+
+    private static final String ADVENTURER_COUNT_MISMATCH = "A variant has %d adventurers, the base map has %d";
+
+    final int width;
+    final int height;
+    final long[][] histograms;
+    long[] denseContention;
+    Map<Long, Long> sparseContention;
+    long variants;
+    long ticks;
+
+    Statistics(int width, int height, int adventurers) {
+        this.width = width;
+        this.height = height;
+        this.histograms = new long[adventurers][1];
+    }
+
+    void blocked(int x, int y) {
+        if ((long) width * height <= DENSE_CELL_LIMIT) {
+            if (denseContention == null)
+                denseContention = new long[width * height];
+            denseContention[y * width + x]++;
+        } else {
+            if (sparseContention == null)
+                sparseContention = new HashMap<>();
+            sparseContention.merge((long) y << 32 | x, 1L, Long::sum);
+        }
+    }
+
+    void record(List<Adventurer> players, long variantTicks) {
+        if (players.size() != histograms.length)
+            throw new IllegalArgumentException(ADVENTURER_COUNT_MISMATCH.formatted(players.size(), histograms.length));
+        for (int i = 0; i < histograms.length; i++) {
+            int treasures = players.get(i).treasureCount();
+            if (treasures >= histograms[i].length)
+                histograms[i] = Arrays.copyOf(histograms[i], Math.max(treasures + 1, histograms[i].length * 2));
+            histograms[i][treasures]++;
+        }
+        variants++;
+        ticks += variantTicks;
+    }
+
+    Statistics merge(Statistics other) {
+        for (int i = 0; i < histograms.length; i++) {
+            if (other.histograms[i].length > histograms[i].length)
+                histograms[i] = Arrays.copyOf(histograms[i], other.histograms[i].length);
+            for (int k = 0; k < other.histograms[i].length; k++)
+                histograms[i][k] += other.histograms[i][k];
+        }
+        if (other.denseContention != null) {
+            if (denseContention == null)
+                denseContention = other.denseContention;
+            else
+                for (int cell = 0; cell < denseContention.length; cell++)
+                    denseContention[cell] += other.denseContention[cell];
+        }
+        if (other.sparseContention != null) {
+            if (sparseContention == null)
+                sparseContention = other.sparseContention;
+            else
+                other.sparseContention.forEach((cell, count) -> sparseContention.merge(cell, count, Long::sum));
+        }
+        variants += other.variants;
+        ticks += other.ticks;
+        return this;
+    }
+
+    MonteCarloReport report(List<Adventurer> templates, int hotCellLimit, long nanos) {
+        List<AdventurerStatistics> adventurers = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            // Histograms grow by doubling, so their length depends on how variants were spread over the workers.
+            int length = histograms[i].length;
+            while (length > 1 && histograms[i][length - 1] == 0)
+                length--;
+            adventurers.add(new AdventurerStatistics(templates.get(i).name(), Arrays.copyOf(histograms[i], length)));
+        }
+        return new MonteCarloReport(variants, ticks, List.copyOf(adventurers), hotCells(hotCellLimit), nanos);
+    }
+
+    /**
+     * The {@code limit} most contended cells, ties broken in row-major order.
+     */
+    List<HotCell> hotCells(int limit) {
+        List<HotCell> cells = new ArrayList<>();
+        if (denseContention != null)
+            for (int cell = 0; cell < denseContention.length; cell++)
+                if (denseContention[cell] != 0)
+                    cells.add(new HotCell(cell % width, cell / width, denseContention[cell]));
+        if (sparseContention != null)
+            sparseContention.forEach((cell, count) -> cells.add(new HotCell((int) (long) cell, (int) (cell >>> 32), count)));
+        cells.sort(Comparator.comparingLong(HotCell::blockedMoves).reversed()
+                .thenComparingInt(HotCell::y)
+                .thenComparingInt(HotCell::x));
+        return List.copyOf(cells.subList(0, Math.min(limit, cells.size())));
+    }
+}
@@ -0,0 +1,55 @@
+package com.oozeander.montecarlo;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.TreasureMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the adventurers of one variant from those of the base map.
+ */
+@FunctionalInterface
+public interface VariantFactory {
+
+    String NOT_ENOUGH_FREE_CELLS = "The map has fewer free cells than adventurers";
+
+    /**
+     * {@code random} only depends on the engine seed and the variant index, so the same variant is always built
+     * the same way whatever the thread that runs it.
+     */
+    List<Adventurer> adventurers(TreasureMap map, List<Adventurer> templates, SplittableRandom random);
+
+    /**
+     * Keeps the names of the base adventurers and draws a free start cell, an orientation and a generated
+     * sequence of {@code sequenceLength} moves for each one.
+     */
+    static VariantFactory randomized(long sequenceLength) {
+        return (map, templates, random) -> {
+            long freeCells = (long) map.width() * map.height() - map.terrain().mountainCount();
+            if (templates.size() > freeCells)
+                throw new IllegalArgumentException(NOT_ENOUGH_FREE_CELLS);
+            Set<Coordinate> taken = new HashSet<>();
+            List<Adventurer> adventurers = new ArrayList<>(templates.size());
+            for (Adventurer template : templates) {
+                Coordinate start;
+                do {
+                    start = Coordinate.of(random.nextInt(map.width()), random.nextInt(map.height()));
+                } while (map.isMountain(start.x(), start.y()) || !taken.add(start));
+                adventurers.add(Adventurer.builder()
+                        .name(template.name())
+                        .moves(MovementSequence.random(sequenceLength, random.nextLong()))
+                        .position(start)
+                        .orientation(Direction.values()[random.nextInt(4)])
+                        .build());
+            }
+            return adventurers;
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.oozeander.optimizer;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.pathfinding.PathFinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fewest moves from every state a route can be in to a step onto every treasure cell.
+ * <p>
+ * A route is either at an adventurer's start, or on a treasure cell facing the direction it stepped onto it in:
+ * rows {@code 4 * cell + direction} come first, then one row per adventurer.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class DistanceMatrix {
+
+    // Chunks of rows per pool thread: enough to balance the load, few enough to allocate few finders.
+    static final int CHUNKS_PER_THREAD = 2;
+
+    final int width;
+    // Row-major indexes of the treasure cells, sorted.
+    final int[] cells;
+    final int[] distances;
+    final byte[] directions;
+
+    private DistanceMatrix(int width, int[] cells, int rows) {
+        this.width = width;
+        this.cells = cells;
+        this.distances = new int[rows * cells.length];
+        this.directions = new byte[rows * cells.length];
+    }
+
+    static DistanceMatrix compute(TreasureMap map, int[] cells, ForkJoinPool pool) {
+        List<Adventurer> players = map.players();
+        int rows = cells.length * 4 + players.size();
+        var matrix = new DistanceMatrix(map.width(), cells, rows);
+        Direction[] orientations = Direction.values();
+        int chunks = Math.min(rows, pool.getParallelism() * CHUNKS_PER_THREAD);
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            // One finder per chunk, dropped with it: its buffers are sized to the whole grid.
+            var finder = new PathFinder(map);
+            for (int row = (int) ((long) rows * chunk / chunks); row < (long) rows * (chunk + 1) / chunks; row++) {
+                int x, y;
+                Direction orientation;
+                if (row < cells.length * 4) {
+                    x = cells[row >>> 2] % matrix.width;
+                    y = cells[row >>> 2] / matrix.width;
+                    orientation = orientations[row & 3];
+                } else {
+                    Adventurer player = players.get(row - cells.length * 4);
+                    x = player.x();
+                    y = player.y();
+                    orientation = player.orientation();
+                }
+                finder.distances(x, y, orientation, cells, matrix.distances, matrix.directions, row * cells.length);
+            }
+        })).join();
+        return matrix;
+    }
+
+    int cellCount() {
+        return cells.length;
+    }
+
+    int startRow(int adventurer) {
+        return cells.length * 4 + adventurer;
+    }
+
+    int distance(int row, int cell) {
+        return distances[row * cells.length + cell];
+    }
+
+    /**
+     * Row of the state a route is in after stepping onto the cell from the given row.
+     */
+    int next(int row, int cell) {
+        return cell * 4 + directions[row * cells.length + cell];
+    }
+
+    int x(int cell) {
+        return cells[cell] % width;
+    }
+
+    int y(int cell) {
+        return cells[cell] / width;
+    }
+}
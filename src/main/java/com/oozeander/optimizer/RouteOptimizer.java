@@ -0,0 +1,314 @@
+package com.oozeander.optimizer;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.pathfinding.PathFinder;
+import com.oozeander.simulation.BatchSimulation;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Plans movement sequences that collect as many treasures as possible within a move budget per adventurer,
+ * then use as few moves as possible.
+ * <p>
+ * A plan is a single tour of treasure units (one per treasure to collect) where separators split the adventurers'
+ * routes. A route steps onto its treasures in order and skips those it cannot reach within the budget. Plans are
+ * scored against a {@link DistanceMatrix} without simulating nor allocating: a greedy nearest-treasure assignment
+ * gives the first plan, then independent local searches, one per restart, swap, relocate and reverse parts of it.
+ * Each restart draws from its own split of the seed, so the result does not depend on the number of threads.
+ * <p>
+ * The matrix ignores adventurers standing in each other's way and treasures on the cells a path crosses, so the
+ * final candidates, the greedy plan and the result of each restart, are played by a {@link BatchSimulation} on a
+ * copy of the map: the simulated totals pick the plan and are the ones it reports.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class RouteOptimizer {
+
+    public static final int DEFAULT_ITERATIONS = 20_000;
+    public static final int DEFAULT_RESTARTS = 8;
+    static final int MAX_TREASURE_CELLS = 2048;
+    // Leaving a cell and stepping back onto it takes at least four moves.
+    static final int REENTRY_MOVES = 4;
+    static final int SEPARATOR = -1;
+
+    private static final String INVALID_BUDGET = "The move budget must be positive: %d";
+    private static final String INVALID_RESTARTS = "The number of restarts must be positive: %d";
+    private static final String TOO_MANY_TREASURES = "Too many treasure cells to optimize: %d, at most %d";
+    private static final String NO_ADVENTURER = "The map has no adventurer to plan for";
+
+    TreasureMap map;
+    int moveBudget;
+    int iterations;
+    int restarts;
+    long seed;
+    ForkJoinPool pool;
+
+    @Builder
+    private RouteOptimizer(TreasureMap map, int moveBudget, Integer iterations, Integer restarts, long seed, ForkJoinPool pool) {
+        if (moveBudget <= 0)
+            throw new IllegalArgumentException(INVALID_BUDGET.formatted(moveBudget));
+        if (restarts != null && restarts <= 0)
+            throw new IllegalArgumentException(INVALID_RESTARTS.formatted(restarts));
+        if (map.players().isEmpty())
+            throw new IllegalArgumentException(NO_ADVENTURER);
+        this.map = map;
+        this.moveBudget = moveBudget;
+        this.iterations = iterations == null ? DEFAULT_ITERATIONS : iterations;
+        this.restarts = restarts == null ? DEFAULT_RESTARTS : restarts;
+        this.seed = seed;
+        this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    public RoutePlan optimize() {
+        long start = System.nanoTime();
+        int[] cells = new int[map.terrain().treasureCellCount()];
+        int[] counts = new int[cells.length];
+        if (cells.length > MAX_TREASURE_CELLS)
+            throw new IllegalArgumentException(TOO_MANY_TREASURES.formatted(cells.length, MAX_TREASURE_CELLS));
+        int[] found = {0};
+        map.terrain().forEachTreasure((x, y, count) -> {
+            cells[found[0]] = y * map.width() + x;
+            counts[found[0]++] = count;
+        });
+        DistanceMatrix matrix = DistanceMatrix.compute(map, cells, pool);
+        int[] unitCells = units(counts);
+        int[] initial = greedy(matrix, unitCells);
+
+        var root = new SplittableRandom(seed);
+        List<ForkJoinTask<int[]>> searches = new ArrayList<>();
+        for (int restart = 0; restart < restarts; restart++) {
+            SplittableRandom random = root.split();
+            searches.add(pool.submit(() -> search(matrix, unitCells, initial.clone(), random)));
+        }
+        List<int[]> candidates = new ArrayList<>(List.of(initial));
+        for (ForkJoinTask<int[]> search : searches) {
+            int[] tour = search.join();
+            if (candidates.stream().noneMatch(candidate -> Arrays.equals(candidate, tour)))
+                candidates.add(tour);
+        }
+        CopyOnWriteTerrain.Base base = CopyOnWriteTerrain.Base.bytes(map.width(), map.height()) != Long.MAX_VALUE
+                ? CopyOnWriteTerrain.Base.copyOf(map) : null;
+        List<String> best = null;
+        long bestTreasures = -1, bestMoves = 0;
+        for (int[] tour : candidates) {
+            List<String> sequences = sequences(matrix, unitCells, tour);
+            long treasures = simulate(base, sequences);
+            long moves = sequences.stream().mapToLong(String::length).sum();
+            if (treasures > bestTreasures || treasures == bestTreasures && moves < bestMoves) {
+                best = sequences;
+                bestTreasures = treasures;
+                bestMoves = moves;
+            }
+        }
+        return new RoutePlan(best, bestTreasures, bestMoves, System.nanoTime() - start);
+    }
+
+    /**
+     * One unit per treasure an adventurer could collect: a cell is worth at most as many units as it has treasures,
+     * and as all the adventurers could step onto it within the budget.
+     */
+    private int[] units(int[] counts) {
+        long reentries = (long) map.players().size() * (moveBudget / REENTRY_MOVES + 1);
+        int total = 0;
+        for (int cell = 0; cell < counts.length; cell++)
+            total = Math.toIntExact(total + Math.min(counts[cell], reentries));
+        int[] unitCells = new int[total];
+        for (int cell = 0, unit = 0; cell < counts.length; cell++)
+            for (long i = Math.min(counts[cell], reentries); i > 0; i--)
+                unitCells[unit++] = cell;
+        return unitCells;
+    }
+
+    /**
+     * The adventurer that used the fewest moves so far steps onto the closest cell with a unit left, until none
+     * is within its budget. Units nobody reached go at the end of the tour.
+     */
+    private int[] greedy(DistanceMatrix matrix, int[] unitCells) {
+        int adventurers = map.players().size(), cellCount = matrix.cellCount();
+        int[] firstUnit = new int[cellCount + 1];
+        for (int unitCell : unitCells)
+            firstUnit[unitCell + 1]++;
+        for (int cell = 0; cell < cellCount; cell++)
+            firstUnit[cell + 1] += firstUnit[cell];
+        int[] taken = new int[cellCount];
+        int[] rows = new int[adventurers], used = new int[adventurers];
+        boolean[] done = new boolean[adventurers];
+        int[] routeOf = new int[unitCells.length];
+        Arrays.fill(routeOf, -1);
+        int[] order = new int[unitCells.length];
+        for (int adventurer = 0; adventurer < adventurers; adventurer++)
+            rows[adventurer] = matrix.startRow(adventurer);
+        int assigned = 0;
+        while (true) {
+            int adventurer = -1;
+            for (int candidate = 0; candidate < adventurers; candidate++)
+                if (!done[candidate] && (adventurer < 0 || used[candidate] < used[adventurer]))
+                    adventurer = candidate;
+            if (adventurer < 0)
+                break;
+            int closest = -1, closestDistance = Integer.MAX_VALUE;
+            for (int cell = 0; cell < cellCount; cell++) {
+                int distance = matrix.distance(rows[adventurer], cell);
+                if (taken[cell] < firstUnit[cell + 1] - firstUnit[cell] && distance >= 0 && distance < closestDistance
+                        && used[adventurer] + distance <= moveBudget) {
+                    closest = cell;
+                    closestDistance = distance;
+                }
+            }
+            if (closest < 0) {
+                done[adventurer] = true;
+                continue;
+            }
+            int unit = firstUnit[closest] + taken[closest]++;
+            routeOf[unit] = adventurer;
+            order[assigned++] = unit;
+            used[adventurer] += closestDistance;
+            rows[adventurer] = matrix.next(rows[adventurer], closest);
+        }
+        int[] tour = new int[unitCells.length + adventurers - 1];
+        int position = 0;
+        for (int adventurer = 0; adventurer < adventurers; adventurer++) {
+            if (adventurer > 0)
+                tour[position++] = SEPARATOR;
+            for (int i = 0; i < assigned; i++)
+                if (routeOf[order[i]] == adventurer)
+                    tour[position++] = order[i];
+        }
+        for (int unit = 0; unit < unitCells.length; unit++)
+            if (routeOf[unit] < 0)
+                tour[position++] = unit;
+        return tour;
+    }
+
+    private int[] search(DistanceMatrix matrix, int[] unitCells, int[] tour, SplittableRandom random) {
+        long score = score(matrix, unitCells, tour, moveBudget);
+        if (tour.length < 2)
+            return tour;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            int i = random.nextInt(tour.length), j = random.nextInt(tour.length);
+            if (i == j)
+                continue;
+            int move = random.nextInt(3);
+            apply(tour, move, i, j);
+            long candidate = score(matrix, unitCells, tour, moveBudget);
+            // Equal scores are accepted too, to walk across plateaus.
+            if (candidate >= score)
+                score = candidate;
+            else
+                apply(tour, move == 1 ? 3 : move, i, j);
+        }
+        return tour;
+    }
+
+    /**
+     * 0 swaps, 1 moves i to j, 2 reverses between i and j, 3 moves j back to i; each is undone by itself or its pair.
+     */
+    private static void apply(int[] tour, int move, int i, int j) {
+        switch (move) {
+            case 0 -> {
+                int token = tour[i];
+                tour[i] = tour[j];
+                tour[j] = token;
+            }
+            case 1, 3 -> {
+                int from = move == 1 ? i : j, to = move == 1 ? j : i;
+                int token = tour[from];
+                if (from < to)
+                    System.arraycopy(tour, from + 1, tour, from, to - from);
+                else
+                    System.arraycopy(tour, to, tour, to + 1, from - to);
+                tour[to] = token;
+            }
+            default -> {
+                for (int low = Math.min(i, j), high = Math.max(i, j); low < high; low++, high--) {
+                    int token = tour[low];
+                    tour[low] = tour[high];
+                    tour[high] = token;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collected treasures in the high bits, then fewer moves ranks higher.
+     */
+    static long score(DistanceMatrix matrix, int[] unitCells, int[] tour, int moveBudget) {
+        int adventurer = 0, row = matrix.startRow(0), used = 0;
+        long collected = 0, moves = 0;
+        for (int token : tour) {
+            if (token == SEPARATOR) {
+                moves += used;
+                row = matrix.startRow(++adventurer);
+                used = 0;
+                continue;
+            }
+            int cell = unitCells[token];
+            int distance = matrix.distance(row, cell);
+            if (distance < 0 || used + distance > moveBudget)
+                continue;
+            used += distance;
+            collected++;
+            row = matrix.next(row, cell);
+        }
+        moves += used;
+        return (collected << 32) - Math.min(moves, 0xFFFFFFFFL);
+    }
+
+    private List<String> sequences(DistanceMatrix matrix, int[] unitCells, int[] tour) {
+        var finder = new PathFinder(map);
+        Direction[] directions = Direction.values();
+        List<String> sequences = new ArrayList<>();
+        int position = 0;
+        for (Adventurer player : map.players()) {
+            var sequence = new StringBuilder();
+            int row = matrix.startRow(sequences.size()), x = player.x(), y = player.y();
+            Direction orientation = player.orientation();
+            for (; position < tour.length && tour[position] != SEPARATOR; position++) {
+                int cell = unitCells[tour[position]];
+                int distance = matrix.distance(row, cell);
+                if (distance < 0 || sequence.length() + distance > moveBudget)
+                    continue;
+                row = matrix.next(row, cell);
+                Direction direction = directions[row & 3];
+                sequence.append(finder.enter(x, y, orientation, matrix.x(cell), matrix.y(cell), direction).orElseThrow());
+                x = matrix.x(cell);
+                y = matrix.y(cell);
+                orientation = direction;
+            }
+            position++;
+            sequences.add(sequence.toString());
+        }
+        return List.copyOf(sequences);
+    }
+
+    /**
+     * Treasures the adventurers actually collect with these sequences, played on a copy of the map: a copy-on-write
+     * overlay of the base when the map fits in one, a fresh terrain otherwise.
+     */
+    private long simulate(CopyOnWriteTerrain.Base base, List<String> sequences) {
+        TreasureMap copy = base != null ? base.newMap()
+                : TreasureMap.builder().width(map.width()).height(map.height()).layout(map.terrain().layout()).build();
+        if (base == null) {
+            map.terrain().forEachMountain((x, y) -> copy.addMountain(Coordinate.of(x, y)));
+            map.terrain().forEachTreasure((x, y, count) -> copy.addTreasure(Coordinate.of(x, y), count));
+        }
+        for (int i = 0; i < sequences.size(); i++) {
+            Adventurer player = map.players().get(i);
+            copy.addAdventurer(Adventurer.builder().name(player.name()).movementSequence(sequences.get(i))
+                    .position(player.position()).orientation(player.orientation()).build());
+        }
+        new BatchSimulation(copy).run();
+        return copy.players().stream().mapToLong(Adventurer::treasureCount).sum();
+    }
+}
@@ -0,0 +1,20 @@
+package com.oozeander.optimizer;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * Movement sequences for the adventurers of a map, in the order of {@code TreasureMap.players()}.
+ * The totals are those of a simulation of the sequences, where adventurers may block each other.
+ */
+@Value
+@Accessors(fluent = true)
+public class RoutePlan {
+
+    List<String> sequences;
+    long treasures;
+    long moves;
+    long nanos;
+}
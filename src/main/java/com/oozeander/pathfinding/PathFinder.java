@@ -0,0 +1,264 @@
+package com.oozeander.pathfinding;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.Terrain;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Shortest move sequences over the (x, y, orientation) states of a map, avoiding mountains.
+ * <p>
+ * Every move costs one, so the search is an A* over a bucket queue: with a consistent heuristic a successor
+ * lands at most four buckets above the current one, and eight rotating stacks are enough. Each bucket is a stack,
+ * which breaks ties towards the deepest state. With no target the heuristic is zero and the search is a BFS.
+ * <p>
+ * The closed set and the buckets are reused from one query to the next: an instance is not thread-safe.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class PathFinder {
+
+    private static final String MAP_TOO_LARGE = "The map is too large for path finding: %dx%d";
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int[] DX = Arrays.stream(DIRECTIONS).mapToInt(Direction::dx).toArray();
+    private static final int[] DY = Arrays.stream(DIRECTIONS).mapToInt(Direction::dy).toArray();
+    private static final int[] LEFT = Arrays.stream(DIRECTIONS).mapToInt(direction -> direction.left().ordinal()).toArray();
+    private static final int[] RIGHT = Arrays.stream(DIRECTIONS).mapToInt(direction -> direction.right().ordinal()).toArray();
+
+    // Move that reached a closed state, stored next to the query stamp.
+    private static final int START = 0, FORWARD = 1, LEFT_TURN = 2, RIGHT_TURN = 3;
+    private static final char[] MOVES = {0, 'A', 'G', 'D'};
+    private static final int BUCKETS = 8;
+    private static final int NO_TARGET = -1, ANY_DIRECTION = -1, UNREACHABLE = -1;
+
+    final TreasureMap treasureMap;
+    final int width;
+    final int height;
+    // (stamp << 2 | move) per state: states stamped by an older query are open.
+    final int[] closed;
+    final long[][] buckets = new long[BUCKETS][256];
+    final int[] bucketSizes = new int[BUCKETS];
+    int stamp;
+    int targetX = NO_TARGET;
+    int targetY;
+    int targetDirection = ANY_DIRECTION;
+    @Getter
+    int expanded;
+
+    public PathFinder(TreasureMap treasureMap) {
+        long states = (long) treasureMap.width() * treasureMap.height() * DIRECTIONS.length;
+        if (states > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(MAP_TOO_LARGE.formatted(treasureMap.width(), treasureMap.height()));
+        this.treasureMap = treasureMap;
+        this.width = treasureMap.width();
+        this.height = treasureMap.height();
+        this.closed = new int[(int) states];
+    }
+
+    /**
+     * Moves taking the adventurer to the target cell, in any orientation, or empty if the cell cannot be reached.
+     */
+    public Optional<String> to(Adventurer adventurer, Coordinate target) {
+        return to(adventurer.x(), adventurer.y(), adventurer.orientation(), target.x(), target.y());
+    }
+
+    public Optional<String> to(int x, int y, Direction orientation, int targetX, int targetY) {
+        checkBounds(x, y);
+        checkBounds(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.targetDirection = ANY_DIRECTION;
+        return search(x, y, orientation);
+    }
+
+    /**
+     * Moves taking the adventurer to the target cell, facing the given direction.
+     */
+    public Optional<String> to(int x, int y, Direction orientation, int targetX, int targetY, Direction facing) {
+        checkBounds(x, y);
+        checkBounds(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.targetDirection = facing.ordinal();
+        return search(x, y, orientation);
+    }
+
+    /**
+     * Moves ending with a step onto the target cell in the given direction, which collects a treasure lying there,
+     * even if the adventurer starts on it.
+     */
+    public Optional<String> enter(int x, int y, Direction orientation, int targetX, int targetY, Direction direction) {
+        checkBounds(targetX, targetY);
+        int fromX = targetX - direction.dx(), fromY = targetY - direction.dy();
+        if (fromX < 0 || fromX >= width || fromY < 0 || fromY >= height || treasureMap.isMountain(targetX, targetY)
+                || treasureMap.isMountain(fromX, fromY))
+            return Optional.empty();
+        return to(x, y, orientation, fromX, fromY, direction).map(moves -> moves + 'A');
+    }
+
+    /**
+     * Breadth-first distances from one state to every cell of {@code cells}, sorted row-major indexes
+     * ({@code y * width + x}). {@code distances[offset + i]} gets the fewest moves ending with a step onto
+     * {@code cells[i]}, or -1, and {@code directions[offset + i]} the ordinal of that last step.
+     */
+    public void distances(int x, int y, Direction orientation, int[] cells, int[] distances, byte[] directions, int offset) {
+        checkBounds(x, y);
+        Arrays.fill(distances, offset, offset + cells.length, UNREACHABLE);
+        targetX = NO_TARGET;
+        nextStamp();
+        int remaining = cells.length;
+        int start = (y * width + x) * 4 + orientation.ordinal();
+        push(0, start, START);
+        for (int g = 0, empty = 0; empty < 2 && remaining > 0; ) {
+            int bucket = g & (BUCKETS - 1);
+            if (bucketSizes[bucket] == 0) {
+                empty++;
+                g++;
+                continue;
+            }
+            empty = 0;
+            int state = (int) (buckets[bucket][--bucketSizes[bucket]] >>> 2);
+            if (closed[state] >>> 2 == stamp)
+                continue;
+            closed[state] = stamp << 2;
+            int cell = state >>> 2, direction = state & 3;
+            int cellX = cell % width, cellY = cell / width;
+            int nextX = cellX + DX[direction], nextY = cellY + DY[direction];
+            if (nextX >= 0 && nextX < width && nextY >= 0 && nextY < height && !treasureMap.isMountain(nextX, nextY)) {
+                // Recorded when generated: the state it leads to may already be closed by turns on the cell.
+                int target = Arrays.binarySearch(cells, nextY * width + nextX);
+                if (target >= 0 && distances[offset + target] == UNREACHABLE) {
+                    distances[offset + target] = g + 1;
+                    directions[offset + target] = (byte) direction;
+                    remaining--;
+                }
+                open(g, nextX, nextY, direction, FORWARD);
+            }
+            open(g, cellX, cellY, LEFT[direction], LEFT_TURN);
+            open(g, cellX, cellY, RIGHT[direction], RIGHT_TURN);
+        }
+    }
+
+    /**
+     * Moves taking the adventurer onto the closest cell holding treasure, or empty if there is none within reach.
+     * The cell the adventurer starts on does not count: it only collects a treasure by moving onto it.
+     */
+    public Optional<String> nearestTreasure(Adventurer adventurer) {
+        return nearestTreasure(adventurer.x(), adventurer.y(), adventurer.orientation());
+    }
+
+    public Optional<String> nearestTreasure(int x, int y, Direction orientation) {
+        checkBounds(x, y);
+        targetX = NO_TARGET;
+        targetDirection = ANY_DIRECTION;
+        return search(x, y, orientation);
+    }
+
+    private void nextStamp() {
+        if (++stamp == 1 << 29) {
+            Arrays.fill(closed, 0);
+            stamp = 1;
+        }
+        Arrays.fill(bucketSizes, 0);
+        expanded = 0;
+    }
+
+    private Optional<String> search(int x, int y, Direction orientation) {
+        nextStamp();
+        int start = (y * width + x) * 4 + orientation.ordinal();
+        int f = heuristic(x, y, orientation.ordinal());
+        push(f, start, START);
+        for (int empty = 0; empty < BUCKETS; ) {
+            int bucket = f & (BUCKETS - 1);
+            if (bucketSizes[bucket] == 0) {
+                empty++;
+                f++;
+                continue;
+            }
+            empty = 0;
+            long entry = buckets[bucket][--bucketSizes[bucket]];
+            int state = (int) (entry >>> 2), move = (int) entry & 3;
+            if (closed[state] >>> 2 == stamp)
+                continue;
+            closed[state] = stamp << 2 | move;
+            expanded++;
+            int cell = state >>> 2, direction = state & 3;
+            int cellX = cell % width, cellY = cell / width;
+            if (isGoal(cellX, cellY, direction, move))
+                return Optional.of(path(state));
+            int g = f - heuristic(cellX, cellY, direction);
+            int nextX = cellX + DX[direction], nextY = cellY + DY[direction];
+            if (nextX >= 0 && nextX < width && nextY >= 0 && nextY < height && !treasureMap.isMountain(nextX, nextY))
+                open(g, nextX, nextY, direction, FORWARD);
+            open(g, cellX, cellY, LEFT[direction], LEFT_TURN);
+            open(g, cellX, cellY, RIGHT[direction], RIGHT_TURN);
+        }
+        return Optional.empty();
+    }
+
+    private boolean isGoal(int x, int y, int direction, int move) {
+        if (targetX == NO_TARGET)
+            return move == FORWARD && treasureMap.treasureCount(x, y) > 0;
+        return x == targetX && y == targetY && (targetDirection == ANY_DIRECTION || direction == targetDirection);
+    }
+
+    private void open(int g, int x, int y, int direction, int move) {
+        int state = (y * width + x) * 4 + direction;
+        if (closed[state] >>> 2 != stamp)
+            push(g + 1 + heuristic(x, y, direction), state, move);
+    }
+
+    private void push(int f, int state, int move) {
+        int bucket = f & (BUCKETS - 1);
+        if (bucketSizes[bucket] == buckets[bucket].length)
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], buckets[bucket].length * 2);
+        buckets[bucket][bucketSizes[bucket]++] = (long) state << 2 | move;
+    }
+
+    /**
+     * Manhattan distance plus the quarter turns needed to face every direction the target lies in.
+     */
+    private int heuristic(int x, int y, int direction) {
+        if (targetX == NO_TARGET)
+            return 0;
+        int dx = targetX - x, dy = targetY - y;
+        int distance = Math.abs(dx) + Math.abs(dy);
+        if (dx == 0 && dy == 0)
+            return 0;
+        int alongX = DX[direction] * Integer.signum(dx), alongY = DY[direction] * Integer.signum(dy);
+        if (dx == 0 || dy == 0) {
+            int along = alongX + alongY;
+            return distance + (along > 0 ? 0 : along < 0 ? 2 : 1);
+        }
+        return distance + (alongX > 0 || alongY > 0 ? 1 : 2);
+    }
+
+    private String path(int state) {
+        var moves = new StringBuilder();
+        while (true) {
+            int move = closed[state] & 3;
+            if (move == START)
+                return moves.reverse().toString();
+            moves.append(MOVES[move]);
+            int cell = state >>> 2, direction = state & 3;
+            state = switch (move) {
+                case FORWARD -> (cell - DY[direction] * width - DX[direction]) * 4 + direction;
+                case LEFT_TURN -> cell * 4 + RIGHT[direction];
+                default -> cell * 4 + LEFT[direction];
+            };
+        }
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IllegalArgumentException(Terrain.COORDINATE_OUT_OF_BOUNDS);
+    }
+}
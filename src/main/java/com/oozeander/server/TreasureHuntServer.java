@@ -0,0 +1,220 @@
+package com.oozeander.server;
+
+import com.oozeander.batch.BatchRunner;
+import com.oozeander.io.TerrainCache;
+import com.oozeander.io.TreasureMapWriter;
+import com.oozeander.metrics.LatencyHistogram;
+import com.oozeander.metrics.TreasureHuntMetrics;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a warm JVM behind a loopback HTTP endpoint.
+ * <ul>
+ * <li>{@code POST /simulate} with a map in the C/M/T/A format answers the simulated map, in the output format</li>
+ * <li>{@code GET /stats} answers request counters and latency percentiles as JSON</li>
+ * </ul>
+ * The dispatcher thread only admits requests: each admitted request then runs on a worker, so that pipelined
+ * requests on one connection and requests on other connections are all served as workers free up. At most
+ * {@code parallelism + queueCapacity} requests are admitted at once; beyond that the server answers 503 right away.
+ * An admitted request is read, up to {@code maxBodyBytes}, before it waits for one of the {@code parallelism}
+ * simulation slots, so that a slow upload never keeps a simulation from running.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TreasureHuntServer implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_MAX_BODY_BYTES = 64 << 20;
+    static final String SIMULATE_PATH = "/simulate";
+    static final String STATS_PATH = "/stats";
+
+    private static final String TEXT = "text/plain; charset=utf-8";
+    private static final String JSON = "application/json";
+    private static final String BUSY = "Server busy, retry later";
+    private static final String METHOD_NOT_ALLOWED = "Method not allowed: %s";
+    private static final String BODY_TOO_LARGE = "Request body larger than %d bytes";
+
+    HttpServer server;
+    ExecutorService workers;
+    // Simulations are CPU-bound: even on virtual threads, only this many run at once.
+    @Getter(AccessLevel.PACKAGE)
+    Semaphore running;
+    Semaphore admission;
+    int capacity;
+    int maxBodyBytes;
+    @Getter
+    LatencyHistogram latencies = new LatencyHistogram();
+    LongAdder succeeded = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    LongAdder failed = new LongAdder();
+    @Getter
+    TerrainCache cache = new TerrainCache(TerrainCache.DEFAULT_MAX_BYTES);
+
+    private TreasureHuntServer(HttpServer server, int parallelism, int queueCapacity, int maxBodyBytes) {
+        this.server = server;
+        this.maxBodyBytes = maxBodyBytes;
+        this.capacity = parallelism + queueCapacity;
+        // One worker per admitted request, so that every admitted body is read while others simulate.
+        this.workers = BatchRunner.executor(capacity);
+        this.running = new Semaphore(parallelism);
+        this.admission = new Semaphore(capacity);
+        server.createContext(SIMULATE_PATH, this::simulate);
+        server.createContext(STATS_PATH, this::stats);
+    }
+
+    /**
+     * Listens on the loopback interface; port 0 picks a free port, see {@link #port()}.
+     */
+    public static TreasureHuntServer start(int port, int parallelism, int queueCapacity) throws IOException {
+        return start(port, parallelism, queueCapacity, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    static TreasureHuntServer start(int port, int parallelism, int queueCapacity, int maxBodyBytes) throws IOException {
+        var server = new TreasureHuntServer(HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0),
+                parallelism, queueCapacity, maxBodyBytes);
+        server.server.start();
+        return server;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public long succeeded() {
+        return succeeded.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public int inFlight() {
+        return capacity - admission.availablePermits();
+    }
+
+    private void simulate(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            respond(exchange, 405, TEXT, METHOD_NOT_ALLOWED.formatted(exchange.getRequestMethod()));
+            return;
+        }
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, TEXT, BUSY);
+            return;
+        }
+        workers.execute(() -> {
+            boolean recorded = false;
+            try {
+                byte[] input = exchange.getRequestBody().readNBytes(maxBodyBytes + 1);
+                if (input.length > maxBodyBytes) {
+                    failed.increment();
+                    quietly(exchange, 413, BODY_TOO_LARGE.formatted(maxBodyBytes));
+                    return;
+                }
+                byte[] output;
+                running.acquire();
+                try {
+                    output = run(input);
+                } finally {
+                    running.release();
+                }
+                // Counted before answering, so that a client reading the stats after its response sees its request.
+                succeeded.increment();
+                latencies.record(System.nanoTime() - start);
+                recorded = true;
+                respond(exchange, 200, TEXT, output);
+            } catch (IllegalArgumentException e) {
+                failed.increment();
+                quietly(exchange, 400, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                quietly(exchange, 503, BUSY);
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                quietly(exchange, 500, String.valueOf(e.getMessage()));
+            } finally {
+                admission.release();
+                if (!recorded)
+                    latencies.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private byte[] run(byte[] input) throws IOException {
+        long start = System.nanoTime();
+        TreasureMap treasureMap = cache.read(ByteBuffer.wrap(input));
+        long parsed = System.nanoTime();
+        new Simulation(treasureMap).run();
+        long simulated = System.nanoTime();
+        var output = new ByteArrayOutputStream();
+        TreasureMapWriter.write(treasureMap, Channels.newChannel(output));
+        TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+        if (metrics != null)
+            metrics.recordScenario(parsed - start, simulated - parsed, input.length, output.size());
+        return output.toByteArray();
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, JSON, String.format(Locale.ROOT,
+                "{\"succeeded\": %d, \"rejected\": %d, \"failed\": %d, \"inFlight\": %d, \"latency\": %s, "
+                        + "\"terrainCache\": {\"hits\": %d, \"misses\": %d, \"evictions\": %d, \"bytes\": %d}}",
+                succeeded(), rejected(), failed(), inFlight(), latencies.toJson(),
+                cache.hits(), cache.misses(), cache.evictions(), cache.bytes()));
+    }
+
+    private static void quietly(HttpExchange exchange, int status, String message) {
+        try {
+            respond(exchange, status, TEXT, message);
+        } catch (IOException ignored) {
+            // The client is gone: nothing left to answer.
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        respond(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        try (exchange; OutputStream output = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length);
+            output.write(body);
+        }
+    }
+
+    /**
+     * Stops accepting connections, lets exchanges in progress finish for up to a second, then stops the workers.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdownNow();
+    }
+}
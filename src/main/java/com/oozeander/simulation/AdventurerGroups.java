@@ -0,0 +1,148 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.Occupancy;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the adventurers of a map into groups that cannot touch the same cell during the next window of rounds.
+ * Each adventurer can only reach the box of half-side "number of forward moves in the window" around where it
+ * stands; adventurers whose boxes fall in a common tile are merged with a union-find. Bounding the boxes by a
+ * window keeps long sequences from spanning the whole map, at the cost of partitioning again every window.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class AdventurerGroups {
+
+    static final int MIN_TILE_SIZE = 32;
+    static final int MAX_TILES_PER_AXIS = 1024;
+
+    int[] parent;
+
+    private AdventurerGroups(int size) {
+        parent = new int[size];
+        for (int i = 0; i < size; i++)
+            parent[i] = i;
+    }
+
+    /**
+     * Groups the adventurers for the rounds {@code [positions[i], positions[i] + window)} of their sequences.
+     * Adventurers whose sequence is done still hold their cell, so they take part with an empty reach.
+     */
+    static List<Group> partition(TreasureMap treasureMap, long[] positions, long window) {
+        List<Adventurer> players = treasureMap.players();
+        if (players.isEmpty())
+            return List.of();
+        int width = treasureMap.width(), height = treasureMap.height();
+        // Tiles no smaller than a sixteenth of the reach, so that a box never covers more than 17x17 tiles.
+        int windowTile = (int) Math.min(Math.max(width, height), window / 16);
+        int tileWidth = Math.max(tileSize(width), windowTile), tileHeight = Math.max(tileSize(height), windowTile);
+        int tilesPerRow = (width + tileWidth - 1) / tileWidth, tilesPerColumn = (height + tileHeight - 1) / tileHeight;
+        int[] tileOwner = new int[tilesPerRow * tilesPerColumn];
+        Arrays.fill(tileOwner, -1);
+
+        var groups = new AdventurerGroups(players.size());
+        long[] rounds = new long[players.size()];
+        byte[] chunk = new byte[MovementSequence.CHUNK_SIZE];
+        for (int i = 0; i < players.size(); i++) {
+            MovementSequence moves = players.get(i).moves();
+            rounds[i] = Math.min(window, moves.length() - positions[i]);
+            int[] box = reachableBox(players.get(i), forwardMoves(moves, positions[i], rounds[i], chunk), width, height);
+            for (int tileY = box[1] / tileHeight; tileY <= box[3] / tileHeight; tileY++)
+                for (int tileX = box[0] / tileWidth; tileX <= box[2] / tileWidth; tileX++) {
+                    int tile = tileY * tilesPerRow + tileX;
+                    if (tileOwner[tile] < 0)
+                        tileOwner[tile] = i;
+                    else
+                        groups.union(tileOwner[tile], i);
+                }
+        }
+
+        Map<Integer, Group> byRoot = new LinkedHashMap<>();
+        for (int i = 0; i < players.size(); i++)
+            byRoot.computeIfAbsent(groups.find(i), root -> new Group()).add(i, players.get(i), rounds[i]);
+        return new ArrayList<>(byRoot.values());
+    }
+
+    private static int tileSize(int length) {
+        return Math.max(MIN_TILE_SIZE, (length + MAX_TILES_PER_AXIS - 1) / MAX_TILES_PER_AXIS);
+    }
+
+    private static long forwardMoves(MovementSequence moves, long from, long count, byte[] chunk) {
+        long forward = 0;
+        for (long read = 0; read < count; read += chunk.length) {
+            int length = (int) Math.min(chunk.length, count - read);
+            moves.read(from + read, chunk, 0, length);
+            for (int i = 0; i < length; i++)
+                if (chunk[i] == 'A')
+                    forward++;
+        }
+        return forward;
+    }
+
+    // Returns {minX, minY, maxX, maxY}, clamped to the map.
+    private static int[] reachableBox(Adventurer player, long reach, int width, int height) {
+        int x = Math.min(player.x(), width - 1), y = Math.min(player.y(), height - 1);
+        return new int[]{
+                (int) Math.max(0, x - reach), (int) Math.max(0, y - reach),
+                (int) Math.min(width - 1L, x + reach), (int) Math.min(height - 1L, y + reach)
+        };
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a), rootB = find(b);
+        // The smaller index wins so that groups keep the file order of their first adventurer.
+        if (rootA < rootB)
+            parent[rootB] = rootA;
+        else if (rootB < rootA)
+            parent[rootA] = rootB;
+    }
+
+    @Getter
+    @Accessors(fluent = true)
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    static final class Group {
+
+        final List<Adventurer> players = new ArrayList<>();
+        // Index of each player in the file order of the map.
+        final List<Integer> indices = new ArrayList<>();
+        // Rounds played by the group in the window, summed over its players.
+        long moves;
+
+        private void add(int index, Adventurer player, long rounds) {
+            players.add(player);
+            indices.add(index);
+            moves += rounds;
+        }
+
+        /**
+         * A simulation of the group resuming at the given positions. A lone adventurer cannot collide with anyone and
+         * gets no occupancy; otherwise it is sized by the number of adventurers, not by the reach of the group.
+         */
+        Simulation simulation(TreasureMap treasureMap, long[] positions) {
+            long[] starts = new long[players.size()];
+            for (int i = 0; i < starts.length; i++)
+                starts[i] = positions[indices.get(i)];
+            return new Simulation(treasureMap, players, starts,
+                    players.size() == 1 ? Occupancy.NONE : new HashOccupancy(players.size()));
+        }
+    }
+}
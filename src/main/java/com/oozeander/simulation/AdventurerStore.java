@@ -0,0 +1,115 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Direction;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Structure-of-arrays state of the adventurers that still have moves: slot {@code i} of every array describes
+ * the same adventurer, and slots stay in file order. An {@link Adventurer} is only written back once it has
+ * played its whole sequence, see {@link #compact()}.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class AdventurerStore {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    final Adventurer[] players;
+    @Getter(AccessLevel.PACKAGE)
+    final int[] xs;
+    @Getter(AccessLevel.PACKAGE)
+    final int[] ys;
+    // Direction ordinals.
+    @Getter(AccessLevel.PACKAGE)
+    final byte[] orientations;
+    @Getter(AccessLevel.PACKAGE)
+    final int[] treasureCounts;
+    @Getter(AccessLevel.PACKAGE)
+    final SequenceCursor[] cursors;
+    int size;
+
+    AdventurerStore(List<Adventurer> players) {
+        int count = players.size();
+        this.players = new Adventurer[count];
+        this.xs = new int[count];
+        this.ys = new int[count];
+        this.orientations = new byte[count];
+        this.treasureCounts = new int[count];
+        this.cursors = new SequenceCursor[count];
+        for (Adventurer player : players) {
+            var cursor = new SequenceCursor(player.moves(), 0);
+            if (!cursor.hasNext())
+                continue;
+            this.players[size] = player;
+            xs[size] = player.x();
+            ys[size] = player.y();
+            orientations[size] = (byte) player.orientation().ordinal();
+            treasureCounts[size] = player.treasureCount();
+            cursors[size++] = cursor;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Transposes the next moves of every adventurer into {@code block}, round-major: the move of slot {@code s}
+     * in round {@code r} goes to {@code block[r * size() + s]}, and 0 once its sequence has ended. Each round is
+     * then read contiguously, instead of one byte from the chunk of every cursor.
+     *
+     * @return the number of rounds filled, at most {@code rounds}
+     */
+    int fill(byte[] block, int rounds) {
+        int filled = 0;
+        for (int slot = 0; slot < size; slot++) {
+            SequenceCursor cursor = cursors[slot];
+            int round = 0;
+            for (; round < rounds && cursor.hasNext(); round++) {
+                char move = cursor.next();
+                // 0 marks the end of a sequence in the block.
+                if (move == 0)
+                    throw new IllegalArgumentException(Adventurer.INVALID_TURN.formatted(move));
+                block[round * size + slot] = (byte) move;
+            }
+            filled = Math.max(filled, round);
+            for (; round < rounds; round++)
+                block[round * size + slot] = 0;
+        }
+        return filled;
+    }
+
+    /**
+     * Writes the adventurers without moves left back to their objects and closes the gaps, keeping file order.
+     */
+    void compact() {
+        int kept = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (!cursors[slot].hasNext()) {
+                store(slot);
+                continue;
+            }
+            players[kept] = players[slot];
+            xs[kept] = xs[slot];
+            ys[kept] = ys[slot];
+            orientations[kept] = orientations[slot];
+            treasureCounts[kept] = treasureCounts[slot];
+            cursors[kept++] = cursors[slot];
+        }
+        for (int slot = kept; slot < size; slot++) {
+            players[slot] = null;
+            cursors[slot] = null;
+        }
+        size = kept;
+    }
+
+    private void store(int slot) {
+        players[slot].x(xs[slot]).y(ys[slot]).orientation(DIRECTIONS[orientations[slot]]).treasureCount(treasureCounts[slot]);
+    }
+}
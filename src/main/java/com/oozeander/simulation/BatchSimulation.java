@@ -0,0 +1,157 @@
+package com.oozeander.simulation;
+
+import com.oozeander.metrics.TreasureHuntMetrics;
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveKernel;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.Occupancy;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Lockstep engine for many adventurers, with the same results as {@link Simulation}. The adventurers live in an
+ * {@link AdventurerStore}, and every round is played in passes over its arrays rather than one
+ * {@link Adventurer#moveOnce} per object:
+ * <ol>
+ * <li>turns are applied and the target cell of every forward move is computed</li>
+ * <li>the {@link MoveKernel} of the terrain checks all the targets against edges, mountains and treasures</li>
+ * <li>a serial pass in file order lets adventurers block each other and collects the treasures</li>
+ * </ol>
+ * The first two passes do not depend on the order of the adventurers within a round, the third one does.
+ * Listeners and checkpoints need {@link Simulation}.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class BatchSimulation {
+
+    // Rounds of moves transposed at once: a cache line of every cursor's chunk.
+    static final int BLOCK_ROUNDS = 64;
+    private static final byte[] LEFT = new byte[4];
+    private static final byte[] RIGHT = new byte[4];
+    private static final int[] DX = new int[4];
+    private static final int[] DY = new int[4];
+    private static final int MOVED = MoveResult.MOVED.ordinal();
+    private static final int COLLECTED = MoveResult.COLLECTED.ordinal();
+    private static final int TURNED = MoveResult.TURNED.ordinal();
+    private static final int BLOCKED_BY_ADVENTURER = MoveResult.BLOCKED_BY_ADVENTURER.ordinal();
+
+    static {
+        for (Direction direction : Direction.values()) {
+            LEFT[direction.ordinal()] = (byte) direction.left().ordinal();
+            RIGHT[direction.ordinal()] = (byte) direction.right().ordinal();
+            DX[direction.ordinal()] = direction.dx();
+            DY[direction.ordinal()] = direction.dy();
+        }
+    }
+
+    @Getter
+    final TreasureMap treasureMap;
+    final AdventurerStore store;
+    final MoveKernel kernel;
+    final Occupancy occupancy;
+    final TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+    final long[] outcomes = TreasureHuntMetrics.newMoveCounters();
+    final byte[] moves;
+    // Forward moves of the current round: store slot and target cell, then the kernel's verdict.
+    final int[] forward;
+    final int[] targetXs;
+    final int[] targetYs;
+    final byte[] results;
+    @Getter
+    long tick;
+
+    public BatchSimulation(TreasureMap treasureMap) {
+        this.treasureMap = treasureMap;
+        this.occupancy = Simulation.occupancy(treasureMap);
+        for (Adventurer player : treasureMap.players()) {
+            if (occupancy.isOccupied(player.x(), player.y()))
+                throw new IllegalArgumentException(Simulation.ADVENTURER_COORDINATE_ALREADY_TAKEN);
+            occupancy.occupy(player.x(), player.y());
+        }
+        this.store = new AdventurerStore(treasureMap.players());
+        this.kernel = MoveKernel.of(treasureMap);
+        this.moves = new byte[BLOCK_ROUNDS * store.size()];
+        this.forward = new int[store.size()];
+        this.targetXs = new int[store.size()];
+        this.targetYs = new int[store.size()];
+        this.results = new byte[store.size()];
+    }
+
+    public void run() {
+        while (!finished())
+            step();
+        if (metrics != null)
+            metrics.recordMoves(outcomes);
+    }
+
+    /**
+     * Plays up to {@link #BLOCK_ROUNDS} rounds from one block of moves, then drops the adventurers that are done.
+     */
+    private void step() {
+        int size = store.size();
+        int rounds = store.fill(moves, BLOCK_ROUNDS);
+        for (int round = 0; round < rounds; round++)
+            play(round * size, size);
+        store.compact();
+        tick += rounds;
+    }
+
+    private void play(int offset, int size) {
+        int forwardCount = 0;
+        int[] xs = store.xs(), ys = store.ys();
+        byte[] orientations = store.orientations();
+        for (int slot = 0; slot < size; slot++) {
+            int orientation = orientations[slot];
+            switch (moves[offset + slot]) {
+                case 'A' -> {
+                    forward[forwardCount] = slot;
+                    targetXs[forwardCount] = xs[slot] + DX[orientation];
+                    targetYs[forwardCount++] = ys[slot] + DY[orientation];
+                }
+                case 'G' -> {
+                    orientations[slot] = LEFT[orientation];
+                    outcomes[TURNED]++;
+                }
+                case 'D' -> {
+                    orientations[slot] = RIGHT[orientation];
+                    outcomes[TURNED]++;
+                }
+                case 0 -> {
+                    // This adventurer is done, it leaves the store after the block.
+                }
+                default -> throw new IllegalArgumentException(Adventurer.INVALID_TURN.formatted((char) moves[offset + slot]));
+            }
+        }
+
+        kernel.probe(targetXs, targetYs, forwardCount, results);
+
+        int[] treasureCounts = store.treasureCounts();
+        for (int i = 0; i < forwardCount; i++) {
+            int result = results[i];
+            if (result == MOVED || result == COLLECTED) {
+                int slot = forward[i], x = targetXs[i], y = targetYs[i];
+                if (occupancy.isOccupied(x, y)) {
+                    result = BLOCKED_BY_ADVENTURER;
+                } else {
+                    occupancy.release(xs[slot], ys[slot]);
+                    occupancy.occupy(x, y);
+                    xs[slot] = x;
+                    ys[slot] = y;
+                    if (result == COLLECTED && treasureMap.takeTreasure(x, y))
+                        treasureCounts[slot]++;
+                    else
+                        result = MOVED;
+                }
+            }
+            outcomes[result]++;
+        }
+    }
+
+    public boolean finished() {
+        return store.size() == 0;
+    }
+}
@@ -0,0 +1,277 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Periodic, incremental checkpoints of a {@link Simulation}, written by a background thread.
+ * <p>
+ * Each checkpoint file holds the full adventurer state and only the treasure cells changed since
+ * the previous checkpoint, so resuming replays the whole chain over the original input. Checkpoints are
+ * therefore written strictly in order: when the writer falls behind, the simulation thread waits for it.
+ * <pre>
+ * header (little-endian): int magic, int version, long sequence, long fingerprint, long tick, int adventurerCount,
+ *                         int cellCount
+ * adventurers: int x, int y, short orientation, int treasureCount, long cursor
+ * cells: int x, int y, short treasureCount
+ * </pre>
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class Checkpointer implements AutoCloseable {
+
+    public static final long DEFAULT_INTERVAL = 1_000_000;
+    static final int MAGIC = 0x544b4843;
+    static final int VERSION = 4;
+    static final int HEADER_SIZE = 40;
+    static final int ADVENTURER_SIZE = 22;
+    static final int CELL_SIZE = 10;
+    // Once this many checkpoints wait for the disk, the simulation thread waits before queuing the next one.
+    static final int PENDING_LIMIT = 2;
+
+    private static final String FILE_NAME = "checkpoint-%012d.bin";
+    private static final String FILE_PREFIX = "checkpoint-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final String INVALID_INTERVAL = "Checkpoint interval must be positive: %d";
+    private static final String CORRUPTED_CHECKPOINT = "Corrupted checkpoint: %s";
+    private static final String ADVENTURER_MISMATCH = "Checkpoint %s holds %d adventurers, the map has %d";
+    private static final String MAP_MISMATCH = "Checkpoint %s was written for another map";
+    private static final String INTERRUPTED = "Interrupted while writing checkpoint %d";
+    private static final Pending END = new Pending(-1, null);
+
+    @Getter
+    final Path directory;
+    @Getter
+    final long interval;
+    final BlockingQueue<Pending> pending = new ArrayBlockingQueue<>(PENDING_LIMIT);
+    final AtomicReference<IOException> failure = new AtomicReference<>();
+    // Started with the first checkpoint.
+    Thread writer;
+    @Getter
+    long sequence;
+    // Of the input map, before any checkpoint is applied.
+    long fingerprint;
+
+    private record Pending(long sequence, ByteBuffer buffer) {
+    }
+
+    public Checkpointer(Path directory, long interval) throws IOException {
+        if (interval <= 0)
+            throw new IllegalArgumentException(INVALID_INTERVAL.formatted(interval));
+        this.directory = Files.createDirectories(directory);
+        this.interval = interval;
+    }
+
+    /**
+     * Restores the map and its adventurers from the latest checkpoint, if any, and returns a simulation
+     * that checkpoints through this instance from there on.
+     * <p>
+     * Only the unbroken chain from the first checkpoint is replayed: checkpoints after a gap, left by a crash,
+     * are deleted. Checkpoints written for another input map are rejected.
+     */
+    public Simulation resume(TreasureMap treasureMap) throws IOException {
+        List<Path> checkpoints = checkpoints();
+        fingerprint = fingerprint(treasureMap);
+        long tick = 0;
+        long[] cursors = null;
+        for (int index = 0; index < checkpoints.size(); index++) {
+            Path checkpoint = checkpoints.get(index);
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint)).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException(CORRUPTED_CHECKPOINT.formatted(checkpoint));
+            long checkpointSequence = buffer.getLong();
+            if (checkpointSequence != sequence + 1) {
+                for (Path orphan : checkpoints.subList(index, checkpoints.size()))
+                    Files.delete(orphan);
+                break;
+            }
+            if (buffer.getLong() != fingerprint)
+                throw new IOException(MAP_MISMATCH.formatted(checkpoint));
+            tick = buffer.getLong();
+            int adventurerCount = buffer.getInt();
+            int cellCount = buffer.getInt();
+            if (adventurerCount != treasureMap.players().size())
+                throw new IOException(ADVENTURER_MISMATCH.formatted(checkpoint, adventurerCount, treasureMap.players().size()));
+            if (buffer.remaining() != (long) adventurerCount * ADVENTURER_SIZE + (long) cellCount * CELL_SIZE)
+                throw new IOException(CORRUPTED_CHECKPOINT.formatted(checkpoint));
+            cursors = new long[adventurerCount];
+            for (int i = 0; i < adventurerCount; i++) {
+                Adventurer player = treasureMap.players().get(i);
+                player.x(buffer.getInt());
+                player.y(buffer.getInt());
+                player.orientation(Direction.directionByValue(buffer.getChar()));
+                player.treasureCount(buffer.getInt());
+                cursors[i] = buffer.getLong();
+            }
+            for (int i = 0; i < cellCount; i++)
+                treasureMap.addTreasure(Coordinate.of(buffer.getInt(), buffer.getInt()), buffer.getShort());
+            sequence = checkpointSequence;
+        }
+        Simulation simulation = new Simulation(treasureMap);
+        if (cursors != null)
+            simulation.restore(tick, cursors);
+        simulation.checkpointer(this);
+        return simulation;
+    }
+
+    /**
+     * Encodes the state on the simulation thread, then hands the file write over to the writer thread.
+     */
+    void capture(Simulation simulation, long[] changedCells, int changedCount) {
+        Arrays.sort(changedCells, 0, changedCount);
+        int cellCount = 0;
+        for (int i = 0; i < changedCount; i++)
+            if (i == 0 || changedCells[i] != changedCells[i - 1])
+                changedCells[cellCount++] = changedCells[i];
+
+        Adventurer[] players = simulation.players();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + players.length * ADVENTURER_SIZE + cellCount * CELL_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long checkpointSequence = ++sequence;
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(checkpointSequence).putLong(fingerprint).putLong(simulation.tick())
+                .putInt(players.length).putInt(cellCount);
+        for (int i = 0; i < players.length; i++) {
+            Adventurer player = players[i];
+            buffer.putInt(player.x()).putInt(player.y()).putChar(player.orientation().value())
+                    .putInt(player.treasureCount()).putLong(simulation.cursors()[i].position());
+        }
+        TreasureMap treasureMap = simulation.treasureMap();
+        for (int i = 0; i < cellCount; i++) {
+            int x = (int) changedCells[i], y = (int) (changedCells[i] >>> 32);
+            buffer.putInt(x).putInt(y).putShort(treasureMap.treasureCount(x, y));
+        }
+        buffer.flip();
+        if (writer == null) {
+            writer = new Thread(this::drain, "checkpoint-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        enqueue(new Pending(checkpointSequence, buffer));
+    }
+
+    private void enqueue(Pending checkpoint) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.put(checkpoint);
+                break;
+            } catch (InterruptedException e) {
+                // Dropping a checkpoint would break the chain: wait anyway, and keep the interrupt for the caller.
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void drain() {
+        try {
+            for (Pending checkpoint = pending.take(); checkpoint != END; checkpoint = pending.take())
+                write(checkpoint.sequence(), checkpoint.buffer());
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, new IOException(INTERRUPTED.formatted(sequence)));
+        }
+    }
+
+    /**
+     * Hash of the dimensions, cells and adventurers of the input map, moves included.
+     */
+    static long fingerprint(TreasureMap treasureMap) {
+        long[] hash = {mix(treasureMap.width(), treasureMap.height())};
+        treasureMap.terrain().forEachMountain((x, y) -> hash[0] = mix(hash[0], (long) y << 32 | x));
+        treasureMap.terrain().forEachTreasure((x, y, count) -> hash[0] = mix(mix(hash[0], (long) y << 32 | x), count));
+        byte[] chunk = new byte[MovementSequence.CHUNK_SIZE];
+        for (Adventurer player : treasureMap.players()) {
+            hash[0] = mix(hash[0], player.name().hashCode());
+            hash[0] = mix(hash[0], (long) player.y() << 32 | player.x());
+            hash[0] = mix(mix(hash[0], player.orientation().value()), player.treasureCount());
+            MovementSequence moves = player.moves();
+            hash[0] = mix(hash[0], moves.length());
+            for (long from = 0; from < moves.length(); from += chunk.length) {
+                int length = moves.read(from, chunk, 0, chunk.length);
+                for (int i = 0; i < length; i++)
+                    hash[0] = hash[0] * 31 + chunk[i];
+            }
+        }
+        return hash[0];
+    }
+
+    private static long mix(long hash, long value) {
+        long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 29);
+    }
+
+    private void write(long checkpointSequence, ByteBuffer buffer) {
+        if (failure.get() != null)
+            return;
+        Path target = directory.resolve(FILE_NAME.formatted(checkpointSequence));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+            return;
+        }
+        try {
+            // A checkpoint only becomes visible once complete, so a crash mid-write leaves the chain intact.
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    List<Path> checkpoints() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> checkpoints = new ArrayList<>();
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).sorted().forEach(checkpoints::add);
+            return checkpoints;
+        }
+    }
+
+    /**
+     * Waits for pending checkpoints to reach the disk and reports the first write failure, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            enqueue(END);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IOException e = failure.get();
+        if (e != null)
+            throw e;
+    }
+}
@@ -0,0 +1,146 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+
+/**
+ * A movement sequence compiled to segments of "N forward moves, then a net number of right quarter-turns".
+ * A straight run is resolved with the obstacle index of the map instead of one lookup per move,
+ * so it is only valid when no other adventurer can get in the way.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class CompiledSequence {
+
+    int[] runs;
+    byte[] turns;
+    int length;
+
+    private CompiledSequence(int[] runs, byte[] turns, int length) {
+        this.runs = runs;
+        this.turns = turns;
+        this.length = length;
+    }
+
+    public static CompiledSequence compile(String movementSequence) {
+        return compile(movementSequence, 0);
+    }
+
+    public static CompiledSequence compile(String movementSequence, int from) {
+        return compile(MovementSequence.of(movementSequence), from, movementSequence.length() - from);
+    }
+
+    /**
+     * Compiles {@code count} moves starting at {@code from}, pulled one chunk at a time.
+     */
+    public static CompiledSequence compile(MovementSequence sequence, long from, int count) {
+        var builder = new Builder();
+        int run = 0, rotation = 0;
+        var cursor = new SequenceCursor(sequence, from);
+        for (int i = 0; i < count; i++) {
+            char move = cursor.next();
+            switch (move) {
+                case 'A' -> {
+                    // A forward move after a net rotation starts a new segment; turns that cancel out do not.
+                    if (rotation != 0) {
+                        builder.append(run, rotation);
+                        run = 0;
+                        rotation = 0;
+                    }
+                    run++;
+                }
+                case 'D' -> rotation = (rotation + 1) & 3;
+                case 'G' -> rotation = (rotation + 3) & 3;
+                default -> throw new IllegalArgumentException(Adventurer.INVALID_TURN.formatted(move));
+            }
+        }
+        if (run != 0 || rotation != 0)
+            builder.append(run, rotation);
+        return new CompiledSequence(Arrays.copyOf(builder.runs, builder.segments),
+                Arrays.copyOf(builder.turns, builder.segments), count);
+    }
+
+    public int segments() {
+        return runs.length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void execute(Adventurer player, TreasureMap treasureMap) {
+        execute(player, treasureMap, null);
+    }
+
+    /**
+     * Plays the whole sequence; when {@code outcomes} is not null, the number of moves per {@link MoveResult}
+     * ordinal is added to it.
+     */
+    public void execute(Adventurer player, TreasureMap treasureMap, long[] outcomes) {
+        long forward = 0;
+        for (int segment = 0; segment < runs.length; segment++) {
+            advance(player, treasureMap, runs[segment], outcomes);
+            player.orientation(player.orientation().right(turns[segment]));
+            forward += runs[segment];
+        }
+        if (outcomes != null)
+            outcomes[MoveResult.TURNED.ordinal()] += length - forward;
+    }
+
+    private static void advance(Adventurer player, TreasureMap treasureMap, int moves, long[] outcomes) {
+        int x = player.x(), y = player.y(), dx = player.orientation().dx(), dy = player.orientation().dy();
+        while (moves > 0) {
+            int clearance = treasureMap.clearance(x, y, player.orientation(), moves);
+            int treasure = treasureMap.treasureDistance(x, y, player.orientation(), clearance);
+            if (treasure == 0) {
+                // Either the whole run fits, or the adventurer stops in front of the obstacle for the remaining moves.
+                x += dx * clearance;
+                y += dy * clearance;
+                if (outcomes != null) {
+                    outcomes[MoveResult.MOVED.ordinal()] += clearance;
+                    outcomes[blockedBy(treasureMap, x + dx, y + dy).ordinal()] += moves - clearance;
+                }
+                break;
+            }
+            x += dx * treasure;
+            y += dy * treasure;
+            moves -= treasure;
+            boolean collected = treasureMap.takeTreasure(x, y);
+            if (collected)
+                player.treasureCount(player.treasureCount() + 1);
+            if (outcomes != null) {
+                outcomes[MoveResult.MOVED.ordinal()] += collected ? treasure - 1 : treasure;
+                if (collected)
+                    outcomes[MoveResult.COLLECTED.ordinal()]++;
+            }
+        }
+        player.x(x).y(y);
+    }
+
+    private static MoveResult blockedBy(TreasureMap treasureMap, int x, int y) {
+        return x < 0 || x >= treasureMap.width() || y < 0 || y >= treasureMap.height()
+                ? MoveResult.BLOCKED_BY_BOUNDARY
+                : MoveResult.BLOCKED_BY_MOUNTAIN;
+    }
+
+    private static final class Builder {
+
+        int[] runs = new int[16];
+        byte[] turns = new byte[16];
+        int segments;
+
+        void append(int run, int rotation) {
+            if (segments == runs.length) {
+                runs = Arrays.copyOf(runs, segments * 2);
+                turns = Arrays.copyOf(turns, segments * 2);
+            }
+            runs[segments] = run;
+            turns[segments++] = (byte) rotation;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.TreasureMap;
+
+/**
+ * Which engine plays the moves of a map. They all produce the same final map.
+ */
+public enum Engine {
+    /** {@link Simulation}: one move per adventurer and per round, in file order. */
+    SEQUENTIAL,
+    /** {@link ParallelSimulation}: groups of adventurers that cannot meet, on the common fork/join pool. */
+    PARALLEL,
+    /** {@link BatchSimulation}: every round in passes over arrays of adventurers. */
+    LOCKSTEP;
+
+    public void run(TreasureMap treasureMap) {
+        switch (this) {
+            case SEQUENTIAL -> new Simulation(treasureMap).run();
+            case PARALLEL -> new ParallelSimulation(treasureMap).run();
+            case LOCKSTEP -> new BatchSimulation(treasureMap).run();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Occupancy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class GridOccupancy implements Occupancy {
+
+    int originX;
+    int originY;
+    int width;
+    long[] cells;
+
+    GridOccupancy(int width, int height) {
+        this(0, 0, width, height);
+    }
+
+    GridOccupancy(int originX, int originY, int width, int height) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.cells = new long[(int) (((long) width * height + 63) >>> 6)];
+    }
+
+    private int cell(int x, int y) {
+        return (y - originY) * width + (x - originX);
+    }
+
+    @Override
+    public boolean isOccupied(int x, int y) {
+        int cell = cell(x, y);
+        return (cells[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public void occupy(int x, int y) {
+        int cell = cell(x, y);
+        cells[cell >>> 6] |= 1L << cell;
+    }
+
+    @Override
+    public void release(int x, int y) {
+        int cell = cell(x, y);
+        cells[cell >>> 6] &= ~(1L << cell);
+    }
+}
@@ -0,0 +1,71 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Occupancy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of packed (x, y) cells with linear probing, for maps too large for a bitset.
+ * The table is sized once for the adventurer count, which never grows during a simulation.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class HashOccupancy implements Occupancy {
+
+    private static final long EMPTY = -1L;
+
+    long[] keys;
+    int mask;
+
+    HashOccupancy(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.keys = new long[size];
+        this.mask = size - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int find(long key) {
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    @Override
+    public boolean isOccupied(int x, int y) {
+        return keys[find(key(x, y))] != EMPTY;
+    }
+
+    @Override
+    public void occupy(int x, int y) {
+        long key = key(x, y);
+        keys[find(key)] = key;
+    }
+
+    @Override
+    public void release(int x, int y) {
+        int slot = find(key(x, y));
+        if (keys[slot] == EMPTY)
+            return;
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+}
@@ -0,0 +1,115 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.MoveKernel;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs independent groups of adventurers (see {@link AdventurerGroups}) on a fork/join pool, one window of rounds
+ * at a time: groups never share a cell within a window, and every adventurer has played exactly the rounds of the
+ * window before the next partition, so the final map is identical to the one of the sequential {@link Simulation}.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class ParallelSimulation {
+
+    // Rounds between two partitions: short enough to keep reachable boxes local, long enough to amortize them.
+    static final long DEFAULT_WINDOW = 1 << 10;
+
+    @Getter
+    TreasureMap treasureMap;
+    ForkJoinPool pool;
+    long window;
+    // Position of each adventurer in its sequence, in file order.
+    long[] positions;
+    @NonFinal
+    MoveKernel kernel;
+    @Getter
+    @NonFinal
+    long tick;
+    @NonFinal
+    int groupCount;
+
+    public ParallelSimulation(TreasureMap treasureMap) {
+        this(treasureMap, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSimulation(TreasureMap treasureMap, ForkJoinPool pool) {
+        this(treasureMap, pool, DEFAULT_WINDOW);
+    }
+
+    ParallelSimulation(TreasureMap treasureMap, ForkJoinPool pool, long window) {
+        this.treasureMap = treasureMap;
+        this.pool = pool;
+        this.window = window;
+        this.positions = new long[treasureMap.players().size()];
+        this.groupCount = AdventurerGroups.partition(treasureMap, positions, window).size();
+    }
+
+    /**
+     * The largest number of groups a window was split into.
+     */
+    public int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * See {@link Simulation#specialized(boolean)}: the groups share one kernel, which is read-only.
+     */
+    public void specialized(boolean specialized) {
+        kernel = specialized ? MoveKernel.of(treasureMap) : null;
+    }
+
+    public void run() {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                long rounds;
+                while ((rounds = runWindow()) > 0)
+                    tick += rounds;
+            }
+        });
+    }
+
+    // Plays one window and returns the number of rounds it lasted.
+    private long runWindow() {
+        List<AdventurerGroups.Group> groups = AdventurerGroups.partition(treasureMap, positions, window).stream()
+                .filter(group -> group.moves() > 0)
+                // Largest groups first, so that they do not end up as the last task of a worker.
+                .sorted(Comparator.comparingLong(AdventurerGroups.Group::moves).reversed())
+                .toList();
+        groupCount = Math.max(groupCount, groups.size());
+        // Each task builds its own simulation, so that only the running ones are alive, and writes back the
+        // positions of its adventurers: groups have disjoint adventurers.
+        List<ForkJoinTask<Long>> tasks = groups.stream()
+                .map(group -> ForkJoinTask.adapt(() -> runGroup(group)))
+                .toList();
+        ForkJoinTask.invokeAll(tasks);
+        long rounds = 0;
+        for (ForkJoinTask<Long> task : tasks)
+            rounds = Math.max(rounds, task.join());
+        return rounds;
+    }
+
+    // Plays the window for one group and returns the number of rounds it lasted.
+    private long runGroup(AdventurerGroups.Group group) {
+        Simulation simulation = group.simulation(treasureMap, positions);
+        simulation.kernel(kernel);
+        simulation.run(window);
+        List<Integer> indices = group.indices();
+        SequenceCursor[] cursors = simulation.cursors();
+        for (int i = 0; i < cursors.length; i++)
+            positions[indices.get(i)] = cursors[i].position();
+        return simulation.tick();
+    }
+}
@@ -0,0 +1,52 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.MovementSequence;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Pulls the moves of a sequence one chunk at a time, so that only {@link MovementSequence#CHUNK_SIZE} moves
+ * per adventurer are held by the engine whatever the length of the sequence.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class SequenceCursor {
+
+    final MovementSequence sequence;
+    final long length;
+    final byte[] chunk;
+    long chunkStart;
+    int position;
+    int limit;
+
+    SequenceCursor(MovementSequence sequence, long from) {
+        this.sequence = sequence;
+        this.length = sequence.length();
+        this.chunk = new byte[(int) Math.min(MovementSequence.CHUNK_SIZE, Math.max(length - from, 0))];
+        this.chunkStart = from;
+    }
+
+    boolean hasNext() {
+        return chunkStart + position < length;
+    }
+
+    char next() {
+        if (position == limit) {
+            chunkStart += limit;
+            position = 0;
+            limit = sequence.read(chunkStart, chunk, 0, chunk.length);
+        }
+        return (char) chunk[position++];
+    }
+
+    long position() {
+        return chunkStart + position;
+    }
+
+    long length() {
+        return length;
+    }
+
+    MovementSequence sequence() {
+        return sequence;
+    }
+}
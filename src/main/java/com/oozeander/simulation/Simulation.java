@@ -0,0 +1,199 @@
+package com.oozeander.simulation;
+
+import com.oozeander.events.MoveEventListener;
+import com.oozeander.metrics.TreasureHuntMetrics;
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.MoveKernel;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.Occupancy;
+import com.oozeander.model.TreasureMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tick-based engine: every round applies the next move of each adventurer, in file order.
+ * A forward move into a cell held by another adventurer is blocked.
+ */
+@Accessors(fluent = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public final class Simulation {
+
+    static final String ADVENTURER_COORDINATE_ALREADY_TAKEN = "The given coordinates are already taken by an adventurer !";
+    // Beyond this many cells (16 MB of bits) the occupancy index switches to a hash of adventurer cells.
+    static final long GRID_OCCUPANCY_CELL_LIMIT = 1L << 27;
+    // Moves compiled at once on the single-adventurer path, which bounds the size of the compiled segments.
+    static final int COMPILE_WINDOW = 1 << 20;
+
+    @Getter
+    final TreasureMap treasureMap;
+    @Getter(AccessLevel.PACKAGE)
+    final Adventurer[] players;
+    @Getter(AccessLevel.PACKAGE)
+    final SequenceCursor[] cursors;
+    final int[] active;
+    @Getter(AccessLevel.PACKAGE)
+    final Occupancy occupancy;
+    final TreasureHuntMetrics metrics = TreasureHuntMetrics.active();
+    // Null when metrics are disabled, so that counting costs nothing.
+    final long[] outcomes = metrics == null ? null : TreasureHuntMetrics.newMoveCounters();
+    int activeCount;
+    @Getter
+    long tick;
+    Checkpointer checkpointer;
+    MoveEventListener listener;
+    // Null to interpret moves through Adventurer.moveOnce.
+    MoveKernel kernel;
+    // Cells whose treasure changed since the last checkpoint, packed as y << 32 | x; duplicates are allowed.
+    long[] changedCells;
+    int changedCount;
+
+    public Simulation(TreasureMap treasureMap) {
+        this(treasureMap, treasureMap.players(), occupancy(treasureMap));
+    }
+
+    Simulation(TreasureMap treasureMap, List<Adventurer> players, Occupancy occupancy) {
+        this(treasureMap, players, new long[players.size()], occupancy);
+    }
+
+    // Resumes each adventurer at the given position in its sequence, from where it stands on the map.
+    Simulation(TreasureMap treasureMap, List<Adventurer> players, long[] positions, Occupancy occupancy) {
+        this.treasureMap = treasureMap;
+        this.players = players.toArray(Adventurer[]::new);
+        this.cursors = new SequenceCursor[this.players.length];
+        this.active = new int[this.players.length];
+        this.occupancy = occupancy;
+        for (int i = 0; i < this.players.length; i++) {
+            Adventurer player = this.players[i];
+            if (occupancy.isOccupied(player.x(), player.y()))
+                throw new IllegalArgumentException(ADVENTURER_COORDINATE_ALREADY_TAKEN);
+            occupancy.occupy(player.x(), player.y());
+            cursors[i] = new SequenceCursor(player.moves(), positions[i]);
+            if (cursors[i].hasNext())
+                active[activeCount++] = i;
+        }
+    }
+
+    static Occupancy occupancy(TreasureMap treasureMap) {
+        return occupancy(0, 0, treasureMap.width(), treasureMap.height(), treasureMap.players().size());
+    }
+
+    static Occupancy occupancy(int originX, int originY, int width, int height, int playerCount) {
+        return (long) width * height <= GRID_OCCUPANCY_CELL_LIMIT
+                ? new GridOccupancy(originX, originY, width, height)
+                : new HashOccupancy(playerCount);
+    }
+
+    /**
+     * Reports every move to the given listener, such as an {@link com.oozeander.events.EventLog}, tagged with
+     * the round and the adventurer's index in file order. The listener is called on the simulation thread.
+     */
+    public void listener(MoveEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Plays moves through a {@link MoveKernel} specialized for the terrain of the map instead of
+     * {@link Adventurer#moveOnce}, with the same results. Mountains must not be added once the run has started.
+     */
+    public void specialized(boolean specialized) {
+        kernel(specialized ? MoveKernel.of(treasureMap) : null);
+    }
+
+    void kernel(MoveKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    void checkpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+        this.changedCells = new long[16];
+    }
+
+    void restore(long tick, long[] positions) {
+        this.tick = tick;
+        activeCount = 0;
+        for (int i = 0; i < players.length; i++) {
+            cursors[i] = new SequenceCursor(players[i].moves(), positions[i]);
+            if (cursors[i].hasNext())
+                active[activeCount++] = i;
+        }
+    }
+
+    public void run() {
+        run(Long.MAX_VALUE);
+    }
+
+    /**
+     * Plays at most the given number of rounds, stopping earlier once every sequence is done.
+     */
+    void run(long rounds) {
+        long end = tick + Math.min(rounds, Long.MAX_VALUE - tick);
+        // Checkpoints and listeners are tied to rounds, which a compiled run does not have.
+        if (players.length == 1 && activeCount == 1 && checkpointer == null && listener == null) {
+            // Alone on the map, nobody can get in the way: straight runs are resolved in one go.
+            SequenceCursor cursor = cursors[0];
+            long last = Math.min(cursor.length(), cursor.position() + (end - tick));
+            for (long from = cursor.position(); from < last; from += COMPILE_WINDOW)
+                CompiledSequence.compile(cursor.sequence(), from, (int) Math.min(COMPILE_WINDOW, last - from))
+                        .execute(players[0], treasureMap, outcomes);
+            tick += last - cursor.position();
+            cursors[0] = new SequenceCursor(cursor.sequence(), last);
+            if (last == cursor.length())
+                activeCount = 0;
+        }
+        while (!finished() && tick < end)
+            step();
+        flushMetrics();
+    }
+
+    /**
+     * Plays one round and returns whether any adventurer still has moves left.
+     */
+    public boolean step() {
+        int remaining = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int index = active[i];
+            Adventurer player = players[index];
+            SequenceCursor cursor = cursors[index];
+            MoveResult result = kernel != null
+                    ? kernel.moveOnce(player, cursor.next(), occupancy)
+                    : player.moveOnce(treasureMap, cursor.next(), occupancy);
+            if (outcomes != null)
+                outcomes[result.ordinal()]++;
+            if (listener != null)
+                listener.onEvent(tick, index, result, player.x(), player.y(), player.orientation(), player.treasureCount());
+            if (result == MoveResult.COLLECTED && checkpointer != null)
+                changedCell(player.x(), player.y());
+            if (cursor.hasNext())
+                active[remaining++] = index;
+        }
+        activeCount = remaining;
+        tick++;
+        if (activeCount == 0)
+            flushMetrics();
+        else if (checkpointer != null && tick % checkpointer.interval() == 0) {
+            checkpointer.capture(this, changedCells, changedCount);
+            changedCount = 0;
+        }
+        return activeCount > 0;
+    }
+
+    private void changedCell(int x, int y) {
+        if (changedCount == changedCells.length)
+            changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+        changedCells[changedCount++] = (long) y << 32 | (x & 0xFFFFFFFFL);
+    }
+
+    private void flushMetrics() {
+        if (metrics != null)
+            metrics.recordMoves(outcomes);
+    }
+
+    public boolean finished() {
+        return activeCount == 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.oozeander;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TreasureHuntTest {
+
+    private static final String SCENARIO = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            A - Lara - 1 - 1 - S - AADADAGGA
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_write_the_output_even_when_a_checkpoint_write_fails() throws IOException {
+        Path input = Files.writeString(directory.resolve("input"), SCENARIO);
+        Path output = directory.resolve("output");
+        Path checkpoints = Files.createDirectories(directory.resolve("checkpoints"));
+        // A directory in place of every temporary checkpoint file makes each write fail.
+        for (int sequence = 0; sequence <= 10; sequence++)
+            Files.createDirectories(checkpoints.resolve("checkpoint-%012d.bin.tmp".formatted(sequence)));
+
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> TreasureHunt.run(input.toString(), output.toString(), checkpoints, 1));
+        assertThat(output).hasContent("""
+                C - 3 - 4
+                M - 1 - 0
+                M - 2 - 1
+                T - 1 - 3 - 2
+                A - Lara - 0 - 3 - S - 3""");
+    }
+}
@@ -0,0 +1,89 @@
+package com.oozeander.batch;
+
+import com.oozeander.io.TerrainCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BatchRunnerTest {
+
+    private static final String SCENARIO = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            A - Lara - 1 - 1 - S - AADADAGGA
+            """;
+
+    private static final String RESULT = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 1 - 3 - 2
+            A - Lara - 0 - 3 - S - 3""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_write_every_output_next_to_its_input_and_record_failures() throws IOException {
+        for (int i = 0; i < 20; i++)
+            Files.writeString(directory.resolve("scenario-%02d.txt".formatted(i)), SCENARIO);
+        Files.writeString(directory.resolve("broken.txt"), "C - 3 - 4\nX - 1 - 1\n");
+
+        BatchReport report = BatchRunner.run(BatchRunner.resolveInputs(directory.toString()), 4);
+
+        assertThat(report.results()).hasSize(21);
+        assertThat(report.succeeded()).isEqualTo(20);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.results().get(0).error()).isEqualTo("Unknown type: X (line 2, column 1)");
+        for (int i = 0; i < 20; i++)
+            assertThat(directory.resolve("scenario-%02d.txt.out".formatted(i))).hasContent(RESULT);
+    }
+
+    @Test
+    void should_resolve_glob_patterns_and_skip_outputs() throws IOException {
+        Files.createDirectories(directory.resolve("nightly/a"));
+        Files.writeString(directory.resolve("nightly/a/one.txt"), SCENARIO);
+        Files.writeString(directory.resolve("nightly/a/one.txt.out"), RESULT);
+        Files.writeString(directory.resolve("nightly/two.txt"), SCENARIO);
+        Files.writeString(directory.resolve("nightly/notes.md"), "");
+
+        assertThat(BatchRunner.resolveInputs(directory.resolve("nightly/**.txt").toString()))
+                .containsExactly(directory.resolve("nightly/a/one.txt"), directory.resolve("nightly/two.txt"));
+    }
+
+    @Test
+    void should_leave_long_movement_sequences_in_the_file() throws IOException {
+        String moves = "AGD".repeat(1 << 20);
+        for (String name : List.of("first.txt", "second.txt"))
+            Files.writeString(directory.resolve(name), SCENARIO + "A - Indiana - 2 - 3 - N - %s\n".formatted(moves));
+
+        BatchReport report = BatchRunner.run(BatchRunner.resolveInputs(directory.toString()), 2);
+
+        assertThat(report.succeeded()).isEqualTo(2);
+        // Batch scenarios go through a terrain cache: on a miss as on a hit, the sequence stays a file region.
+        var cache = new TerrainCache(TerrainCache.DEFAULT_MAX_BYTES);
+        for (String name : List.of("first.txt", "second.txt")) {
+            Path input = directory.resolve(name);
+            var indiana = cache.read(input).players().get(1);
+            assertThat(indiana.moves().toString()).startsWith(input.toString());
+            assertThat(indiana.moves().length()).isEqualTo(moves.length());
+        }
+        assertThat(cache.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reject_a_parallelism_below_one() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> BatchRunner.run(List.of(), 0))
+                .withMessage("Parallelism must be positive: 0");
+    }
+}
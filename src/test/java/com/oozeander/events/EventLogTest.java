@@ -0,0 +1,140 @@
+package com.oozeander.events;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class EventLogTest {
+
+    private static TreasureMap map() {
+        var map = TreasureMap.builder().width(3).height(2).build();
+        map.addMountain(Coordinate.of(2, 1));
+        map.addTreasure(Coordinate.of(1, 0), (short) 1);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("AADA")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        map.addAdventurer(Adventurer.builder().name("Indiana").movementSequence("A")
+                .position(Coordinate.of(1, 1)).orientation(Direction.NORTH).build());
+        return map;
+    }
+
+    private static List<String> describe(ByteBuffer records) {
+        List<String> events = new ArrayList<>();
+        MoveEvent.forEach(records, (tick, adventurer, result, x, y, orientation, treasureCount) ->
+                events.add("%d %d %s %d-%d %s %d".formatted(tick, adventurer, result, x, y, orientation.value(), treasureCount)));
+        return events;
+    }
+
+    @Test
+    void should_log_every_move_of_a_simulation() throws IOException {
+        var sink = new MemoryEventSink();
+        try (var events = new EventLog(sink, OverflowPolicy.BLOCK, 2)) {
+            var simulation = new Simulation(map());
+            simulation.listener(events);
+            simulation.run();
+        }
+
+        assertThat(describe(sink.records())).containsExactly(
+                "0 0 COLLECTED 1-0 E 1",
+                "0 1 BLOCKED_BY_ADVENTURER 1-1 N 0",
+                "1 0 MOVED 2-0 E 1",
+                "2 0 TURNED 2-0 S 1",
+                "3 0 BLOCKED_BY_MOUNTAIN 2-0 S 1");
+    }
+
+    @Test
+    void should_replay_a_file_log(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("events.bin");
+        var memory = new MemoryEventSink();
+        try (var events = new EventLog(new FileEventSink(file), OverflowPolicy.BLOCK);
+             var copy = new EventLog(memory, OverflowPolicy.BLOCK)) {
+            var first = new Simulation(map());
+            first.listener(events);
+            first.run();
+            var second = new Simulation(map());
+            second.listener(copy);
+            second.run();
+        }
+        List<String> replayed = new ArrayList<>();
+        MoveEvent.replay(file, (tick, adventurer, result, x, y, orientation, treasureCount) -> replayed.add(tick + " " + result));
+
+        assertThat(Files.size(file)).isEqualTo(5L * MoveEvent.SIZE);
+        assertThat(replayed).containsExactly("0 COLLECTED", "0 BLOCKED_BY_ADVENTURER", "1 MOVED", "2 TURNED", "3 BLOCKED_BY_MOUNTAIN");
+        assertThat(memory.size()).isEqualTo(5);
+    }
+
+    @Test
+    void should_replay_a_file_log_one_segment_at_a_time(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("events.bin");
+        try (var events = new EventLog(new FileEventSink(file), OverflowPolicy.BLOCK)) {
+            var simulation = new Simulation(map());
+            simulation.listener(events);
+            simulation.run();
+        }
+        List<String> replayed = new ArrayList<>();
+        MoveEvent.replay(file, (tick, adventurer, result, x, y, orientation, treasureCount) -> replayed.add(tick + " " + result),
+                2 * MoveEvent.SIZE);
+
+        assertThat(replayed).containsExactly("0 COLLECTED", "0 BLOCKED_BY_ADVENTURER", "1 MOVED", "2 TURNED", "3 BLOCKED_BY_MOUNTAIN");
+
+        Files.write(file, new byte[]{0}, StandardOpenOption.APPEND);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MoveEvent.replay(file, (tick, adventurer, result, x, y, orientation, treasureCount) -> {
+                }, 2 * MoveEvent.SIZE))
+                .withMessage("Truncated move record at byte %d".formatted(5 * MoveEvent.SIZE));
+    }
+
+    @Test
+    void should_drop_events_while_the_sink_is_stalled() throws IOException, InterruptedException {
+        var stalled = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        List<Long> received = new ArrayList<>();
+        EventSink sink = new CallbackEventSink((tick, adventurer, result, x, y, orientation, treasureCount) -> {
+            stalled.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(tick);
+        });
+        var events = new EventLog(sink, OverflowPolicy.DROP, 4);
+        events.publish(0, 0, MoveResult.MOVED, 0, 0, Direction.NORTH, (short) 0);
+        stalled.await();
+        for (int tick = 1; tick <= 10; tick++)
+            events.publish(tick, 0, MoveResult.MOVED, 0, 0, Direction.NORTH, (short) 0);
+        release.countDown();
+        events.close();
+
+        assertThat(events.dropped()).isEqualTo(7);
+        assertThat(events.published()).isEqualTo(4);
+        assertThat(received).containsExactly(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void should_report_a_failing_sink_without_blocking_the_producer() {
+        var events = new EventLog(records -> {
+            throw new IOException("disk full");
+        }, OverflowPolicy.BLOCK, 1);
+        for (int tick = 0; tick < 100; tick++)
+            events.publish(tick, 0, MoveResult.TURNED, 0, 0, Direction.EAST, (short) 0);
+
+        assertThatExceptionOfType(IOException.class).isThrownBy(events::close).withMessage("disk full");
+    }
+}
@@ -0,0 +1,158 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MapChanges;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.ParallelSimulation;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MapDeltaTest {
+
+    private static final String INPUT = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            A - Lara - 1 - 1 - S - AADADAGGA
+            A - Indiana - 2 - 0 - N - A""";
+
+    private static TreasureMap read(String input) {
+        return TreasureMapReader.read(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String delta(TreasureMap treasureMap, MapChanges changes) throws IOException {
+        var output = new ByteArrayOutputStream();
+        long bytesWritten = TreasureMapWriter.writeDelta(treasureMap, changes, Channels.newChannel(output));
+        assertThat(bytesWritten).isEqualTo(output.size());
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static TreasureMap apply(String input, String delta) throws IOException {
+        TreasureMap treasureMap = read(input);
+        MapDelta.apply(treasureMap, new BufferedReader(new StringReader(delta)));
+        return treasureMap;
+    }
+
+    @Test
+    void should_only_write_changed_cells_and_adventurers() throws IOException {
+        TreasureMap treasureMap = read(INPUT);
+        var changes = treasureMap.trackChanges();
+        new Simulation(treasureMap).run();
+
+        String delta = delta(treasureMap, changes);
+
+        assertThat(delta).isEqualTo("""
+                C - 3 - 4
+                T - 0 - 3 - 0
+                T - 1 - 3 - 2
+                A - Lara - 0 - 3 - S - 3""");
+        assertThat(apply(INPUT, delta).toString()).isEqualTo(treasureMap.toString());
+    }
+
+    @Test
+    void should_rebuild_the_output_of_a_parallel_run() throws IOException {
+        var random = new Random(19);
+        var input = new StringBuilder("C - 60 - 40\n");
+        for (int i = 0; i < 300; i++)
+            input.append("T - %d - %d - %d\n".formatted(random.nextInt(60), random.nextInt(40), 1 + random.nextInt(3)));
+        for (int i = 0; i < 40; i++) {
+            var moves = new StringBuilder();
+            for (int move = 0; move < 200; move++)
+                moves.append("AAGD".charAt(random.nextInt(4)));
+            input.append("A - P%d - %d - %d - N - %s\n".formatted(i, i, 20 + i % 20, moves));
+        }
+        TreasureMap treasureMap = read(input.toString());
+        var changes = treasureMap.trackChanges();
+        new ParallelSimulation(treasureMap).run();
+
+        String delta = delta(treasureMap, changes);
+
+        assertThat(changes.treasureCellCount()).isPositive();
+        assertThat(apply(input.toString(), delta).toString()).isEqualTo(treasureMap.toString());
+    }
+
+    @Test
+    void should_apply_a_delta_file(@TempDir Path directory) throws IOException {
+        Path input = Files.writeString(directory.resolve("input"), INPUT);
+        Path delta = directory.resolve("delta");
+        Path output = directory.resolve("output");
+        TreasureMap treasureMap = TreasureMapReader.read(input);
+        var changes = treasureMap.trackChanges();
+        new Simulation(treasureMap).run();
+        TreasureMapWriter.writeDelta(treasureMap, changes, delta);
+
+        long bytesWritten = MapDelta.apply(input, delta, output);
+
+        assertThat(Files.readString(output)).isEqualTo(treasureMap.toString());
+        assertThat(bytesWritten).isEqualTo(Files.size(output));
+    }
+
+    @Test
+    void should_apply_a_delta_to_a_snapshot_input(@TempDir Path directory) throws IOException {
+        Path input = directory.resolve("input.snapshot");
+        Path delta = directory.resolve("delta");
+        Path output = directory.resolve("output");
+        MapSnapshot.write(read(INPUT), input);
+        TreasureMap treasureMap = read(INPUT);
+        var changes = treasureMap.trackChanges();
+        new Simulation(treasureMap).run();
+        TreasureMapWriter.writeDelta(treasureMap, changes, delta);
+
+        MapDelta.apply(input, delta, output);
+
+        assertThat(Files.readString(output)).isEqualTo(treasureMap.toString());
+    }
+
+    @Test
+    void should_reject_maps_with_duplicate_adventurer_names() {
+        var treasureMap = TreasureMap.builder().width(2).height(1).build();
+        for (int x = 0; x < 2; x++)
+            treasureMap.addAdventurer(Adventurer.builder().name("Lara").movementSequence("G")
+                    .position(Coordinate.of(x, 0)).orientation(Direction.NORTH).build());
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MapDelta.apply(treasureMap, new BufferedReader(new StringReader("C - 2 - 1\n"))))
+                .withMessage("Adventurer names must be unique for a delta: Lara");
+    }
+
+    @Test
+    void should_report_unchanged_adventurers_as_such() {
+        var treasureMap = TreasureMap.builder().width(2).height(1).build();
+        treasureMap.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A")
+                .position(Coordinate.of(0, 0)).orientation(Direction.NORTH).build());
+        var changes = treasureMap.trackChanges();
+        new Simulation(treasureMap).run();
+
+        assertThat(changes.adventurers()).isEmpty();
+        assertThat(changes.treasureCellCount()).isZero();
+    }
+
+    @Test
+    void should_reject_a_delta_for_another_map() {
+        assertThatExceptionOfType(InputFormatException.class)
+                .isThrownBy(() -> apply(INPUT, "C - 4 - 4\n"))
+                .withMessage("The delta is for a 4x4 map, the input map is 3x4 (line 1, column 1)");
+        assertThatExceptionOfType(InputFormatException.class)
+                .isThrownBy(() -> apply(INPUT, "C - 3 - 4\nA - Croft - 0 - 0 - N - 1\n"))
+                .withMessage("Unknown adventurer: Croft (line 2, column 1)");
+    }
+}
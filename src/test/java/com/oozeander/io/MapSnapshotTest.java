@@ -0,0 +1,122 @@
+package com.oozeander.io;
+
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MapSnapshotTest {
+
+    private static final String INPUT = """
+            C - 130 - 70
+            M - 1 - 0
+            M - 2 - 1
+            M - 129 - 69
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            T - 100 - 60 - 7
+            A - Lara - 1 - 1 - S - AADADAGGA
+            A - Zoé - 100 - 50 - S - AAAAAAAAAAAA
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path snapshot;
+
+    private static TreasureMap parse() {
+        return TreasureMapReader.read(ByteBuffer.wrap(INPUT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = directory.resolve("map.snapshot");
+        MapSnapshot.write(parse(), snapshot);
+    }
+
+    @Test
+    void should_round_trip_terrain_and_adventurers() throws IOException {
+        assertThat(MapSnapshot.isSnapshot(snapshot)).isTrue();
+        assertThat(MapSnapshot.open(snapshot).newMap().toString()).isEqualTo(parse().toString());
+    }
+
+    @Test
+    void should_simulate_like_the_text_map_and_leave_the_shared_layers_untouched() throws IOException {
+        var opened = MapSnapshot.open(snapshot);
+        var expected = parse();
+        new Simulation(expected).run();
+
+        var first = opened.newMap();
+        new Simulation(first).run();
+        var second = opened.newMap();
+
+        assertThat(first.toString()).isEqualTo(expected.toString());
+        assertThat(second.treasureCount(Coordinate.of(100, 60))).isEqualTo((short) 7);
+        assertThat(second.treasureCount(Coordinate.of(1, 3))).isEqualTo((short) 3);
+        assertThat(((CopyOnWriteTerrain) first.terrain()).pagesCopied()).isEqualTo(2);
+        assertThat(((CopyOnWriteTerrain) second.terrain()).pagesCopied()).isZero();
+    }
+
+    @Test
+    void should_reject_other_files() throws IOException {
+        Path text = Files.writeString(directory.resolve("input"), INPUT);
+
+        assertThat(MapSnapshot.isSnapshot(text)).isFalse();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MapSnapshot.open(text))
+                .withMessageStartingWith("Not a treasure map snapshot");
+    }
+
+    @Test
+    void should_reject_maps_too_large_for_a_snapshot() {
+        Path output = directory.resolve("large.snapshot");
+        var chunked = TreasureMap.builder().width(1 << 20).height(1 << 20).build();
+        chunked.addTreasure(Coordinate.of(1 << 19, 1 << 19), (short) 1);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MapSnapshot.write(chunked, output))
+                .withMessage("Map too large for a snapshot: 1048576 x 1048576");
+        assertThat(output).doesNotExist();
+    }
+
+    @Test
+    void should_snapshot_chunked_maps_that_fit_in_a_grid() throws IOException {
+        Path output = directory.resolve("wide.snapshot");
+        var chunked = TreasureMap.builder().width(1 << 16).height(2).build();
+        chunked.addMountain(Coordinate.of(1, 0));
+        chunked.addTreasure(Coordinate.of((1 << 16) - 1, 1), (short) 4);
+
+        assertThat(chunked.terrain().layout()).isEqualTo(StorageLayout.CHUNKED);
+        MapSnapshot.write(chunked, output);
+
+        assertThat(MapSnapshot.open(output).newMap().toString()).isEqualTo(chunked.toString());
+    }
+
+    @Test
+    void should_reject_snapshots_whose_length_does_not_match_the_header() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Path truncated = Files.write(directory.resolve("truncated.snapshot"), Arrays.copyOf(bytes, bytes.length - 3));
+        Path extended = Files.write(directory.resolve("extended.snapshot"), Arrays.copyOf(bytes, bytes.length + 8));
+        Path header = Files.write(directory.resolve("header.snapshot"), Arrays.copyOf(bytes, MapSnapshot.HEADER_SIZE));
+
+        for (Path corrupted : List.of(truncated, extended, header))
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> MapSnapshot.open(corrupted))
+                    .withMessageStartingWith("Corrupted snapshot");
+    }
+}
@@ -0,0 +1,85 @@
+package com.oozeander.io;
+
+import com.oozeander.model.CopyOnWriteTerrain;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TerrainCacheTest {
+
+    private static final String TERRAIN = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            """;
+
+    private static ByteBuffer buffer(String input) {
+        return ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String simulate(TreasureMap treasureMap) {
+        new Simulation(treasureMap).run();
+        return treasureMap.toString();
+    }
+
+    @Test
+    void should_only_parse_adventurers_when_the_terrain_is_cached() {
+        var cache = new TerrainCache(TerrainCache.DEFAULT_MAX_BYTES);
+        String first = TERRAIN + "A - Lara - 1 - 1 - S - AADADAGGA\n";
+        String second = TERRAIN + "A - Indiana - 0 - 0 - E - DAAA\n";
+
+        assertThat(simulate(cache.read(buffer(first)))).isEqualTo(simulate(TreasureMapReader.read(buffer(first))));
+        assertThat(simulate(cache.read(buffer(second)))).isEqualTo(simulate(TreasureMapReader.read(buffer(second))));
+        assertThat(simulate(cache.read(buffer(first)))).isEqualTo(simulate(TreasureMapReader.read(buffer(first))));
+        assertThat(cache.misses()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_share_collected_treasures_between_maps() {
+        var cache = new TerrainCache(TerrainCache.DEFAULT_MAX_BYTES);
+        String input = TERRAIN + "A - Lara - 0 - 2 - S - A\n";
+        cache.read(buffer(input));
+        TreasureMap first = cache.read(buffer(input));
+        new Simulation(first).run();
+        TreasureMap second = cache.read(buffer(input));
+
+        assertThat(first.treasureCount(0, 3)).isEqualTo((short) 1);
+        assertThat(second.treasureCount(0, 3)).isEqualTo((short) 2);
+    }
+
+    @Test
+    void should_ignore_comments_blank_lines_and_adventurers_in_the_key() {
+        String commented = "# Same terrain\n\n" + TERRAIN.replace("M - 2 - 1\n", "  M - 2 - 1\r\n") + "A - Lara - 1 - 1 - S - A\n";
+
+        assertThat(TerrainCache.key(buffer(commented))).isEqualTo(TerrainCache.key(buffer(TERRAIN)));
+        assertThat(TerrainCache.key(buffer(TERRAIN.replace("M - 2 - 1", "M - 2 - 2"))))
+                .isNotEqualTo(TerrainCache.key(buffer(TERRAIN)));
+    }
+
+    @Test
+    void should_evict_the_least_recently_used_terrain() {
+        String small = "C - 8 - 8\n";
+        String other = "C - 8 - 9\n";
+        String third = "C - 9 - 8\n";
+        var cache = new TerrainCache(2 * CopyOnWriteTerrain.Base.bytes(9, 8));
+        cache.read(buffer(small));
+        cache.read(buffer(other));
+        cache.read(buffer(small));
+        cache.read(buffer(third));
+
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+        cache.read(buffer(small));
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(2 * CopyOnWriteTerrain.Base.bytes(9, 8));
+    }
+}
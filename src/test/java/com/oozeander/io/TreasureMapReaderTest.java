@@ -0,0 +1,175 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class TreasureMapReaderTest {
+
+    private static final String INPUT = """
+            # Map of the example
+            C - 3 - 4
+            M - 1 - 0
+            # Mountains first, then treasures
+            M - 2 - 1
+            T - 0 - 3 - 2
+            \tT - 1 - 3 - 3\r
+            
+            A - Lara Croft - 1 - 1 - S - AADADAGGA
+            """;
+
+    private static TreasureMap read(String input) {
+        return TreasureMapReader.read(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Stream<Arguments> should_report_line_and_column_of_errors() {
+        return Stream.of(
+                Arguments.of("M - 1 - 1", "The map dimensions (C line) must be declared first (line 1, column 1)"),
+                Arguments.of("C - 3 - 4\nX - 1 - 1", "Unknown type: X (line 2, column 1)"),
+                Arguments.of("C - 3 - 4\nMM - 1 - 1", "Unknown type: MM (line 2, column 1)"),
+                Arguments.of("C - 3 - 4\nM - 1 -1", "Expected ' - ' (line 2, column 6)"),
+                Arguments.of("C - 3 - 4\nT - 1 - x - 2", "Expected a number (line 2, column 9)"),
+                Arguments.of("C - 3 - 4\nT - 1 - 1 - 99999", "Number out of range (line 2, column 13)"),
+                Arguments.of("C - 3 - 4\nA - Lara - 1 - 1 - Q - A", "Invalid orientation provided: Q (line 2, column 20)"),
+                Arguments.of("C - 3 - 4\nA - Lara - 1 - 1 - S - AAZ", "Invalid move: Z (line 2, column 26)"),
+                Arguments.of("C - 3 - 4\nM - 1 - 1 - 1", "Unexpected content at end of line (line 2, column 11)"),
+                Arguments.of("C - 3 - 4\nM - 1 - 1\nM - 1 - 1", "The given coordinates are already taken by a mountain ! (line 3, column 1)"),
+                Arguments.of("# only a comment", "The map dimensions (C line) must be declared first (line 1, column 1)")
+        );
+    }
+
+    @Test
+    void should_parse_every_line_type_and_skip_comments_anywhere() {
+        var map = read(INPUT);
+
+        assertThat(map.width()).isEqualTo(3);
+        assertThat(map.height()).isEqualTo(4);
+        assertThat(map.mountains()).containsExactlyInAnyOrder(Coordinate.of(1, 0), Coordinate.of(2, 1));
+        assertThat(map.treasureCount(Coordinate.of(0, 3))).isEqualTo((short) 2);
+        assertThat(map.treasureCount(Coordinate.of(1, 3))).isEqualTo((short) 3);
+        assertThat(map.players()).singleElement().satisfies(player -> {
+            assertThat(player.name()).isEqualTo("Lara Croft");
+            assertThat(player.position()).isEqualTo(Coordinate.of(1, 1));
+            assertThat(player.orientation()).isEqualTo(Direction.SOUTH);
+            assertThat(player.movementSequence()).isEqualTo("AADADAGGA");
+        });
+    }
+
+    @Test
+    void should_parse_coordinates_beyond_the_short_range() {
+        var map = read("""
+                C - 100000 - 80000
+                M - 99999 - 79999
+                T - 40000 - 0 - 2
+                A - Lara - 65536 - 32768 - N - A
+                """);
+
+        assertThat(map.isMountain(99_999, 79_999)).isTrue();
+        assertThat(map.isMountain(34_463, 14_463)).isFalse();
+        assertThat(map.treasureCount(40_000, 0)).isEqualTo((short) 2);
+        assertThat(map.players().get(0).position()).isEqualTo(Coordinate.of(65_536, 32_768));
+    }
+
+    @Test
+    void should_parse_files_across_several_windows(@TempDir Path directory) throws IOException {
+        var builder = new StringBuilder("C - 300 - 300\n");
+        for (int i = 0; i < 300; i++)
+            builder.append("T - %d - %d - %d\n".formatted(i, i, i + 1));
+        Path input = Files.writeString(directory.resolve("input"), builder);
+
+        var map = TreasureMapReader.read(input, 64);
+
+        assertThat(map.treasures()).hasSize(300);
+        assertThat(map.treasureCount(Coordinate.of(299, 299))).isEqualTo((short) 300);
+    }
+
+    @Test
+    void should_leave_long_movement_sequences_in_the_file(@TempDir Path directory) throws IOException {
+        String moves = "AD".repeat(TreasureMapReader.LAZY_SEQUENCE_LENGTH / 2) + "GA";
+        Path input = Files.writeString(directory.resolve("input"),
+                "C - 3 - 3\nA - Short - 0 - 0 - S - AGD\nA - Long - 1 - 1 - N - %s\n".formatted(moves));
+
+        var map = TreasureMapReader.read(input, 1 << 16);
+
+        assertThat(map.players().get(0).moves()).isEqualTo(MovementSequence.of("AGD"));
+        assertThat(map.players().get(1).moves().toString()).startsWith(input.toString());
+        assertThat(map.players().get(1).moves().length()).isEqualTo(moves.length());
+        assertThat(map.players().get(1).movementSequence()).isEqualTo(moves);
+    }
+
+    @Test
+    void should_pick_the_layout_of_large_maps_from_their_content(@TempDir Path directory) throws IOException {
+        int width = 4097, height = 4096;
+        long dense = StorageLayout.AUTO.denseContentCount(width, height);
+        var input = new StringBuilder("C - %d - %d\n".formatted(width, height));
+        for (int i = 0; i < dense; i++)
+            input.append((i % 2 == 0 ? "M - %d - %d\n" : "T - %d - %d - 1\n").formatted(i % width, i / width));
+        Path denseInput = Files.writeString(directory.resolve("dense"), input);
+        Path sparseInput = Files.writeString(directory.resolve("sparse"), input.substring(0, input.lastIndexOf("\n", input.length() / 2) + 1));
+
+        assertThat(read(input.toString()).terrain().layout()).isEqualTo(StorageLayout.GRID);
+        assertThat(TreasureMapReader.read(denseInput, 1 << 16).terrain().layout()).isEqualTo(StorageLayout.GRID);
+        assertThat(TreasureMapReader.read(sparseInput, 1 << 16).terrain().layout()).isEqualTo(StorageLayout.SPARSE);
+    }
+
+    @Test
+    void should_report_every_invalid_element_with_its_line() {
+        assertThatExceptionOfType(InputFormatException.class)
+                .isThrownBy(() -> read("""
+                        C - 3 - 4
+                        M - 1 - 1
+                        T - 5 - 0 - 1
+                        M - 1 - 1
+                        A - Lara - 1 - 1 - S - A
+                        A - Lara - 0 - 0 - S - A
+                        """))
+                .withMessage("""
+                        4 invalid map elements:
+                        T - 5 - 0: The given coordinates are not within the treasure map ! (line 3, column 1)
+                        M - 1 - 1: The given coordinates are already taken by a mountain ! (line 4, column 1)
+                        A - Lara - 1 - 1: The given coordinates are already taken by a mountain ! (line 5, column 1)
+                        A - Lara - 0 - 0: An adventurer with this name already exists ! (line 6, column 1)""")
+                .satisfies(e -> assertThat(e.line()).isEqualTo(3));
+    }
+
+    @Test
+    void should_report_conflicts_between_batches() {
+        var input = new StringBuilder("C - 100 - 100\nM - 0 - 0\nM - 200 - 0\n");
+        for (int i = 1; i <= TreasureMapReader.BATCH_SIZE * 2; i++)
+            input.append("M - %d - %d\n".formatted(i % 100, i / 100));
+        input.append("T - 0 - 0 - 1\nM - 0 - 0\n");
+
+        assertThatExceptionOfType(InputFormatException.class)
+                .isThrownBy(() -> read(input.toString()))
+                .withMessage("""
+                        3 invalid map elements:
+                        M - 200 - 0: The given coordinates are not within the treasure map ! (line 3, column 1)
+                        T - 0 - 0: The given coordinates are already taken by a mountain ! (line 8196, column 1)
+                        M - 0 - 0: The given coordinates are already taken by a mountain ! (line 8197, column 1)""");
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void should_report_line_and_column_of_errors(String input, String message) {
+        assertThatExceptionOfType(InputFormatException.class)
+                .isThrownBy(() -> read(input))
+                .withMessage(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.oozeander.io;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TreasureMapWriterTest {
+
+    private static String write(TreasureMap treasureMap) throws IOException {
+        var output = new ByteArrayOutputStream();
+        long bytesWritten = TreasureMapWriter.write(treasureMap, Channels.newChannel(output));
+        assertThat(bytesWritten).isEqualTo(output.size());
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Adventurer adventurer(String name, int x, int y) {
+        return Adventurer.builder()
+                .name(name)
+                .movementSequence("A")
+                .position(Coordinate.of(x, y))
+                .orientation(Direction.NORTH)
+                .treasureCount((short) 12)
+                .build();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageLayout.class, names = {"GRID", "SPARSE"})
+    void should_write_cells_sorted_by_coordinate_and_adventurers_in_insertion_order(StorageLayout layout) throws IOException {
+        var map = TreasureMap.builder().width(3).height(4).layout(layout).build();
+        map.addMountain(Coordinate.of(2, 1));
+        map.addMountain(Coordinate.of(1, 0));
+        map.addTreasure(Coordinate.of(1, 3), (short) 3);
+        map.addTreasure(Coordinate.of(0, 3), (short) 2);
+        map.addTreasure(Coordinate.of(0, 2), (short) 0);
+        map.addAdventurer(adventurer("Zoé", 2, 3));
+        map.addAdventurer(adventurer("Lara", 0, 0));
+
+        assertThat(write(map)).isEqualTo("""
+                C - 3 - 4
+                M - 1 - 0
+                M - 2 - 1
+                T - 0 - 3 - 2
+                T - 1 - 3 - 3
+                A - Zoé - 2 - 3 - N - 12
+                A - Lara - 0 - 0 - N - 12""");
+    }
+
+    @Test
+    void should_match_string_representation_beyond_buffer_size() throws IOException {
+        var map = TreasureMap.builder().width(1000).height(100).build();
+        for (int x = 0; x < 1000; x++)
+            map.addTreasure(Coordinate.of(x, x % 100), (short) (x * 31));
+
+        assertThat(write(map)).isEqualTo(map.toString());
+    }
+}
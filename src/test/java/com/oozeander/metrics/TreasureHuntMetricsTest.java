@@ -0,0 +1,99 @@
+package com.oozeander.metrics;
+
+import com.oozeander.TreasureHunt;
+import com.oozeander.server.TreasureHuntServer;
+import com.oozeander.simulation.Engine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TreasureHuntMetricsTest {
+
+    private static final String SCENARIO = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            A - Lara - 1 - 1 - S - AADADAGGA
+            A - Indiana - 0 - 2 - E - AGGA
+            """;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        TreasureHuntMetrics.disable();
+    }
+
+    @Test
+    void should_be_disabled_by_default() {
+        assertThat(TreasureHuntMetrics.active()).isNull();
+    }
+
+    @Test
+    void should_count_moves_by_outcome_and_expose_them_through_jmx() throws Exception {
+        Path input = Files.writeString(directory.resolve("input"), SCENARIO);
+        var metrics = TreasureHuntMetrics.enable();
+
+        long bytesWritten = TreasureHunt.run(input.toString(), directory.resolve("output").toString(), Engine.SEQUENTIAL);
+
+        assertThat(metrics.getScenarios()).isEqualTo(1);
+        assertThat(metrics.getMoves()).isEqualTo(13);
+        assertThat(metrics.getTreasurePickups()).isEqualTo(2);
+        assertThat(metrics.getBlockedByMountain()).isEqualTo(0);
+        assertThat(metrics.getBlockedByAdventurer()).isEqualTo(2);
+        assertThat(metrics.getBlockedByBoundary()).isEqualTo(2);
+        assertThat(metrics.getBytesRead()).isEqualTo(Files.size(input));
+        assertThat(metrics.getBytesWritten()).isEqualTo(bytesWritten);
+        assertThat(ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(TreasureHuntMetrics.OBJECT_NAME), "TreasurePickups"))
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void should_record_scenarios_of_every_run_path() throws Exception {
+        Path input = Files.writeString(directory.resolve("input"), SCENARIO);
+        var metrics = TreasureHuntMetrics.enable();
+
+        TreasureHunt.run(input.toString(), directory.resolve("logged").toString(), directory.resolve("events"));
+        TreasureHunt.run(input.toString(), directory.resolve("checkpointed").toString(), directory.resolve("checkpoints"), 2);
+        try (var server = TreasureHuntServer.start(0, 1, 1)) {
+            HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:%d/simulate".formatted(server.port())))
+                    .POST(HttpRequest.BodyPublishers.ofString(SCENARIO)).build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        assertThat(metrics.getScenarios()).isEqualTo(3);
+        assertThat(metrics.getMoves()).isEqualTo(3 * 13);
+        assertThat(metrics.getBytesRead()).isEqualTo(3 * Files.size(input));
+    }
+
+    @Test
+    void should_write_json_summary() throws IOException {
+        var metrics = TreasureHuntMetrics.enable();
+        metrics.recordScenario(10, 2_000_000_000L, 100, 50);
+        long[] counters = TreasureHuntMetrics.newMoveCounters();
+        counters[0] = 3_000_000_000L;
+        metrics.recordMoves(counters);
+
+        metrics.writeJson(directory.resolve("metrics.json"));
+
+        assertThat(directory.resolve("metrics.json")).content()
+                .contains("\"moves\": 3000000000,")
+                .contains("\"movesPerSecond\": 1500000000.0,")
+                .contains("\"bytesWritten\": 50");
+    }
+}
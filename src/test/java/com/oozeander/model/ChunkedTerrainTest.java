@@ -0,0 +1,93 @@
+package com.oozeander.model;
+
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ChunkedTerrainTest {
+
+    @Test
+    void should_answer_like_a_grid() {
+        var random = new Random(5);
+        var grid = new GridTerrain(200, 150);
+        var chunked = new ChunkedTerrain(200, 150);
+        for (int i = 0; i < 600; i++) {
+            int x = random.nextInt(200), y = random.nextInt(150);
+            if (random.nextBoolean()) {
+                grid.addMountain(x, y);
+                chunked.addMountain(x, y);
+            } else if (!grid.isMountain(x, y)) {
+                short count = (short) random.nextInt(4);
+                grid.treasureCount(x, y, count);
+                chunked.treasureCount(x, y, count);
+            }
+        }
+
+        for (int query = 0; query < 2000; query++) {
+            int x = random.nextInt(200), y = random.nextInt(150);
+            Direction direction = Direction.values()[random.nextInt(4)];
+            int edge = switch (direction) {
+                case NORTH -> y;
+                case SOUTH -> 149 - y;
+                case EAST -> 199 - x;
+                case WEST -> x;
+            };
+            int limit = random.nextInt(edge + 1);
+            assertThat(chunked.isMountain(x, y)).isEqualTo(grid.isMountain(x, y));
+            assertThat(chunked.treasureCount(x, y)).isEqualTo(grid.treasureCount(x, y));
+            assertThat(chunked.clearance(x, y, direction, limit)).isEqualTo(grid.clearance(x, y, direction, limit));
+            assertThat(chunked.treasureDistance(x, y, direction, limit)).isEqualTo(grid.treasureDistance(x, y, direction, limit));
+        }
+        assertThat(chunked.mountainCount()).isEqualTo(grid.mountainCount());
+        assertThat(chunked.treasureCellCount()).isEqualTo(grid.treasureCellCount());
+        assertThat(cells(chunked)).isEqualTo(cells(grid));
+    }
+
+    private static List<String> cells(Terrain terrain) {
+        List<String> cells = new ArrayList<>();
+        terrain.forEachMountain((x, y) -> cells.add("M %d %d".formatted(x, y)));
+        terrain.forEachTreasure((x, y, count) -> cells.add("T %d %d %d".formatted(x, y, count)));
+        return cells;
+    }
+
+    @Test
+    void should_only_allocate_tiles_with_content() {
+        var terrain = new ChunkedTerrain(100_000, 100_000);
+        terrain.addMountain(99_999, 99_999);
+        terrain.addMountain(99_998, 99_999);
+        terrain.treasureCount(40_000, 70_000, (short) 3);
+        terrain.treasureCount(5, 5, (short) 0);
+
+        assertThat(terrain.tileCount()).isEqualTo(2);
+        assertThat(terrain.isMountain(99_999, 99_999)).isTrue();
+        assertThat(terrain.treasureCount(40_000, 70_000)).isEqualTo((short) 3);
+        assertThat(terrain.clearance(99_900, 99_999, Direction.EAST, 99)).isEqualTo(97);
+        assertThat(terrain.treasureDistance(40_000, 0, Direction.SOUTH, 99_999)).isEqualTo(70_000);
+        assertThat(cells(terrain)).containsExactly("M 99998 99999", "M 99999 99999", "T 40000 70000 3");
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> terrain.addMountain(100_000, 0));
+    }
+
+    @Test
+    void should_simulate_a_map_beyond_short_coordinates() {
+        var map = TreasureMap.builder().width(100_000).height(100_000).build();
+        map.addMountain(Coordinate.of(70_005, 40_000));
+        map.addTreasure(Coordinate.of(70_002, 40_000), (short) 20_000);
+        map.addAdventurer(Adventurer.builder().name("Lara").position(Coordinate.of(70_000, 40_000))
+                .orientation(Direction.EAST).movementSequence("AAAAAAA").build());
+
+        new Simulation(map).run();
+
+        assertThat(map.terrain()).isInstanceOf(ChunkedTerrain.class);
+        assertThat(map.toString()).isEqualTo("""
+                C - 100000 - 100000
+                M - 70005 - 40000
+                T - 70002 - 40000 - 19999
+                A - Lara - 70004 - 40000 - E - 1""");
+    }
+}
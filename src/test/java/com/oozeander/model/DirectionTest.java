@@ -1,6 +1,7 @@
 package com.oozeander.model;
 
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,4 +22,13 @@ public class DirectionTest {
                     .withMessage("Invalid orientation provided: %s".formatted(value));
         }
     }
+
+    @ParameterizedTest
+    @EnumSource(Direction.class)
+    void should_rotate_back_and_forth(Direction direction) {
+        assertThat(direction.left().right()).isEqualTo(direction);
+        assertThat(direction.right().right().right().right()).isEqualTo(direction);
+        assertThat(direction.right().dx()).isEqualTo(-direction.dy());
+        assertThat(direction.right().dy()).isEqualTo(direction.dx());
+    }
 }
@@ -0,0 +1,102 @@
+package com.oozeander.model;
+
+import com.oozeander.simulation.ParallelSimulation;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class MoveKernelTest {
+
+    // Crowded on purpose, so that adventurers block each other as well as mountains and edges.
+    private static TreasureMap randomMap(long seed, StorageLayout layout) {
+        return RandomMaps.builder().seed(seed).width(40).height(30).layout(layout).terrainCells(300)
+                .adventurers(80).sequenceLength(500).build();
+    }
+
+    private static List<String> run(TreasureMap treasureMap, boolean specialized) {
+        List<String> events = new ArrayList<>();
+        var simulation = new Simulation(treasureMap);
+        simulation.specialized(specialized);
+        simulation.listener((tick, adventurer, result, x, y, orientation, treasureCount) ->
+                events.add("%d %d %s %d-%d %s %d".formatted(tick, adventurer, result, x, y, orientation.value(), treasureCount)));
+        simulation.run();
+        return events;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageLayout.class, names = {"GRID", "SPARSE", "CHUNKED"})
+    void should_play_every_move_like_the_interpreter(StorageLayout layout) {
+        for (long seed = 0; seed < 5; seed++) {
+            var interpreted = randomMap(seed, layout);
+            var specialized = randomMap(seed, layout);
+
+            List<String> expected = run(interpreted, false);
+
+            assertThat(run(specialized, true)).isEqualTo(expected);
+            assertThat(specialized.toString()).isEqualTo(interpreted.toString());
+        }
+    }
+
+    @Test
+    void should_match_the_interpreter_in_parallel() {
+        var interpreted = randomMap(7, StorageLayout.GRID);
+        var specialized = randomMap(7, StorageLayout.GRID);
+
+        new Simulation(interpreted).run();
+        var simulation = new ParallelSimulation(specialized);
+        simulation.specialized(true);
+        simulation.run();
+
+        assertThat(specialized.toString()).isEqualTo(interpreted.toString());
+    }
+
+    @Test
+    void should_pick_a_kernel_per_terrain() {
+        assertThat(MoveKernel.of(TreasureMap.builder().width(4).height(4).layout(StorageLayout.GRID).build()))
+                .isInstanceOf(MoveKernel.VECTOR_API ? VectorGridMoveKernel.class : GridMoveKernel.class);
+        assertThat(MoveKernel.of(TreasureMap.builder().width(4).height(4).layout(StorageLayout.SPARSE).build()))
+                .isInstanceOf(SparseMoveKernel.class);
+        assertThat(MoveKernel.of(TreasureMap.builder().width(4).height(4).layout(StorageLayout.CHUNKED).build()))
+                .isInstanceOf(TerrainMoveKernel.class);
+    }
+
+    @Test
+    void should_probe_like_the_scalar_kernel_with_the_vector_api() {
+        assumeTrue(MoveKernel.VECTOR_API, "needs --add-modules jdk.incubator.vector");
+        var map = randomMap(3, StorageLayout.GRID);
+        var terrain = (GridTerrain) map.terrain();
+        var random = new Random(3);
+        // Not a multiple of any vector length, so that the scalar tail runs too.
+        int count = 1001;
+        int[] xs = new int[count], ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = random.nextInt(44) - 2;
+            ys[i] = random.nextInt(34) - 2;
+        }
+        byte[] expected = new byte[count], actual = new byte[count];
+
+        new GridMoveKernel(map, terrain).probe(xs, ys, count, expected);
+        new VectorGridMoveKernel(map, terrain).probe(xs, ys, count, actual);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void should_reject_an_invalid_move() {
+        var map = TreasureMap.builder().width(2).height(2).layout(StorageLayout.GRID).build();
+        var player = Adventurer.builder().name("Lara").position(Coordinate.of(0, 0)).orientation(Direction.EAST).build();
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MoveKernel.of(map).moveOnce(player, 'X', Occupancy.NONE))
+                .withMessage("Invalid turn provided: X");
+    }
+}
@@ -0,0 +1,90 @@
+package com.oozeander.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MovementSequenceTest {
+
+    private static String readInChunks(MovementSequence sequence, int chunkSize) {
+        var builder = new StringBuilder();
+        byte[] chunk = new byte[chunkSize];
+        for (long from = 0; from < sequence.length(); ) {
+            int read = sequence.read(from, chunk, 0, chunk.length);
+            for (int i = 0; i < read; i++)
+                builder.append((char) chunk[i]);
+            from += read;
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void should_read_a_file_region(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("moves"), "A - Lara - AADAG\n");
+
+        var sequence = MovementSequence.fileRegion(file, 11, 5);
+
+        assertThat(sequence.length()).isEqualTo(5);
+        assertThat(readInChunks(sequence, 2)).isEqualTo("AADAG");
+        assertThat(sequence.count('A')).isEqualTo(3);
+    }
+
+    @Test
+    void should_reject_a_region_past_the_end_of_the_file(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("moves"), "A - Lara - AADAG\n");
+
+        var sequence = MovementSequence.fileRegion(file, 11, 50);
+
+        assertThatExceptionOfType(UncheckedIOException.class)
+                .isThrownBy(() -> readInChunks(sequence, 8))
+                .withMessageEndingWith("ends before the movement sequence");
+    }
+
+    @Test
+    void should_read_a_string_in_chunks() {
+        assertThat(readInChunks(MovementSequence.of("AADAGGA"), 3)).isEqualTo("AADAGGA");
+    }
+
+    @Test
+    void should_generate_moves_from_their_index() {
+        var sequence = MovementSequence.generated(6, index -> index % 3 == 2 ? 'D' : 'A');
+
+        assertThat(readInChunks(sequence, 4)).isEqualTo("AADAAD");
+    }
+
+    @Test
+    void should_generate_the_same_random_moves_for_the_same_seed() {
+        String first = MovementSequence.random(10_000, 42).asString();
+
+        assertThat(MovementSequence.random(10_000, 42).asString()).isEqualTo(first);
+        assertThat(MovementSequence.random(10_000, 43).asString()).isNotEqualTo(first);
+        assertThat(first).matches("[AGD]+").contains("A", "G", "D");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 64})
+    void should_expand_run_length_sequences_whatever_the_chunk_size(int chunkSize) {
+        var sequence = MovementSequence.runLength("3A2DG12A");
+
+        assertThat(sequence.length()).isEqualTo(18);
+        assertThat(sequence.count('A')).isEqualTo(15);
+        assertThat(readInChunks(sequence, chunkSize)).isEqualTo("AAADDG" + "A".repeat(12));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"3", "0A", "2X", "A-"})
+    void should_reject_invalid_run_length_sequences(String encoded) {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MovementSequence.runLength(encoded))
+                .withMessageStartingWith("Invalid run-length sequence");
+    }
+}
@@ -0,0 +1,78 @@
+package com.oozeander.model;
+
+import lombok.Builder;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded random maps for the tests that compare two engines on the same map: the same arguments
+ * always build the same map.
+ */
+public final class RandomMaps {
+
+    public static final String MOVES = "AAAGD";
+
+    private RandomMaps() {
+    }
+
+    /**
+     * Tries {@code terrainCells} random cells, skipping those already taken or equal to {@code clear}:
+     * one in {@code mountainOdds} becomes a mountain, the others hold 1 to 3 treasures.
+     * Then tries {@code adventurers} random starts, over the whole map or, with {@code clusters},
+     * per cluster within a square of {@code spread} cells. Each adventurer plays {@code sequenceLength}
+     * moves drawn from {@code moves}, or a random number below it with {@code shorterSequences}.
+     */
+    @Builder
+    private static TreasureMap randomMap(long seed, int width, int height, StorageLayout layout,
+                                         int terrainCells, int mountainOdds, Coordinate clear,
+                                         int adventurers, int clusters, int spread, String moves,
+                                         int sequenceLength, boolean shorterSequences, boolean startingTreasures) {
+        var random = new Random(seed);
+        var map = TreasureMap.builder().width(width).height(height).layout(layout).build();
+        for (int i = 0; i < terrainCells; i++) {
+            var coordinate = Coordinate.of(random.nextInt(width), random.nextInt(height));
+            if (map.isMountain(coordinate) || map.treasureCount(coordinate) != 0 || coordinate.equals(clear))
+                continue;
+            if (random.nextInt(mountainOdds == 0 ? 2 : mountainOdds) == 0)
+                map.addMountain(coordinate);
+            else
+                map.addTreasure(coordinate, (short) (1 + random.nextInt(3)));
+        }
+        var players = new Players(map, random, moves == null ? MOVES : moves, sequenceLength, shorterSequences, startingTreasures, new HashSet<>());
+        if (clusters == 0)
+            for (int i = 0; i < adventurers; i++)
+                players.add("A" + i, Coordinate.of(random.nextInt(width), random.nextInt(height)));
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            int centerX = random.nextInt(width - spread), centerY = random.nextInt(height - spread);
+            for (int i = 0; i < adventurers; i++)
+                players.add("A%d-%d".formatted(cluster, i), Coordinate.of(centerX + random.nextInt(spread), centerY + random.nextInt(spread)));
+        }
+        return map;
+    }
+
+    public static String sequence(Random random, String moves, int length) {
+        var sequence = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sequence.append(moves.charAt(random.nextInt(moves.length())));
+        return sequence.toString();
+    }
+
+    private record Players(TreasureMap map, Random random, String moves, int sequenceLength,
+                           boolean shorterSequences, boolean startingTreasures, Set<Coordinate> occupied) {
+
+        void add(String name, Coordinate start) {
+            if (map.isMountain(start) || !occupied.add(start))
+                return;
+            int length = shorterSequences ? random.nextInt(sequenceLength) : sequenceLength;
+            map.addAdventurer(Adventurer.builder()
+                    .name(name)
+                    .movementSequence(sequence(random, moves, length))
+                    .position(start)
+                    .orientation(Direction.values()[random.nextInt(4)])
+                    .treasureCount(startingTreasures ? random.nextInt(2) : 0)
+                    .build());
+        }
+    }
+}
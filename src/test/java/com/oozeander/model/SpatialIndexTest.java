@@ -0,0 +1,145 @@
+package com.oozeander.model;
+
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpatialIndexTest {
+
+    private static TreasureMap randomMap(long seed, int width, int height) {
+        return RandomMaps.builder().seed(seed).width(width).height(height).terrainCells(width * height / 6).build();
+    }
+
+    @Test
+    void should_answer_region_queries_like_a_scan() {
+        var random = new Random(11);
+        var map = randomMap(3, 120, 90);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A")
+                .position(Coordinate.of(100, 80)).orientation(Direction.NORTH).build());
+        var index = map.spatialIndex();
+
+        for (int query = 0; query < 300; query++) {
+            int minX = random.nextInt(120), minY = random.nextInt(90);
+            int maxX = minX + random.nextInt(40), maxY = minY + random.nextInt(40);
+            var viewport = index.region(minX, minY, maxX, maxY);
+
+            List<Coordinate> mountains = new ArrayList<>();
+            map.terrain().forEachMountain((x, y) -> {
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                    mountains.add(Coordinate.of(x, y));
+            });
+            List<String> treasures = new ArrayList<>();
+            map.terrain().forEachTreasure((x, y, count) -> {
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                    treasures.add("%d-%d %d".formatted(x, y, count));
+            });
+            assertThat(viewport.mountains()).containsExactlyElementsOf(mountains);
+            assertThat(viewport.treasures().entrySet().stream()
+                    .map(entry -> "%d-%d %d".formatted(entry.getKey().x(), entry.getKey().y(), entry.getValue())))
+                    .containsExactlyElementsOf(treasures);
+            assertThat(viewport.adventurers()).hasSize(minX <= 100 && maxX >= 100 && minY <= 80 && maxY >= 80 ? 1 : 0);
+        }
+    }
+
+    @Test
+    void should_render_a_region() {
+        var map = TreasureMap.builder().width(4).height(4).build();
+        map.addMountain(Coordinate.of(1, 0));
+        map.addMountain(Coordinate.of(3, 3));
+        map.addTreasure(Coordinate.of(0, 2), (short) 2);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A")
+                .position(Coordinate.of(1, 1)).orientation(Direction.SOUTH).build());
+
+        assertThat(map.spatialIndex().region(0, 0, 2, 2).toString()).isEqualTo("""
+                M - 1 - 0
+                T - 0 - 2 - 2
+                A - Lara - 1 - 1 - S - 0""");
+    }
+
+    @Test
+    void should_find_the_nearest_treasures_in_order() {
+        var map = randomMap(7, 80, 80);
+        var index = map.spatialIndex();
+        var random = new Random(13);
+
+        for (int query = 0; query < 100; query++) {
+            int x = random.nextInt(80), y = random.nextInt(80);
+            List<Coordinate> expected = new ArrayList<>();
+            map.terrain().forEachTreasure((cellX, cellY, count) -> expected.add(Coordinate.of(cellX, cellY)));
+            expected.sort(Comparator.<Coordinate>comparingInt(cell -> Math.abs(cell.x() - x) + Math.abs(cell.y() - y))
+                    .thenComparingInt(Coordinate::y).thenComparingInt(Coordinate::x));
+
+            assertThat(index.nearestTreasures(x, y, 10)).containsExactlyElementsOf(expected.subList(0, 10));
+        }
+        assertThat(index.nearestTreasures(0, 0, Integer.MAX_VALUE)).hasSize(map.terrain().treasureCellCount());
+    }
+
+    @Test
+    void should_follow_the_treasures_collected_by_a_simulation() {
+        var map = TreasureMap.builder().width(5).height(1).build();
+        map.addTreasure(Coordinate.of(1, 0), (short) 1);
+        map.addTreasure(Coordinate.of(2, 0), (short) 2);
+        map.addTreasure(Coordinate.of(4, 0), (short) 1);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("AA")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        var index = map.spatialIndex();
+
+        new Simulation(map).run();
+
+        assertThat(index.treasureCellCount()).isEqualTo(2);
+        assertThat(index.nearestTreasures(0, 0, 5)).containsExactly(Coordinate.of(2, 0), Coordinate.of(4, 0));
+        assertThat(index.region(0, 0, 4, 0).treasures()).containsEntry(Coordinate.of(2, 0), (short) 1);
+    }
+
+    @Test
+    void should_index_maps_wider_than_two_to_the_thirty() {
+        int side = Integer.MAX_VALUE;
+        var map = TreasureMap.builder().width(side).height(side).build();
+        map.addTreasure(Coordinate.of(0, 0), (short) 1);
+        for (int x = side - 20; x < side; x++)
+            map.addTreasure(Coordinate.of(x, side - 1), (short) 2);
+        map.addMountain(Coordinate.of(side - 2, side - 2));
+        var index = map.spatialIndex();
+
+        assertThat(map.terrain().layout()).isEqualTo(StorageLayout.CHUNKED);
+        assertThat(index.nearestTreasures(side - 1, side - 2, 21)).hasSize(21)
+                .startsWith(Coordinate.of(side - 1, side - 1)).endsWith(Coordinate.of(0, 0));
+        assertThat(index.region(side - 3, side - 3, side - 1, side - 1).treasures()).hasSize(3);
+        assertThat(index.region(side - 3, side - 3, side - 1, side - 1).mountains()).containsExactly(Coordinate.of(side - 2, side - 2));
+
+        var tree = new QuadTree(side, side);
+        tree.add(0, 0);
+        tree.add(side - 1, side - 2);
+        List<Coordinate> nearest = new ArrayList<>();
+        tree.nearest(side - 1, side - 1, 2, (x, y) -> nearest.add(Coordinate.of(x, y)));
+        assertThat(nearest).containsExactly(Coordinate.of(side - 1, side - 2), Coordinate.of(0, 0));
+    }
+
+    @Test
+    void should_keep_a_quadtree_consistent_through_additions_and_removals() {
+        var random = new Random(17);
+        var tree = new QuadTree(300, 200);
+        Set<Long> cells = new HashSet<>();
+        for (int step = 0; step < 20000; step++) {
+            int x = random.nextInt(300), y = random.nextInt(200);
+            long cell = (long) y << 32 | x;
+            if (random.nextInt(3) == 0)
+                assertThat(tree.remove(x, y)).isEqualTo(cells.remove(cell));
+            else
+                assertThat(tree.add(x, y)).isEqualTo(cells.add(cell));
+        }
+        Set<Long> found = new HashSet<>();
+        tree.query(0, 0, 299, 199, (x, y) -> found.add((long) y << 32 | x));
+
+        assertThat(tree.size()).isEqualTo(cells.size());
+        assertThat(found).isEqualTo(cells);
+    }
+}
@@ -0,0 +1,59 @@
+package com.oozeander.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StorageLayoutTest {
+
+    @Test
+    void should_resolve_grid_for_small_maps() {
+        assertThat(StorageLayout.AUTO.resolve(4000, 4000, 0)).isEqualTo(StorageLayout.GRID);
+    }
+
+    @Test
+    void should_resolve_sparse_for_huge_empty_maps() {
+        assertThat(StorageLayout.AUTO.resolve(20000, 20000, 10)).isEqualTo(StorageLayout.SPARSE);
+    }
+
+    @Test
+    void should_resolve_grid_for_huge_dense_maps() {
+        assertThat(StorageLayout.AUTO.resolve(10000, 10000, 5_000_000)).isEqualTo(StorageLayout.GRID);
+    }
+
+    @Test
+    void should_resolve_chunked_beyond_short_coordinates() {
+        assertThat(StorageLayout.AUTO.resolve(100_000, 100_000, 5_000_000)).isEqualTo(StorageLayout.CHUNKED);
+        assertThat(StorageLayout.AUTO.resolve(32768, 10, 0)).isEqualTo(StorageLayout.CHUNKED);
+    }
+
+    @Test
+    void should_resolve_sparse_for_empty_dimensions() {
+        assertThat(StorageLayout.AUTO.resolve(0, 0, 0)).isEqualTo(StorageLayout.SPARSE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageLayout.class, names = {"GRID", "SPARSE", "CHUNKED"})
+    void should_behave_identically_for_every_layout(StorageLayout layout) {
+        var map = TreasureMap.builder().width(3).height(4).layout(layout).build();
+        map.addMountain(Coordinate.of(1, 0));
+        map.addTreasure(Coordinate.of(0, 3), (short) 2);
+
+        assertThat(map.terrain()).isInstanceOf(switch (layout) {
+            case GRID -> GridTerrain.class;
+            case CHUNKED -> ChunkedTerrain.class;
+            default -> SparseTerrain.class;
+        });
+        assertThat(map.isMountain(Coordinate.of(1, 0))).isTrue();
+        assertThat(map.isMountain(Coordinate.of(0, 1))).isFalse();
+        assertThat(map.treasureCount(Coordinate.of(0, 3))).isEqualTo((short) 2);
+        assertThat(map.mountains()).containsExactly(Coordinate.of(1, 0));
+        assertThat(map.treasures()).containsEntry(Coordinate.of(0, 3), (short) 2);
+        assertThat(map.toString()).isEqualTo("""
+                C - 3 - 4
+                M - 1 - 0
+                T - 0 - 3 - 2""");
+    }
+}
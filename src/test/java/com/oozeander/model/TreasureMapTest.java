@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -122,6 +124,16 @@ public class TreasureMapTest {
                     .withMessage(MOUNTAIN_COORDINATE_ALREADY_TAKEN);
         }
 
+        @Test
+        void should_throw_when_coordinate_is_on_the_edge() {
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> treasureMap.addMountain(Coordinate.of(4, 0)))
+                    .withMessage(COORDINATE_OUT_OF_BOUNDS_MESSAGE);
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> treasureMap.addMountain(Coordinate.of(0, 3)))
+                    .withMessage(COORDINATE_OUT_OF_BOUNDS_MESSAGE);
+        }
+
         @Test
         void should_throw_when_coordinate_matches_treasure() {
             treasureMap.addTreasure(COORDINATE, (short) 3);
@@ -191,4 +203,66 @@ public class TreasureMapTest {
                     .withMessage(MOUNTAIN_COORDINATE_ALREADY_TAKEN);
         }
     }
+
+    @Nested
+    class AddAll {
+
+        private Adventurer adventurer(String name, int x, int y) {
+            return Adventurer.builder().name(name).position(Coordinate.of(x, y)).orientation(Direction.NORTH).build();
+        }
+
+        @Test
+        void should_add_every_element() {
+            treasureMap.addAll(List.of(Coordinate.of(0, 0), Coordinate.of(3, 2)),
+                    Map.of(Coordinate.of(1, 0), (short) 2),
+                    List.of(adventurer("Lara", 2, 2)));
+
+            assertThat(treasureMap.toString()).isEqualTo("""
+                    C - 4 - 3
+                    M - 0 - 0
+                    M - 3 - 2
+                    T - 1 - 0 - 2
+                    A - Lara - 2 - 2 - N - 0""");
+        }
+
+        @Test
+        void should_report_every_violation_and_add_nothing() {
+            treasureMap.addTreasure(COORDINATE, (short) 1);
+            treasureMap.addAdventurer(adventurer("Lara", 0, 1));
+
+            assertThatExceptionOfType(MapValidationException.class)
+                    .isThrownBy(() -> treasureMap.addAll(
+                            List.of(Coordinate.of(4, 0), Coordinate.of(0, 0), Coordinate.of(0, 0), COORDINATE),
+                            Map.of(Coordinate.of(0, 0), (short) 1),
+                            List.of(adventurer("Indiana", 0, 1), adventurer("Lara", 1, 1), adventurer("Nathan", 1, 1),
+                                    adventurer("Sophia", 0, 3))))
+                    .satisfies(e -> assertThat(e.violations()).extracting(Violation::type).containsExactly(
+                            Violation.Type.OUT_OF_BOUNDS,
+                            Violation.Type.MOUNTAIN_TAKEN,
+                            Violation.Type.TREASURE_TAKEN,
+                            Violation.Type.MOUNTAIN_TAKEN,
+                            Violation.Type.ADVENTURER_TAKEN,
+                            Violation.Type.DUPLICATE_ADVENTURER,
+                            Violation.Type.ADVENTURER_TAKEN,
+                            Violation.Type.OUT_OF_BOUNDS))
+                    .withMessageStartingWith("""
+                            8 invalid map elements:
+                            M - 4 - 0: The given coordinates are not within the treasure map !
+                            M - 0 - 0: The given coordinates are already taken by a mountain !""");
+            assertThat(treasureMap.mountains()).isEmpty();
+            assertThat(treasureMap.players()).hasSize(1);
+        }
+
+        @Test
+        void should_validate_sparse_batches_on_large_maps() {
+            var large = TreasureMap.builder().width(30000).height(30000).build();
+
+            assertThat(large.validate(List.of(Coordinate.of(29999, 29999), Coordinate.of(29999, 29999)), Map.of(),
+                    List.of(adventurer("Lara", 29999, 29999))))
+                    .extracting(Violation::toString)
+                    .containsExactly(
+                            "M - 29999 - 29999: The given coordinates are already taken by a mountain !",
+                            "A - Lara - 29999 - 29999: The given coordinates are already taken by a mountain !");
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.oozeander.montecarlo;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MonteCarloTest {
+
+    private static TreasureMap map() {
+        var map = TreasureMap.builder().width(12).height(12).build();
+        for (int i = 2; i < 10; i++)
+            map.addMountain(Coordinate.of(i, 7));
+        for (int i = 0; i < 12; i += 3)
+            map.addTreasure(Coordinate.of(i, i), (short) 2);
+        for (String name : List.of("Lara", "Indiana", "Nathan"))
+            map.addAdventurer(Adventurer.builder().name(name).movementSequence("A".repeat(200))
+                    .position(Coordinate.of(0, map.players().size())).orientation(Direction.EAST).build());
+        return map;
+    }
+
+    private static MonteCarloReport run(long seed, int threads) {
+        var pool = new ForkJoinPool(threads);
+        try {
+            return MonteCarlo.builder().map(map()).variants(200).seed(seed).pool(pool).build().run();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void should_give_the_same_statistics_whatever_the_number_of_threads() {
+        var sequential = run(42, 1);
+        var parallel = run(42, 4);
+
+        assertThat(parallel.adventurers()).isEqualTo(sequential.adventurers());
+        assertThat(parallel.hotCells()).isEqualTo(sequential.hotCells());
+        assertThat(parallel.ticks()).isEqualTo(sequential.ticks());
+        assertThat(run(43, 4).adventurers()).isNotEqualTo(sequential.adventurers());
+    }
+
+    @Test
+    void should_aggregate_treasures_of_every_variant_without_touching_the_base_map() {
+        var map = map();
+        var report = MonteCarlo.builder().map(map).variants(100).seed(7).build().run();
+
+        assertThat(report.variants()).isEqualTo(100);
+        assertThat(report.adventurers()).extracting(AdventurerStatistics::name).containsExactly("Lara", "Indiana", "Nathan");
+        assertThat(report.adventurers()).allSatisfy(adventurer -> assertThat(adventurer.variants()).isEqualTo(100));
+        assertThat(report.adventurers().stream().mapToDouble(AdventurerStatistics::mean).sum()).isBetween(0.0, 8.0);
+        assertThat(report.adventurers().stream().mapToInt(AdventurerStatistics::max).max().orElseThrow()).isGreaterThan(0);
+        assertThat(map.treasures()).hasSize(4).containsValue((short) 2);
+    }
+
+    @Test
+    void should_report_cells_where_adventurers_block_each_other() {
+        var map = TreasureMap.builder().width(3).height(1).build();
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A").build());
+        map.addAdventurer(Adventurer.builder().name("Indiana").movementSequence("A").build());
+        VariantFactory facingEachOther = (variant, templates, random) -> List.of(
+                Adventurer.builder().name("Lara").movementSequence("AA")
+                        .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build(),
+                Adventurer.builder().name("Indiana").movementSequence(random.nextBoolean() ? "A" : "D")
+                        .position(Coordinate.of(2, 0)).orientation(Direction.WEST).build());
+
+        var report = MonteCarlo.builder().map(map).variants(50).seed(1).factory(facingEachOther).build().run();
+
+        // Lara is always blocked by Indiana at the end of the corridor, Indiana by Lara when it moves first.
+        assertThat(report.hotCells()).hasSize(2);
+        assertThat(report.hotCells().get(0)).isEqualTo(new HotCell(2, 0, 50));
+        assertThat(report.hotCells().get(1).x()).isEqualTo(1);
+        assertThat(report.hotCells().get(1).blockedMoves()).isBetween(1L, 49L);
+    }
+
+    @Test
+    void should_reject_a_non_positive_number_of_variants() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> MonteCarlo.builder().map(map()).variants(0).build())
+                .withMessage("The number of variants must be positive: 0");
+    }
+}
@@ -0,0 +1,117 @@
+package com.oozeander.optimizer;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+import com.oozeander.simulation.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RouteOptimizerTest {
+
+    private static TreasureMap map(long seed, int adventurers) {
+        var random = new Random(seed);
+        var map = TreasureMap.builder().width(20).height(20).build();
+        for (int y = 0; y < 20; y++)
+            for (int x = 0; x < 20; x++)
+                if (random.nextInt(6) == 0)
+                    map.addMountain(Coordinate.of(x, y));
+                else if (random.nextInt(12) == 0)
+                    map.addTreasure(Coordinate.of(x, y), (short) (1 + random.nextInt(3)));
+        for (int i = 0; i < adventurers; i++) {
+            int x, y;
+            do {
+                x = random.nextInt(20);
+                y = random.nextInt(20);
+            } while (map.isMountain(x, y) || map.treasureCount(x, y) > 0);
+            map.addAdventurer(Adventurer.builder().name("Adventurer " + i).position(Coordinate.of(x, y))
+                    .orientation(Direction.values()[random.nextInt(4)]).build());
+        }
+        return map;
+    }
+
+    // Replays the plan on a fresh copy of the map.
+    private static long simulate(long seed, int adventurers, RoutePlan plan) {
+        TreasureMap template = map(seed, adventurers);
+        var map = TreasureMap.builder().width(20).height(20).build();
+        template.terrain().forEachMountain((x, y) -> map.addMountain(Coordinate.of(x, y)));
+        template.terrain().forEachTreasure((x, y, count) -> map.addTreasure(Coordinate.of(x, y), count));
+        for (int i = 0; i < adventurers; i++) {
+            Adventurer player = template.players().get(i);
+            map.addAdventurer(Adventurer.builder().name(player.name()).position(player.position())
+                    .orientation(player.orientation()).movementSequence(plan.sequences().get(i)).build());
+        }
+        new Simulation(map).run();
+        return map.players().stream().mapToLong(Adventurer::treasureCount).sum();
+    }
+
+    @Test
+    void should_plan_sequences_that_collect_the_planned_treasures() {
+        RoutePlan plan = RouteOptimizer.builder().map(map(1, 1)).moveBudget(60).seed(7).build().optimize();
+
+        assertThat(plan.sequences()).hasSize(1);
+        assertThat(plan.sequences().get(0)).hasSizeLessThanOrEqualTo(60).matches("[ADG]*");
+        assertThat(plan.moves()).isEqualTo(plan.sequences().get(0).length());
+        assertThat(plan.treasures()).isPositive().isEqualTo(simulate(1, 1, plan));
+    }
+
+    @Test
+    void should_report_the_treasures_of_a_real_run_with_several_adventurers() {
+        for (long seed = 1; seed <= 5; seed++) {
+            RoutePlan plan = RouteOptimizer.builder().map(map(seed, 4)).moveBudget(40).seed(seed).build().optimize();
+
+            assertThat(plan.sequences()).hasSize(4);
+            assertThat(plan.moves()).isEqualTo(plan.sequences().stream().mapToLong(String::length).sum());
+            assertThat(plan.treasures()).isEqualTo(simulate(seed, 4, plan));
+        }
+    }
+
+    @Test
+    void should_step_back_onto_a_cell_to_collect_each_of_its_treasures() {
+        var map = TreasureMap.builder().width(3).height(3).build();
+        map.addTreasure(Coordinate.of(1, 0), (short) 5);
+        map.addAdventurer(Adventurer.builder().name("Lara").position(Coordinate.of(1, 1)).orientation(Direction.NORTH).build());
+
+        RoutePlan plan = RouteOptimizer.builder().map(map).moveBudget(10).build().optimize();
+
+        // One step, then stepping off sideways and back (five moves against the top edge), then off and back again.
+        assertThat(plan.treasures()).isEqualTo(3);
+        assertThat(plan.moves()).isEqualTo(10);
+    }
+
+    @Test
+    void should_improve_on_the_greedy_plan_whatever_the_number_of_threads() {
+        RoutePlan greedy = RouteOptimizer.builder().map(map(3, 3)).moveBudget(40).iterations(0).build().optimize();
+        var single = new ForkJoinPool(1);
+        var quad = new ForkJoinPool(4);
+        try {
+            RoutePlan sequential = RouteOptimizer.builder().map(map(3, 3)).moveBudget(40).seed(11).pool(single).build().optimize();
+            RoutePlan parallel = RouteOptimizer.builder().map(map(3, 3)).moveBudget(40).seed(11).pool(quad).build().optimize();
+
+            assertThat(parallel.sequences()).isEqualTo(sequential.sequences());
+            assertThat(parallel.treasures()).isGreaterThanOrEqualTo(greedy.treasures());
+            if (parallel.treasures() == greedy.treasures())
+                assertThat(parallel.moves()).isLessThanOrEqualTo(greedy.moves());
+            assertThat(parallel.sequences()).allSatisfy(sequence -> assertThat(sequence).hasSizeLessThanOrEqualTo(40));
+        } finally {
+            single.shutdown();
+            quad.shutdown();
+        }
+    }
+
+    @Test
+    void should_reject_invalid_settings() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> RouteOptimizer.builder().map(map(1, 1)).moveBudget(0).build())
+                .withMessage("The move budget must be positive: 0");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> RouteOptimizer.builder().map(map(1, 0)).moveBudget(10).build())
+                .withMessage("The map has no adventurer to plan for");
+    }
+}
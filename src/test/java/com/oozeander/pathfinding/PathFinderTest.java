@@ -0,0 +1,205 @@
+package com.oozeander.pathfinding;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MoveResult;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PathFinderTest {
+
+    private static TreasureMap example() {
+        var map = TreasureMap.builder().width(3).height(4).build();
+        map.addMountain(Coordinate.of(1, 0));
+        map.addMountain(Coordinate.of(2, 1));
+        map.addTreasure(Coordinate.of(0, 3), (short) 2);
+        map.addTreasure(Coordinate.of(1, 3), (short) 3);
+        return map;
+    }
+
+    private static TreasureMap random(int width, int height, long seed) {
+        var random = new Random(seed);
+        var map = TreasureMap.builder().width(width).height(height).build();
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (random.nextInt(4) == 0)
+                    map.addMountain(Coordinate.of(x, y));
+                else if (random.nextInt(20) == 0)
+                    map.addTreasure(Coordinate.of(x, y), (short) 1);
+        return map;
+    }
+
+    private static Adventurer run(TreasureMap map, int x, int y, Direction orientation, String moves) {
+        var adventurer = Adventurer.builder().name("Lara").position(Coordinate.of(x, y)).orientation(orientation).build();
+        for (char move : moves.toCharArray())
+            assertThat(adventurer.moveOnce(map, move)).isNotIn(MoveResult.BLOCKED_BY_BOUNDARY, MoveResult.BLOCKED_BY_MOUNTAIN);
+        return adventurer;
+    }
+
+    // Plain BFS over (x, y, orientation), as a reference for the optimal length.
+    private static int shortest(TreasureMap map, int x, int y, Direction orientation, int targetX, int targetY) {
+        return shortest(map, x, y, orientation, targetX, targetY, null);
+    }
+
+    private static int shortest(TreasureMap map, int x, int y, Direction orientation, int targetX, int targetY, Direction facing) {
+        Map<String, Integer> distances = new HashMap<>();
+        var queue = new ArrayDeque<Object[]>();
+        queue.add(new Object[]{x, y, orientation});
+        distances.put(x + " " + y + " " + orientation, 0);
+        while (!queue.isEmpty()) {
+            Object[] state = queue.poll();
+            int cellX = (int) state[0], cellY = (int) state[1];
+            Direction direction = (Direction) state[2];
+            int distance = distances.get(cellX + " " + cellY + " " + direction);
+            if (cellX == targetX && cellY == targetY && (facing == null || facing == direction))
+                return distance;
+            int nextX = cellX + direction.dx(), nextY = cellY + direction.dy();
+            Object[][] next = {{nextX, nextY, direction}, {cellX, cellY, direction.left()}, {cellX, cellY, direction.right()}};
+            for (Object[] candidate : next) {
+                int candidateX = (int) candidate[0], candidateY = (int) candidate[1];
+                if (candidateX < 0 || candidateY < 0 || candidateX >= map.width() || candidateY >= map.height()
+                        || map.isMountain(candidateX, candidateY))
+                    continue;
+                if (distances.putIfAbsent(candidateX + " " + candidateY + " " + candidate[2], distance + 1) == null)
+                    queue.add(candidate);
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void should_find_the_nearest_treasure() {
+        var map = example();
+        var finder = new PathFinder(map);
+
+        Optional<String> moves = finder.nearestTreasure(1, 1, Direction.SOUTH);
+
+        assertThat(moves).contains("AA");
+        assertThat(run(map, 1, 1, Direction.SOUTH, moves.orElseThrow()).treasureCount()).isEqualTo((short) 1);
+    }
+
+    @Test
+    void should_go_around_mountains_to_a_cell() {
+        var map = example();
+        var finder = new PathFinder(map);
+
+        Optional<String> moves = finder.to(0, 0, Direction.EAST, 2, 2);
+
+        assertThat(moves).contains("DAAGAA");
+        assertThat(run(map, 0, 0, Direction.EAST, moves.orElseThrow()).position()).isEqualTo(Coordinate.of(2, 2));
+        assertThat(finder.to(0, 0, Direction.EAST, 2, 0)).isEmpty();
+        assertThat(finder.to(1, 1, Direction.NORTH, 1, 1)).contains("");
+    }
+
+    @Test
+    void should_report_unreachable_targets() {
+        var map = TreasureMap.builder().width(3).height(3).build();
+        map.addMountain(Coordinate.of(1, 0));
+        map.addMountain(Coordinate.of(1, 1));
+        map.addMountain(Coordinate.of(1, 2));
+        map.addTreasure(Coordinate.of(2, 2), (short) 1);
+        var finder = new PathFinder(map);
+
+        assertThat(finder.to(0, 0, Direction.EAST, 2, 0)).isEmpty();
+        assertThat(finder.nearestTreasure(0, 0, Direction.EAST)).isEmpty();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> finder.to(0, 0, Direction.EAST, 3, 0));
+    }
+
+    @Test
+    void should_find_shortest_paths_on_random_maps() {
+        for (long seed = 0; seed < 20; seed++) {
+            var map = random(17, 13, seed);
+            var finder = new PathFinder(map);
+            var random = new Random(seed);
+            for (int query = 0; query < 20; query++) {
+                int x = random.nextInt(17), y = random.nextInt(13), targetX = random.nextInt(17), targetY = random.nextInt(13);
+                if (map.isMountain(x, y) || map.isMountain(targetX, targetY))
+                    continue;
+                Direction orientation = Direction.values()[random.nextInt(4)];
+                int expected = shortest(map, x, y, orientation, targetX, targetY);
+
+                Optional<String> moves = finder.to(x, y, orientation, targetX, targetY);
+
+                if (expected < 0) {
+                    assertThat(moves).isEmpty();
+                } else {
+                    assertThat(moves.orElseThrow()).hasSize(expected);
+                    assertThat(run(map, x, y, orientation, moves.orElseThrow()).position()).isEqualTo(Coordinate.of(targetX, targetY));
+                }
+
+                Direction facing = Direction.values()[random.nextInt(4)];
+                int expectedFacing = shortest(map, x, y, orientation, targetX, targetY, facing);
+                Optional<String> facingMoves = finder.to(x, y, orientation, targetX, targetY, facing);
+
+                if (expectedFacing < 0) {
+                    assertThat(facingMoves).isEmpty();
+                } else {
+                    assertThat(facingMoves.orElseThrow()).hasSize(expectedFacing);
+                    assertThat(run(map, x, y, orientation, facingMoves.orElseThrow()).orientation()).isEqualTo(facing);
+                }
+            }
+        }
+    }
+
+    @Test
+    void should_step_back_onto_the_starting_cell() {
+        var map = TreasureMap.builder().width(3).height(3).build();
+        map.addTreasure(Coordinate.of(1, 1), (short) 1);
+        var finder = new PathFinder(map);
+
+        assertThat(finder.enter(1, 1, Direction.NORTH, 1, 1, Direction.NORTH).orElseThrow()).hasSize(6).endsWith("A");
+        assertThat(finder.enter(1, 1, Direction.NORTH, 1, 1, Direction.SOUTH).orElseThrow()).hasSize(4).startsWith("A");
+        assertThat(finder.enter(1, 1, Direction.NORTH, 1, 1, Direction.EAST).orElseThrow()).hasSize(5);
+    }
+
+    @Test
+    void should_measure_the_distance_to_every_cell() {
+        var map = random(17, 13, 42);
+        var finder = new PathFinder(map);
+        int[] cells = {0, 5, 17 * 6 + 8, 17 * 12 + 16};
+        int[] distances = new int[cells.length + 1];
+        byte[] directions = new byte[cells.length + 1];
+
+        finder.distances(8, 6, Direction.WEST, cells, distances, directions, 1);
+
+        for (int i = 0; i < cells.length; i++) {
+            int x = cells[i] % 17, y = cells[i] / 17;
+            if (map.isMountain(x, y)) {
+                assertThat(distances[i + 1]).isEqualTo(-1);
+                continue;
+            }
+            int best = -1;
+            for (Direction direction : Direction.values()) {
+                int length = finder.enter(8, 6, Direction.WEST, x, y, direction).map(String::length).orElse(-1);
+                if (length >= 0 && (best < 0 || length < best))
+                    best = length;
+            }
+            assertThat(distances[i + 1]).isEqualTo(best);
+            if (best >= 0)
+                assertThat(finder.enter(8, 6, Direction.WEST, x, y, Direction.values()[directions[i + 1]]).orElseThrow()).hasSize(best);
+        }
+    }
+
+    @Test
+    void should_only_expand_states_towards_the_target_on_a_large_map() {
+        var map = TreasureMap.builder().width(2000).height(2000).build();
+        for (int y = 100; y < 1900; y++)
+            map.addMountain(Coordinate.of(1000, y));
+        var finder = new PathFinder(map);
+
+        assertThat(finder.to(0, 0, Direction.EAST, 1999, 1999).orElseThrow()).hasSize(2 * 1999 + 1);
+        assertThat(finder.expanded()).isLessThan(100_000);
+        // Up to row 99, across, then down to row 1000, with two turns.
+        assertThat(finder.to(0, 1000, Direction.NORTH, 1999, 1000).orElseThrow()).hasSize(2 * 901 + 1999 + 2);
+    }
+}
@@ -0,0 +1,159 @@
+package com.oozeander.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TreasureHuntServerTest {
+
+    private static final String INPUT = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 0 - 3 - 2
+            T - 1 - 3 - 3
+            A - Lara - 1 - 1 - S - AADADAGGA
+            """;
+    private static final String OUTPUT = """
+            C - 3 - 4
+            M - 1 - 0
+            M - 2 - 1
+            T - 1 - 3 - 2
+            A - Lara - 0 - 3 - S - 3""";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private TreasureHuntServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:%d/simulate".formatted(server.port())))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String request(String body) {
+        return "POST /simulate HTTP/1.1\r\nHost: localhost\r\nContent-Length: %d\r\n\r\n%s"
+                .formatted(body.getBytes(StandardCharsets.UTF_8).length, body);
+    }
+
+    @Test
+    void should_answer_the_simulated_map() throws IOException, InterruptedException {
+        server = TreasureHuntServer.start(0, 2, 4);
+
+        var response = post(INPUT);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(OUTPUT);
+        assertThat(server.succeeded()).isEqualTo(1);
+        assertThat(server.latencies().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_answer_pipelined_requests_in_order() throws IOException {
+        server = TreasureHuntServer.start(0, 2, 4);
+        String second = INPUT.replace("AADADAGGA", "A");
+
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write((request(INPUT) + request(second)).getBytes(StandardCharsets.UTF_8));
+            InputStream input = socket.getInputStream();
+            var received = new StringBuilder();
+            byte[] buffer = new byte[4096];
+            while (received.indexOf("A - Lara - 1 - 2 - S - 0") < 0) {
+                int read = input.read(buffer);
+                assertThat(read).isPositive();
+                received.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+
+            assertThat(received.toString().split("HTTP/1.1 200", -1)).hasSize(3);
+            assertThat(received.indexOf(OUTPUT)).isLessThan(received.indexOf("A - Lara - 1 - 2 - S - 0"));
+        }
+    }
+
+    @Test
+    void should_shed_load_beyond_the_queue_capacity() throws Exception {
+        server = TreasureHuntServer.start(0, 1, 0);
+
+        // The only admitted request waits for the simulation slot, which the test holds.
+        server.running().acquire();
+        CompletableFuture<HttpResponse<String>> admitted;
+        try {
+            admitted = client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:%d/simulate".formatted(server.port())))
+                    .POST(HttpRequest.BodyPublishers.ofString(INPUT)).build(), HttpResponse.BodyHandlers.ofString());
+            while (server.inFlight() == 0)
+                Thread.sleep(10);
+
+            var response = post(INPUT);
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(response.headers().firstValue("Retry-After")).contains("1");
+            assertThat(server.rejected()).isEqualTo(1);
+        } finally {
+            server.running().release();
+        }
+        assertThat(admitted.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        while (server.inFlight() != 0)
+            Thread.sleep(10);
+        assertThat(post(INPUT).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void should_simulate_while_another_body_is_still_uploading() throws IOException, InterruptedException {
+        server = TreasureHuntServer.start(0, 1, 1);
+
+        try (var slow = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            OutputStream output = slow.getOutputStream();
+            output.write("POST /simulate HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1000\r\n\r\nC - 3".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            while (server.inFlight() == 0)
+                Thread.sleep(10);
+
+            var response = post(INPUT);
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).isEqualTo(OUTPUT);
+        }
+    }
+
+    @Test
+    void should_reject_bodies_over_the_limit() throws IOException, InterruptedException {
+        server = TreasureHuntServer.start(0, 1, 1, 16);
+
+        var response = post(INPUT);
+
+        assertThat(response.statusCode()).isEqualTo(413);
+        assertThat(response.body()).isEqualTo("Request body larger than 16 bytes");
+        assertThat(server.failed()).isEqualTo(1);
+    }
+
+    @Test
+    void should_report_invalid_maps_and_statistics() throws IOException, InterruptedException {
+        server = TreasureHuntServer.start(0, 1, 1);
+
+        var invalid = post("C - 3 - 4\nX - 1 - 1\n");
+        post(INPUT);
+        var stats = client.send(HttpRequest.newBuilder(URI.create("http://localhost:%d/stats".formatted(server.port()))).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(invalid.statusCode()).isEqualTo(400);
+        assertThat(invalid.body()).isEqualTo("Unknown type: X (line 2, column 1)");
+        assertThat(stats.body()).startsWith("{\"succeeded\": 1, \"rejected\": 0, \"failed\": 1, \"inFlight\": 0, \"latency\": {\"count\": 2,");
+    }
+}
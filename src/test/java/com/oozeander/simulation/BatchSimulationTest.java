@@ -0,0 +1,83 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.RandomMaps;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BatchSimulationTest {
+
+    // Crowded, with sequences of different lengths so that adventurers finish in different rounds.
+    private static TreasureMap randomMap(long seed, StorageLayout layout) {
+        return RandomMaps.builder().seed(seed).width(50).height(40).layout(layout).terrainCells(500)
+                .adventurers(150).sequenceLength(400).shorterSequences(true).startingTreasures(true).build();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageLayout.class, names = {"GRID", "SPARSE", "CHUNKED"})
+    void should_match_the_tick_engine(StorageLayout layout) {
+        for (long seed = 0; seed < 5; seed++) {
+            var expected = randomMap(seed, layout);
+            var actual = randomMap(seed, layout);
+
+            var simulation = new Simulation(expected);
+            simulation.run();
+            var batch = new BatchSimulation(actual);
+            batch.run();
+
+            assertThat(actual.toString()).isEqualTo(expected.toString());
+            assertThat(batch.tick()).isEqualTo(simulation.tick());
+            assertThat(batch.finished()).isTrue();
+        }
+    }
+
+    @Test
+    void should_let_the_first_adventurer_in_file_order_through() {
+        var map = TreasureMap.builder().width(3).height(1).build();
+        map.addTreasure(Coordinate.of(1, 0), (short) 1);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        map.addAdventurer(Adventurer.builder().name("Indiana").movementSequence("AA")
+                .position(Coordinate.of(2, 0)).orientation(Direction.WEST).build());
+
+        new BatchSimulation(map).run();
+
+        assertThat(map.toString()).isEqualTo("""
+                C - 3 - 1
+                A - Lara - 1 - 0 - E - 1
+                A - Indiana - 2 - 0 - W - 0""");
+    }
+
+    @Test
+    void should_reject_adventurers_on_the_same_cell() {
+        var map = TreasureMap.builder().width(2).height(2).build();
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("A")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        map.addAdventurer(Adventurer.builder().name("Indiana").movementSequence("A")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new BatchSimulation(map))
+                .withMessage("The given coordinates are already taken by an adventurer !");
+    }
+
+    @Test
+    void should_reject_an_invalid_move() {
+        var map = TreasureMap.builder().width(2).height(2).build();
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("AX")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new BatchSimulation(map).run())
+                .withMessage("Invalid turn provided: X");
+    }
+}
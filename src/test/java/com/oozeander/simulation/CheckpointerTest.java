@@ -0,0 +1,134 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CheckpointerTest {
+
+    private static TreasureMap map() {
+        var map = TreasureMap.builder().width(4).height(4).build();
+        map.addMountain(Coordinate.of(2, 2));
+        map.addTreasure(Coordinate.of(1, 0), (short) 2);
+        map.addTreasure(Coordinate.of(3, 3), (short) 1);
+        map.addAdventurer(Adventurer.builder().name("Lara").movementSequence("AADADAGGAAAADA")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        map.addAdventurer(Adventurer.builder().name("Indiana").movementSequence("AAAGAGAADAADDA")
+                .position(Coordinate.of(0, 3)).orientation(Direction.NORTH).build());
+        return map;
+    }
+
+    @Test
+    void should_resume_to_the_same_final_state_as_an_uninterrupted_run(@TempDir Path directory) throws IOException {
+        var expected = map();
+        new Simulation(expected).run();
+
+        var crashed = map();
+        try (var checkpointer = new Checkpointer(directory, 3)) {
+            var simulation = checkpointer.resume(crashed);
+            for (int i = 0; i < 8; i++)
+                simulation.step();
+        }
+        var resumed = map();
+        Simulation simulation;
+        try (var checkpointer = new Checkpointer(directory, 3)) {
+            simulation = checkpointer.resume(resumed);
+            assertThat(simulation.tick()).isEqualTo(6);
+            simulation.run();
+        }
+
+        assertThat(simulation.tick()).isEqualTo(14);
+        assertThat(resumed.toString()).isEqualTo(expected.toString());
+        assertThat(new Checkpointer(directory, 3).checkpoints()).hasSize(4);
+    }
+
+    @Test
+    void should_only_store_treasure_cells_changed_since_the_previous_checkpoint(@TempDir Path directory) throws IOException {
+        try (var checkpointer = new Checkpointer(directory, 1)) {
+            var simulation = checkpointer.resume(map());
+            simulation.step();
+            simulation.step();
+        }
+        List<Path> checkpoints = new Checkpointer(directory, 1).checkpoints();
+
+        assertThat(checkpoints).hasSize(2);
+        assertThat(Files.size(checkpoints.get(0)))
+                .isEqualTo(Checkpointer.HEADER_SIZE + 2 * Checkpointer.ADVENTURER_SIZE + Checkpointer.CELL_SIZE);
+        assertThat(Files.size(checkpoints.get(1))).isEqualTo(Checkpointer.HEADER_SIZE + 2 * Checkpointer.ADVENTURER_SIZE);
+    }
+
+    @Test
+    void should_resume_from_the_last_unbroken_checkpoint_and_drop_the_orphans(@TempDir Path directory) throws IOException {
+        try (var checkpointer = new Checkpointer(directory, 1)) {
+            var simulation = checkpointer.resume(map());
+            for (int i = 0; i < 3; i++)
+                simulation.step();
+        }
+        var checkpointer = new Checkpointer(directory, 1);
+        List<Path> checkpoints = checkpointer.checkpoints();
+        Files.delete(checkpoints.get(1));
+
+        var simulation = checkpointer.resume(map());
+
+        assertThat(simulation.tick()).isEqualTo(1);
+        assertThat(checkpointer.sequence()).isEqualTo(1);
+        assertThat(checkpointer.checkpoints()).containsExactly(checkpoints.get(0));
+    }
+
+    @Test
+    void should_start_over_when_the_first_checkpoint_is_missing(@TempDir Path directory) throws IOException {
+        var expected = map();
+        new Simulation(expected).run();
+        try (var checkpointer = new Checkpointer(directory, 1)) {
+            var simulation = checkpointer.resume(map());
+            simulation.step();
+            simulation.step();
+        }
+        Files.delete(new Checkpointer(directory, 1).checkpoints().get(0));
+
+        var resumed = map();
+        try (var checkpointer = new Checkpointer(directory, 5)) {
+            var simulation = checkpointer.resume(resumed);
+            assertThat(simulation.tick()).isZero();
+            simulation.run();
+        }
+
+        assertThat(resumed.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void should_write_every_checkpoint_in_order_when_the_writer_falls_behind(@TempDir Path directory) throws IOException {
+        try (var checkpointer = new Checkpointer(directory, 1)) {
+            checkpointer.resume(map()).run();
+        }
+        var checkpointer = new Checkpointer(directory, 1);
+
+        // The last round ends the run and is not checkpointed.
+        assertThat(checkpointer.checkpoints()).hasSize(13);
+        assertThat(checkpointer.resume(map()).tick()).isEqualTo(13);
+    }
+
+    @Test
+    void should_reject_checkpoints_written_for_another_map(@TempDir Path directory) throws IOException {
+        try (var checkpointer = new Checkpointer(directory, 1)) {
+            checkpointer.resume(map()).step();
+        }
+        var other = map();
+        other.addTreasure(Coordinate.of(0, 1), (short) 1);
+
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> new Checkpointer(directory, 1).resume(other))
+                .withMessageEndingWith("was written for another map");
+    }
+}
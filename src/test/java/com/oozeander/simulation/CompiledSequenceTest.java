@@ -0,0 +1,68 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.RandomMaps;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class CompiledSequenceTest {
+
+    private static TreasureMap randomMap(long seed, StorageLayout layout, int width, int height) {
+        return RandomMaps.builder().seed(seed).width(width).height(height).layout(layout)
+                .terrainCells(width * height / 20).mountainOdds(3).clear(Coordinate.of(0, 0)).build();
+    }
+
+    private static Stream<Arguments> should_match_interpreted_moves() {
+        return Stream.of(StorageLayout.GRID, StorageLayout.SPARSE).flatMap(layout ->
+                Stream.of(1L, 2L, 3L, 4L, 5L, 6L).map(seed -> Arguments.of(layout, seed)));
+    }
+
+    @Test
+    void should_merge_forward_moves_and_rotations() {
+        var compiled = CompiledSequence.compile("AAAAGADDGAAGGGDD");
+
+        assertThat(compiled.segments()).isEqualTo(3);
+        assertThat(compiled.length()).isEqualTo(16);
+    }
+
+    @Test
+    void should_throw_on_invalid_move() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> CompiledSequence.compile("AAZ"))
+                .withMessage("Invalid turn provided: Z");
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void should_match_interpreted_moves(StorageLayout layout, long seed) {
+        var random = new Random(seed);
+        int width = 70 + random.nextInt(100), height = 70 + random.nextInt(100);
+        var interpretedMap = randomMap(seed, layout, width, height);
+        var compiledMap = randomMap(seed, layout, width, height);
+        String movementSequence = RandomMaps.sequence(random, "AAAAAAAAGD", 5000);
+        var interpreted = Adventurer.builder().name("I").movementSequence(movementSequence)
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build();
+        var compiled = Adventurer.builder().name("C").movementSequence(movementSequence)
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build();
+
+        movementSequence.chars().forEach(move -> interpreted.moveOnce(interpretedMap, (char) move));
+        CompiledSequence.compile(movementSequence).execute(compiled, compiledMap);
+
+        assertThat(compiled.position()).isEqualTo(interpreted.position());
+        assertThat(compiled.orientation()).isEqualTo(interpreted.orientation());
+        assertThat(compiled.treasureCount()).isEqualTo(interpreted.treasureCount());
+        assertThat(compiledMap.toString()).isEqualTo(interpretedMap.toString());
+    }
+}
@@ -0,0 +1,33 @@
+package com.oozeander.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashOccupancyTest {
+
+    @Test
+    void should_track_the_same_cells_as_a_hash_set() {
+        var random = new Random(42);
+        var occupancy = new HashOccupancy(64);
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int x = random.nextInt(16), y = random.nextInt(16);
+            long key = ((long) y << 32) | x;
+            if (expected.size() < 64 && random.nextBoolean()) {
+                occupancy.occupy(x, y);
+                expected.add(key);
+            } else {
+                occupancy.release(x, y);
+                expected.remove(key);
+            }
+            int probeX = random.nextInt(16), probeY = random.nextInt(16);
+            assertThat(occupancy.isOccupied(probeX, probeY)).isEqualTo(expected.contains(((long) probeY << 32) | probeX));
+        }
+    }
+}
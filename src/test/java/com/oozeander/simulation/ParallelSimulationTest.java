@@ -0,0 +1,88 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.Occupancy;
+import com.oozeander.model.RandomMaps;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelSimulationTest {
+
+    private static TreasureMap randomMap(long seed, int clusters, int moves) {
+        return RandomMaps.builder().seed(seed).width(2000).height(2000).terrainCells(20_000)
+                .clusters(clusters).adventurers(10).spread(100).moves("AAAAGAD").sequenceLength(moves).build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void should_match_sequential_simulation(long seed) {
+        var sequential = randomMap(seed, 40, 200);
+        var parallel = randomMap(seed, 40, 200);
+
+        new Simulation(sequential).run();
+        var simulation = new ParallelSimulation(parallel);
+        simulation.run();
+
+        assertThat(simulation.groupCount()).isGreaterThan(1);
+        assertThat(parallel.toString()).isEqualTo(sequential.toString());
+    }
+
+    @Test
+    void should_split_long_sequences_by_window() {
+        var sequential = randomMap(6, 40, 5000);
+        var parallel = randomMap(6, 40, 5000);
+
+        new Simulation(sequential).run();
+        var simulation = new ParallelSimulation(parallel, ForkJoinPool.commonPool(), 64);
+        simulation.run();
+
+        // Over the whole run, the reachable boxes cover the map.
+        assertThat(AdventurerGroups.partition(randomMap(6, 40, 5000), new long[400], Long.MAX_VALUE)).hasSize(1);
+        assertThat(simulation.groupCount()).isGreaterThan(1);
+        assertThat(simulation.tick()).isEqualTo(5000);
+        assertThat(parallel.toString()).isEqualTo(sequential.toString());
+    }
+
+    @Test
+    void should_merge_adventurers_that_can_meet() {
+        var map = TreasureMap.builder().width(10).height(1).build();
+        map.addTreasure(Coordinate.of(5, 0), (short) 1);
+        map.addAdventurer(Adventurer.builder().name("Left").movementSequence("AAAAA")
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+        map.addAdventurer(Adventurer.builder().name("Right").movementSequence("AAAA")
+                .position(Coordinate.of(9, 0)).orientation(Direction.WEST).build());
+
+        var simulation = new ParallelSimulation(map);
+        simulation.run();
+
+        assertThat(simulation.groupCount()).isEqualTo(1);
+        assertThat(map.players().get(0).treasureCount()).isEqualTo((short) 0);
+        assertThat(map.players().get(1).treasureCount()).isEqualTo((short) 1);
+    }
+
+    @Test
+    void should_give_no_occupancy_to_lone_adventurers() {
+        var map = TreasureMap.builder().width(10_000).height(10).build();
+        for (int x = 0; x < 10_000; x += 100)
+            map.addAdventurer(Adventurer.builder().name("Lone " + x).movementSequence("AAAA")
+                    .position(Coordinate.of(x, 0)).orientation(Direction.SOUTH).build());
+        map.addAdventurer(Adventurer.builder().name("Pair").movementSequence("AAAA")
+                .position(Coordinate.of(1, 0)).orientation(Direction.SOUTH).build());
+
+        var groups = AdventurerGroups.partition(map, new long[map.players().size()], ParallelSimulation.DEFAULT_WINDOW);
+
+        assertThat(groups).hasSize(100);
+        assertThat(groups.get(0).players()).hasSize(2);
+        assertThat(groups.get(0).simulation(map, new long[map.players().size()]).occupancy()).isInstanceOf(HashOccupancy.class);
+        for (var group : groups.subList(1, groups.size()))
+            assertThat(group.simulation(map, new long[map.players().size()]).occupancy()).isSameAs(Occupancy.NONE);
+    }
+}
@@ -0,0 +1,155 @@
+package com.oozeander.simulation;
+
+import com.oozeander.model.Adventurer;
+import com.oozeander.model.Coordinate;
+import com.oozeander.model.Direction;
+import com.oozeander.model.MovementSequence;
+import com.oozeander.model.StorageLayout;
+import com.oozeander.model.TreasureMap;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SimulationTest {
+
+    private static Adventurer adventurer(String name, int x, int y, Direction orientation, String movementSequence) {
+        return Adventurer.builder()
+                .name(name)
+                .movementSequence(movementSequence)
+                .position(Coordinate.of(x, y))
+                .orientation(orientation)
+                .build();
+    }
+
+    @Test
+    void should_interleave_moves_of_adventurers_in_file_order() {
+        var map = TreasureMap.builder().width(3).height(1).build();
+        map.addTreasure(Coordinate.of(1, 0), (short) 1);
+        var slow = adventurer("Slow", 0, 0, Direction.NORTH, "DA");
+        var fast = adventurer("Fast", 2, 0, Direction.WEST, "A");
+        map.addAdventurer(slow);
+        map.addAdventurer(fast);
+
+        new Simulation(map).run();
+
+        assertThat(fast.treasureCount()).isEqualTo((short) 1);
+        assertThat(fast.position()).isEqualTo(Coordinate.of(1, 0));
+        assertThat(slow.treasureCount()).isEqualTo((short) 0);
+        assertThat(slow.position()).isEqualTo(Coordinate.of(0, 0));
+    }
+
+    @Test
+    void should_let_adventurer_follow_another_one() {
+        var map = TreasureMap.builder().width(4).height(1).build();
+        var leader = adventurer("Leader", 1, 0, Direction.EAST, "AA");
+        var follower = adventurer("Follower", 0, 0, Direction.EAST, "AA");
+        map.addAdventurer(leader);
+        map.addAdventurer(follower);
+
+        var simulation = new Simulation(map);
+        simulation.run();
+
+        assertThat(simulation.tick()).isEqualTo(2);
+        assertThat(leader.position()).isEqualTo(Coordinate.of(3, 0));
+        assertThat(follower.position()).isEqualTo(Coordinate.of(2, 0));
+    }
+
+    @Test
+    void should_block_adventurers_in_a_huge_sparse_map() {
+        var map = TreasureMap.builder().width(30000).height(30000).layout(StorageLayout.SPARSE).build();
+        var first = adventurer("First", 29998, 29999, Direction.EAST, "AGA");
+        var second = adventurer("Second", 29999, 29998, Direction.SOUTH, "AAA");
+        map.addAdventurer(first);
+        map.addAdventurer(second);
+
+        new Simulation(map).run();
+
+        assertThat(first.position()).isEqualTo(Coordinate.of(29999, 29999));
+        assertThat(second.position()).isEqualTo(Coordinate.of(29999, 29998));
+    }
+
+    @Test
+    void should_play_lazy_sequences_like_strings() {
+        String moves = MovementSequence.random(50_000, 7).asString();
+        var expected = TreasureMap.builder().width(40).height(40).build();
+        var actual = TreasureMap.builder().width(40).height(40).build();
+        for (var map : new TreasureMap[]{expected, actual}) {
+            map.addMountain(Coordinate.of(20, 20));
+            map.addTreasure(Coordinate.of(21, 20), (short) 3);
+        }
+        expected.addAdventurer(adventurer("Lara", 10, 10, Direction.EAST, moves));
+        expected.addAdventurer(adventurer("Indiana", 30, 30, Direction.WEST, "AAGAADA"));
+        actual.addAdventurer(Adventurer.builder().name("Lara").moves(MovementSequence.random(50_000, 7))
+                .position(Coordinate.of(10, 10)).orientation(Direction.EAST).build());
+        actual.addAdventurer(Adventurer.builder().name("Indiana").moves(MovementSequence.runLength("2AG2ADA"))
+                .position(Coordinate.of(30, 30)).orientation(Direction.WEST).build());
+
+        new Simulation(expected).run();
+        new Simulation(actual).run();
+
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void should_compile_a_lazy_sequence_window_by_window() {
+        var expected = TreasureMap.builder().width(64).height(64).build();
+        var actual = TreasureMap.builder().width(64).height(64).build();
+        for (var map : new TreasureMap[]{expected, actual})
+            map.addTreasure(Coordinate.of(5, 5), (short) 2);
+        expected.addAdventurer(adventurer("Lara", 0, 0, Direction.EAST,
+                MovementSequence.random(Simulation.COMPILE_WINDOW + 12_345L, 3).asString()));
+        actual.addAdventurer(Adventurer.builder().name("Lara").moves(MovementSequence.random(Simulation.COMPILE_WINDOW + 12_345L, 3))
+                .position(Coordinate.of(0, 0)).orientation(Direction.EAST).build());
+
+        var reference = new Simulation(expected);
+        while (reference.step())
+            ;
+        var compiled = new Simulation(actual);
+        compiled.run();
+
+        assertThat(compiled.tick()).isEqualTo(reference.tick());
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void should_throw_when_adventurers_share_a_cell() {
+        var map = TreasureMap.builder().width(3).height(3).build();
+        map.addAdventurer(adventurer("Lara", 1, 1, Direction.NORTH, "A"));
+        map.addAdventurer(adventurer("Indiana", 1, 1, Direction.NORTH, "A"));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> new Simulation(map))
+                .withMessage("The given coordinates are already taken by an adventurer !");
+    }
+
+    // Lara shuttles between two cells of 20000 treasures; Idle, if any, keeps the lone-adventurer path out.
+    private static TreasureMap shuttleMap(boolean idle) {
+        var map = TreasureMap.builder().width(2).height(2).build();
+        map.addTreasure(Coordinate.of(0, 0), (short) 20_000);
+        map.addTreasure(Coordinate.of(1, 0), (short) 20_000);
+        map.addAdventurer(adventurer("Lara", 0, 0, Direction.EAST, "ADDADD".repeat(20_000)));
+        if (idle)
+            map.addAdventurer(adventurer("Idle", 0, 1, Direction.EAST, ""));
+        return map;
+    }
+
+    @Test
+    void should_count_more_treasures_than_a_short_holds() {
+        var compiled = shuttleMap(false);
+        new Simulation(compiled).run();
+        var interpreted = shuttleMap(true);
+        new Simulation(interpreted).run();
+        var specialized = shuttleMap(true);
+        var simulation = new Simulation(specialized);
+        simulation.specialized(true);
+        simulation.run();
+        var batch = shuttleMap(true);
+        new BatchSimulation(batch).run();
+
+        for (TreasureMap map : new TreasureMap[]{compiled, interpreted, specialized, batch}) {
+            assertThat(map.players().get(0).treasureCount()).isEqualTo(40_000);
+            assertThat(map.toString()).contains("A - Lara - 0 - 0 - E - 40000");
+        }
+    }
+}